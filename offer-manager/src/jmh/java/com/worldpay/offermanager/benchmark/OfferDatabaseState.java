@@ -0,0 +1,127 @@
+package com.worldpay.offermanager.benchmark;
+
+import com.worldpay.offermanager.OfferManagerApplication;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.service.OfferCache;
+import com.worldpay.offermanager.service.OfferExpirySweeper;
+import com.worldpay.offermanager.service.OfferService;
+import com.worldpay.offermanager.service.OfferStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The offer manager started without its web server on an embedded H2 database seeded with tableSize active offers.
+ * Offer i is described as "offer i word" and expires within a year. The table is seeded before the application
+ * is ready so the search index and the expiry scheduler load it as they would on a real startup.
+ * The scheduled expiry sweeps are disabled, the benchmarks run the sweeper themselves.
+ * With store the reads are served by the off-heap offer store instead of the database. With events=false no offer
+ * event is appended to the event log, -p events=false,true measures the cost of the outbox inserts.
+ */
+@State(Scope.Benchmark)
+public class OfferDatabaseState {
+
+    static final String[] WORDS = {"summer", "winter", "spring", "autumn", "flash", "weekend", "holiday", "clearance"};
+
+    private static final int SEED_BATCH_SIZE = 10000;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int tableSize;
+
+    @Param({"false", "true"})
+    public boolean store;
+
+    @Param({"true"})
+    public boolean events;
+
+    ConfigurableApplicationContext context;
+
+    OfferService offerService;
+
+    OfferExpirySweeper offerExpirySweeper;
+
+    OfferCache offerCache;
+
+    OfferStore offerStore;
+
+    JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(OfferManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.generate-unique-name=true",
+                        "offer.expiry.sweep-cron=-",
+                        "offer.search.index-enabled=true",
+                        "offer.store.enabled=" + store,
+                        "offer.events.enabled=" + events,
+                        "logging.level.com.worldpay.offermanager=WARN")
+                .listeners(new Seeder(tableSize))
+                .run();
+        offerService = context.getBean(OfferService.class);
+        offerExpirySweeper = context.getBean(OfferExpirySweeper.class);
+        offerCache = context.getBean(OfferCache.class);
+        offerStore = context.getBean(OfferStore.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    long randomId() {
+        return ThreadLocalRandom.current().nextLong(tableSize) + 1;
+    }
+
+    static String description(long id) {
+        return "offer " + word(id);
+    }
+
+    static String word(long id) {
+        return id + " " + WORDS[(int) (id % WORDS.length)];
+    }
+
+    /**
+     * Inserts the offers with plain JDBC batches once the schema exists, and moves the id sequence past them.
+     */
+    private static class Seeder implements ApplicationListener<ApplicationStartedEvent> {
+
+        private final int tableSize;
+
+        Seeder(int tableSize) {
+            this.tableSize = tableSize;
+        }
+
+        @Override
+        public void onApplicationEvent(ApplicationStartedEvent event) {
+            JdbcTemplate jdbcTemplate = event.getApplicationContext().getBean(JdbcTemplate.class);
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> rows = new ArrayList<>(SEED_BATCH_SIZE);
+            for (long id = 1; id <= tableSize; id++) {
+                String name = "offer " + id;
+                String description = description(id);
+                rows.add(new Object[]{id, BigDecimal.TEN, "GBP", Timestamp.valueOf(now.plusDays(1 + id % 365)),
+                        name, description, Offer.searchKey(description)});
+                if (rows.size() == SEED_BATCH_SIZE || id == tableSize) {
+                    jdbcTemplate.batchUpdate("insert into offer (id, price, currency, expiry_date, name, "
+                            + "description, description_key, status, version) values (?, ?, ?, ?, ?, ?, ?, 'ACTIVE', 0)", rows);
+                    rows = new ArrayList<>(SEED_BATCH_SIZE);
+                }
+            }
+            // the sequence value is the top of the next block of 50 ids handed out by Hibernate
+            jdbcTemplate.execute("alter sequence offer_sequence restart with " + (tableSize + 50));
+        }
+    }
+}
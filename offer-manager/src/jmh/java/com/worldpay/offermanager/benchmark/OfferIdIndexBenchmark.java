@@ -0,0 +1,78 @@
+package com.worldpay.offermanager.benchmark;
+
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.service.LongLongMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up the row of an offer id in a map of boxed Long keys, as the offer indexes used to, and in the
+ * {@link LongLongMap} that replaced it. Run with -prof gc to see the boxing in the allocation rate.
+ * offerStoreGet and getOfferById measure the whole lookup of an offer of {@link OfferDatabaseState}, through the
+ * offer store and through the service, run them with -p store=true to read from the store.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OfferIdIndexBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    @Param({"100000"})
+    public int size;
+
+    private Map<Long, Integer> boxed;
+
+    private LongLongMap primitive;
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boxed = new ConcurrentHashMap<>(size * 2);
+        primitive = new LongLongMap(size, -1);
+        for (int row = 0; row < size; row++) {
+            boxed.put(row + 1l, row);
+            primitive.put(row + 1l, row);
+        }
+        Random random = new Random(42);
+        ids = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++)
+            ids[i] = 1 + random.nextInt(size);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public long boxedMap() {
+        long sum = 0;
+        for (long id : ids)
+            sum += boxed.get(id);
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public long longLongMap() {
+        long sum = 0;
+        for (long id : ids)
+            sum += primitive.get(id);
+        return sum;
+    }
+
+    @Benchmark
+    public Offer offerStoreGet(OfferDatabaseState db) {
+        return db.offerStore.get(db.randomId());
+    }
+
+    @Benchmark
+    public Offer getOfferById(OfferDatabaseState db) {
+        return db.offerService.getOfferById(db.randomId());
+    }
+}
@@ -0,0 +1,77 @@
+package com.worldpay.offermanager.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.controller.OfferListWriter;
+import com.worldpay.offermanager.model.OfferView;
+import com.worldpay.offermanager.model.Status;
+import com.worldpay.offermanager.service.ParallelChunks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a large list of offers as JSON with the {@link OfferListWriter}, on the calling thread with a single thread
+ * and in chunks on the {@link ParallelChunks} pool with more.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OfferListWriterBenchmark {
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"100000"})
+    public int listSize;
+
+    private ParallelChunks parallelChunks;
+
+    private OfferListWriter writer;
+
+    private List<OfferView> offers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        OfferProperties offerProperties = new OfferProperties();
+        offerProperties.getParallel().setThreads(threads);
+        parallelChunks = new ParallelChunks(offerProperties, new SimpleMeterRegistry());
+        writer = new OfferListWriter(mapper, parallelChunks);
+
+        LocalDateTime now = LocalDateTime.now();
+        offers = new ArrayList<>(listSize);
+        for (int i = 1; i <= listSize; i++) {
+            offers.add(new OfferView((long) i, BigDecimal.valueOf(1000 + i, 2), Currency.getInstance(Locale.UK),
+                    now.plusMinutes(i), "offer " + i, OfferDatabaseState.description(i), Status.ACTIVE, 0));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parallelChunks.shutdown();
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(1 << 24);
+        writer.writeTo(offers, ArrayList.class, null, null, MediaType.APPLICATION_JSON_TYPE, null, output);
+        return output.size();
+    }
+}
@@ -0,0 +1,93 @@
+package com.worldpay.offermanager.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.worldpay.offermanager.controller.SmileProvider;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferView;
+import com.worldpay.offermanager.model.Status;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a page of offers as the list endpoint does and decoding a bulk request of offers, in JSON and in Smile.
+ * The payload size of a page in each format is reported next to the encode time, as encode:bytes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OfferSerializationBenchmark {
+
+    @Param({"json", "smile"})
+    public String format;
+
+    @Param({"1", "100", "1000"})
+    public int pageSize;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private List<OfferView> page;
+
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper mapper = format.equals("smile")
+                ? new SmileProvider(Collections.emptyList()).getMapper()
+                : Jackson2ObjectMapperBuilder.json().build();
+        // dates as ISO strings, as Spring Boot configures the application's mappers
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        writer = mapper.writerFor(new TypeReference<List<OfferView>>() {
+        });
+        reader = mapper.readerFor(new TypeReference<List<Offer>>() {
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        page = new ArrayList<>(pageSize);
+        for (int i = 1; i <= pageSize; i++) {
+            page.add(new OfferView((long) i, BigDecimal.valueOf(1000 + i, 2), Currency.getInstance(Locale.UK),
+                    now.plusMinutes(i), "offer " + i, OfferDatabaseState.description(i), Status.ACTIVE, 0));
+        }
+        payload = writer.writeValueAsBytes(page);
+    }
+
+    /**
+     * The size of the last page encoded.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        public long bytes;
+    }
+
+    @Benchmark
+    public byte[] encode(PayloadSize size) throws IOException {
+        byte[] bytes = writer.writeValueAsBytes(page);
+        size.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public List<Offer> decode() throws IOException {
+        return reader.readValue(payload);
+    }
+}
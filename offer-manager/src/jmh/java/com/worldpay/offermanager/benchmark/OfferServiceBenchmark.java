@@ -0,0 +1,135 @@
+package com.worldpay.offermanager.benchmark;
+
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferPage;
+import com.worldpay.offermanager.model.OfferView;
+import com.worldpay.offermanager.model.OfferQuery;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The service and repository hot paths against an offer table of each size of {@link OfferDatabaseState}.
+ * addOffer grows the table for the length of a run, cancelOffer and refreshOfferStatus measure a batch
+ * of offers reset to active before each iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OfferServiceBenchmark {
+
+    private static final int CANCEL_BATCH_SIZE = 1000;
+
+    private static final int EXPIRY_BATCH_SIZE = 5000;
+
+    @Benchmark
+    public Offer getOfferById(OfferDatabaseState db) {
+        return db.offerService.getOfferById(db.randomId());
+    }
+
+    @Benchmark
+    public OfferPage getOffers(OfferDatabaseState db, ListingState listing) {
+        OfferPage page = db.offerService.getOffers(listing.query);
+        listing.query.setCursor(page.getNextCursor());
+        return page;
+    }
+
+    @Benchmark
+    public List<OfferView> getOfferByDescription(OfferDatabaseState db) {
+        // a leading wildcard, answered from the trigram index
+        return db.offerService.getOfferByDescription("%" + OfferDatabaseState.word(db.randomId()));
+    }
+
+    @Benchmark
+    public Offer addOffer(OfferDatabaseState db) {
+        Offer offer = new Offer();
+        offer.setName("new offer");
+        offer.setDescription("new offer " + OfferDatabaseState.WORDS[0]);
+        offer.setPrice(BigDecimal.TEN);
+        offer.setCurrency(Currency.getInstance(Locale.UK));
+        offer.setExpiryDate(LocalDateTime.now().plusDays(1));
+        return db.offerService.addOffer(offer);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = CANCEL_BATCH_SIZE)
+    @Measurement(iterations = 10, batchSize = CANCEL_BATCH_SIZE)
+    public Offer cancelOffer(OfferDatabaseState db, CancelState cancel) {
+        return db.offerService.cancelOffer(cancel.nextId.incrementAndGet());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public int refreshOfferStatus(OfferDatabaseState db, ExpiryState expiry) {
+        return db.offerExpirySweeper.refreshOfferStatus();
+    }
+
+    /**
+     * Pages through the active offers, starting over after the last page.
+     */
+    @State(Scope.Thread)
+    public static class ListingState {
+
+        final OfferQuery query = new OfferQuery();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            query.setStatus("ACTIVE");
+        }
+    }
+
+    /**
+     * Makes the first offers active again before each iteration, which then cancels them in id order.
+     */
+    @State(Scope.Benchmark)
+    public static class CancelState {
+
+        final AtomicLong nextId = new AtomicLong();
+
+        @Setup(Level.Iteration)
+        public void reactivate(OfferDatabaseState db) {
+            int count = Math.min(CANCEL_BATCH_SIZE, db.tableSize);
+            db.jdbcTemplate.update("update offer set status = 'ACTIVE', expiry_date = ? where id <= ?",
+                    Timestamp.valueOf(LocalDateTime.now().plusDays(1)), count);
+            db.offerCache.invalidateAll(ids(1, count));
+            nextId.set(0);
+        }
+    }
+
+    /**
+     * Makes a batch of offers from the middle of the table active and just expired before each iteration.
+     */
+    @State(Scope.Benchmark)
+    public static class ExpiryState {
+
+        @Setup(Level.Iteration)
+        public void expire(OfferDatabaseState db) {
+            long from = db.tableSize / 2 + 1;
+            long to = Math.min(from + EXPIRY_BATCH_SIZE - 1, db.tableSize);
+            db.jdbcTemplate.update("update offer set status = 'ACTIVE', expiry_date = ? where id between ? and ?",
+                    Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), from, to);
+        }
+    }
+
+    private static List<Long> ids(long from, long to) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = from; id <= to; id++)
+            ids.add(id);
+        return ids;
+    }
+}
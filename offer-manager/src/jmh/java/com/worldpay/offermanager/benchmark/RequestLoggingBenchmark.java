@@ -0,0 +1,89 @@
+package com.worldpay.offermanager.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.controller.RequestLog;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The request log written by several request threads to a log file, synchronously as the application logs by
+ * default or through the async appender of offer.logging.async, with every request logged or one in a hundred.
+ * The file is written to target/request-logging-benchmark.log with the pattern Spring Boot uses for its log file.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RequestLoggingBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p --- [%t] %-40.40logger{39} : %m%n";
+
+    @Param({"sync", "async"})
+    public String appender;
+
+    @Param({"1", "0.01"})
+    public double sampleRate;
+
+    private RequestLog requestLog;
+
+    private Appender<ILoggingEvent> fileAppender;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile("target/request-logging-benchmark.log");
+        file.setAppend(false);
+        file.setEncoder(encoder);
+        file.start();
+        fileAppender = file;
+        if (appender.equals("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(file);
+            async.start();
+            fileAppender = async;
+        }
+        Logger logger = context.getLogger(RequestLog.class);
+        logger.detachAndStopAllAppenders();
+        logger.setAdditive(false);
+        logger.setLevel(ch.qos.logback.classic.Level.INFO);
+        logger.addAppender(fileAppender);
+
+        OfferProperties offerProperties = new OfferProperties();
+        offerProperties.getLogging().setSampleRate(sampleRate);
+        requestLog = new RequestLog(offerProperties);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fileAppender.stop();
+    }
+
+    @Benchmark
+    public boolean logRequest() {
+        boolean sampled = requestLog.sampled("getOfferById");
+        if (sampled)
+            requestLog.log("getOfferById", "GET", "offer/42", 200, 125000);
+        return sampled;
+    }
+}
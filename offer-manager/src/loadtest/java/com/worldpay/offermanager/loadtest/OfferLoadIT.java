@@ -0,0 +1,269 @@
+package com.worldpay.offermanager.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.worldpay.offermanager.OfferManagerApplication;
+import com.worldpay.offermanager.model.Offer;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives the offer endpoints of a locally started application with a weighted mix of requests from a pool of threads.
+ * The latency of every request made after the warm up is recorded in a histogram per operation, and the
+ * percentiles and throughput are written to a JSON report plus one HdrHistogram percentile file per operation.
+ * Configured with system properties:
+ * load.threads, load.warmup, load.duration (ISO-8601 durations), load.offers (offers created before the run),
+ * load.mix (operation:weight pairs of get, list, add and cancel) and load.report-dir.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = OfferManagerApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"logging.level.com.worldpay.offermanager.controller=WARN",
+                "logging.level.com.worldpay.offermanager.service=WARN"})
+public class OfferLoadIT {
+
+    private final Logger logger = LoggerFactory.getLogger(OfferLoadIT.class);
+
+    enum Operation {
+        GET(Response.Status.OK), LIST(Response.Status.OK), ADD(Response.Status.CREATED), CANCEL(Response.Status.OK);
+
+        private final Response.Status expectedStatus;
+
+        Operation(Response.Status expectedStatus) {
+            this.expectedStatus = expectedStatus;
+        }
+    }
+
+    @LocalServerPort
+    int port;
+
+    private Client client;
+
+    private final int threads = Integer.getInteger("load.threads", 8);
+
+    private final Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+
+    private final Duration duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+
+    private final int offers = Integer.getInteger("load.offers", 1000);
+
+    private final String mix = System.getProperty("load.mix", "get:60,list:20,add:15,cancel:5");
+
+    private final File reportDir = new File(System.getProperty("load.report-dir", "target/load-test"));
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+
+    // offers that can still be cancelled, taken by cancels and refilled by adds
+    private final Queue<Long> activeIds = new ConcurrentLinkedQueue<>();
+
+    private long[] seededIds;
+
+    @Before
+    public void setup() {
+        client = ClientBuilder.newClient();
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    @After
+    public void cleanup() {
+        client.close();
+    }
+
+    @Test
+    public void runLoad() throws Exception {
+        NavigableMap<Integer, Operation> weights = parseMix(mix);
+        int totalWeight = weights.lastKey();
+
+        seededIds = new long[offers];
+        for (int i = 0; i < offers; i++) {
+            seededIds[i] = addOffer(i);
+            activeIds.add(seededIds[i]);
+        }
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (long now = System.nanoTime(); now < end; now = System.nanoTime()) {
+                    Operation operation = weights.higherEntry(random.nextInt(totalWeight)).getValue();
+                    call(operation, now >= measureFrom);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers)
+            worker.get();
+        executor.shutdown();
+
+        Map<String, Object> report = writeReport();
+        logger.info("Load test report {}", report);
+
+        long requests = latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        long failed = errors.values().stream().mapToLong(AtomicLong::get).sum();
+        assertTrue(requests > 0);
+        assertEquals(0, failed);
+    }
+
+    private void call(Operation operation, boolean measured) {
+        Long cancelId = null;
+        if (operation == Operation.CANCEL) {
+            cancelId = activeIds.poll();
+            if (cancelId == null)
+                operation = Operation.GET;
+        }
+
+        long start = System.nanoTime();
+        try {
+            Response response;
+            switch (operation) {
+                case GET:
+                    response = target().path(String.valueOf(seededIds[ThreadLocalRandom.current().nextInt(seededIds.length)]))
+                            .request(MediaType.APPLICATION_JSON).get();
+                    break;
+                case LIST:
+                    response = target().path("list").request(MediaType.APPLICATION_JSON).get();
+                    break;
+                case ADD:
+                    response = target().request(MediaType.APPLICATION_JSON)
+                            .post(Entity.entity(offer(start), MediaType.APPLICATION_JSON));
+                    break;
+                default:
+                    response = target().path("cancel").path(String.valueOf(cancelId))
+                            .request(MediaType.APPLICATION_JSON).put(Entity.entity(cancelId, MediaType.APPLICATION_JSON));
+                    break;
+            }
+            boolean ok = response.getStatus() == operation.expectedStatus.getStatusCode();
+            if (ok && operation == Operation.ADD)
+                activeIds.add(response.readEntity(Offer.class).getId());
+            else
+                response.readEntity(String.class);
+            long latency = System.nanoTime() - start;
+
+            if (!ok)
+                errors.get(operation).incrementAndGet();
+            else if (measured)
+                latencies.get(operation).recordValue(latency);
+        } catch (RuntimeException e) {
+            errors.get(operation).incrementAndGet();
+        }
+    }
+
+    private Map<String, Object> writeReport() throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("threads", threads);
+        report.put("warmupSeconds", warmup.getSeconds());
+        report.put("durationSeconds", duration.getSeconds());
+        report.put("offers", offers);
+        report.put("mix", mix);
+
+        String name = "offers-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        reportDir.mkdirs();
+        Histogram total = new Histogram(3);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            total.add(histogram);
+            operations.put(operation.name().toLowerCase(Locale.ROOT), summary(histogram, errors.get(operation).get()));
+            try (PrintStream out = new PrintStream(new File(reportDir, name + "-" + operation.name().toLowerCase(Locale.ROOT) + ".hgrm"))) {
+                // percentiles in microseconds
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        report.put("operations", operations);
+        report.put("total", summary(total, errors.values().stream().mapToLong(AtomicLong::get).sum()));
+
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(reportDir, name + ".json"), report);
+        return report;
+    }
+
+    private Map<String, Object> summary(Histogram histogram, long errorCount) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("errors", errorCount);
+        summary.put("throughputPerSecond", (double) histogram.getTotalCount() * 1000 / duration.toMillis());
+        summary.put("p50Micros", histogram.getValueAtPercentile(50) / 1000);
+        summary.put("p99Micros", histogram.getValueAtPercentile(99) / 1000);
+        summary.put("p999Micros", histogram.getValueAtPercentile(99.9) / 1000);
+        summary.put("maxMicros", histogram.getMaxValue() / 1000);
+        return summary;
+    }
+
+    /**
+     * Parses "get:60,list:20" into the cumulative weight each operation ends at.
+     */
+    static NavigableMap<Integer, Operation> parseMix(String mix) {
+        NavigableMap<Integer, Operation> weights = new TreeMap<>();
+        int total = 0;
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2)
+                throw new IllegalArgumentException("load.mix entry is not operation:weight " + entry);
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                total += weight;
+                weights.put(total, Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+        if (weights.isEmpty())
+            throw new IllegalArgumentException("load.mix has no operation " + mix);
+        return weights;
+    }
+
+    private long addOffer(int i) {
+        Response response = target().request(MediaType.APPLICATION_JSON)
+                .post(Entity.entity(offer(i), MediaType.APPLICATION_JSON));
+        assertEquals(Response.Status.CREATED.getStatusCode(), response.getStatus());
+        return response.readEntity(Offer.class).getId();
+    }
+
+    private WebTarget target() {
+        return client.target("http://localhost:" + port + "/api/offer/");
+    }
+
+    private static Offer offer(long i) {
+        Offer offer = new Offer();
+        offer.setName("load " + i);
+        offer.setDescription("load test offer " + i);
+        offer.setPrice(BigDecimal.TEN);
+        offer.setCurrency(Currency.getInstance(Locale.UK));
+        offer.setExpiryDate(LocalDateTime.now().plusDays(1));
+        return offer;
+    }
+}
@@ -1,10 +1,17 @@
 package com.worldpay.offermanager.config;
 
+import com.worldpay.offermanager.controller.ActiveRequestsFilter;
+import com.worldpay.offermanager.controller.CompressionInterceptor;
+import com.worldpay.offermanager.controller.OfferListWriter;
 import com.worldpay.offermanager.controller.OfferEndPoint;
+import com.worldpay.offermanager.controller.ReactiveOfferEndPoint;
+import com.worldpay.offermanager.controller.RequestLogFilter;
+import com.worldpay.offermanager.controller.SmileProvider;
 import com.worldpay.offermanager.exception.GenericExceptionMapper;
 import com.worldpay.offermanager.exception.OfferNotFoundExceptionMapper;
 import com.worldpay.offermanager.exception.ValidationExceptionMapper;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.stereotype.Component;
 
@@ -14,10 +21,24 @@ import javax.ws.rs.ApplicationPath;
 @Configuration
 @ApplicationPath("/api")
 public class JerseyConfig extends ResourceConfig {
-	public JerseyConfig() {register(OfferEndPoint.class);
-	register(OfferNotFoundExceptionMapper.class);
+
+	/**
+	 * Registers the reactive offer endpoints on top when offer.reactive.enabled is set. The Smile provider is a
+	 * Spring bean as it is built from the application's Jackson configuration, the JSON writer of the offer lists
+	 * as it writes large lists on the parallel pool.
+	 */
+	@Autowired
+	public JerseyConfig(OfferProperties offerProperties, SmileProvider smileProvider, OfferListWriter offerListWriter) {
+		register(OfferEndPoint.class);
+		register(OfferNotFoundExceptionMapper.class);
 		register(ValidationExceptionMapper.class);
 		register(GenericExceptionMapper.class);
-
+		register(ActiveRequestsFilter.class);
+		register(CompressionInterceptor.class);
+		register(RequestLogFilter.class);
+		if (offerProperties.getReactive().isEnabled())
+			register(ReactiveOfferEndPoint.class);
+		register(smileProvider);
+		register(offerListWriter);
 	}
 }
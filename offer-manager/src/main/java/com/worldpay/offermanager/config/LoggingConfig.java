@@ -0,0 +1,63 @@
+package com.worldpay.offermanager.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * With offer.logging.async the appenders of the root logger, the console and the log file set up by Spring Boot,
+ * are moved behind Logback async appenders, so a request thread only queues its log events and never waits on the
+ * console or the disk. A full queue drops events rather than blocking, caller data is not captured.
+ * The appenders are flushed when Spring Boot stops the logging system on shutdown.
+ */
+@Configuration
+public class LoggingConfig {
+
+    static final String ASYNC_PREFIX = "ASYNC-";
+
+    private final OfferProperties offerProperties;
+
+    @Autowired
+    public LoggingConfig(OfferProperties offerProperties) {
+        this.offerProperties = offerProperties;
+    }
+
+    @PostConstruct
+    public void configure() {
+        OfferProperties.Logging logging = offerProperties.getLogging();
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (logging.isAsync() && loggerFactory instanceof LoggerContext)
+            makeAsync((LoggerContext) loggerFactory, logging.getQueueSize());
+    }
+
+    static void makeAsync(LoggerContext context, int queueSize) {
+        ch.qos.logback.classic.Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        List<Appender<ILoggingEvent>> appenders = new ArrayList<>();
+        root.iteratorForAppenders().forEachRemaining(appenders::add);
+        for (Appender<ILoggingEvent> appender : appenders) {
+            if (appender instanceof AsyncAppender)
+                continue;
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setName(ASYNC_PREFIX + appender.getName());
+            async.setQueueSize(queueSize);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(appender);
+            async.start();
+            // attached before the appender is detached, so no event is lost in between
+            root.addAppender(async);
+            root.detachAppender(appender);
+        }
+    }
+}
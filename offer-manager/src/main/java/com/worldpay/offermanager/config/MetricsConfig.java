@@ -0,0 +1,75 @@
+package com.worldpay.offermanager.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics of the offer operations, scraped by Prometheus from /actuator/prometheus.
+ * Requests are timed per endpoint by the Jersey instrumentation, service methods annotated with
+ * {@link io.micrometer.core.annotation.Timed} are timed by the aspect declared here.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Latency of the offer service methods, tagged with the class and method.
+     */
+    public static final String SERVICE_TIMER = "offer.service";
+
+    /**
+     * Requests in flight per endpoint.
+     */
+    public static final String ACTIVE_REQUESTS = "http.server.requests.active";
+
+    /**
+     * Errors turned into a response, tagged with the exception mapper and exception.
+     */
+    public static final String ERRORS = "offer.errors";
+
+    /**
+     * Offers expired, tagged with the source: the sweeper or the scheduler.
+     */
+    public static final String EXPIRED_OFFERS = "offer.expiry.expired";
+
+    /**
+     * Duration of each batch of offers expired, tagged with the source.
+     */
+    public static final String EXPIRY_BATCH_TIMER = "offer.expiry.batch";
+
+    /**
+     * How far behind real time the sweeper has looked for expired offers.
+     */
+    public static final String EXPIRY_LAG = "offer.expiry.lag";
+
+    /**
+     * Offers waiting in the expiry scheduler.
+     */
+    public static final String SCHEDULED_OFFERS = "offer.expiry.scheduled";
+
+    /**
+     * Offers held by the off-heap offer store.
+     */
+    public static final String STORED_OFFERS = "offer.store.offers";
+
+    /**
+     * Off-heap memory held by the offer store.
+     */
+    public static final String STORE_MEMORY = "offer.store.memory";
+
+    /**
+     * Offset of the last event published to the offer event feed.
+     */
+    public static final String EVENT_OFFSET = "offer.events.offset";
+
+    /**
+     * Feed requests waiting for an event to be published.
+     */
+    public static final String EVENT_WAITERS = "offer.events.waiting";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
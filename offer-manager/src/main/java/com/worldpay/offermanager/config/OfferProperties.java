@@ -0,0 +1,710 @@
+package com.worldpay.offermanager.config;
+
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import javax.validation.ConstraintViolation;
+import javax.validation.Valid;
+import javax.validation.Validation;
+import javax.validation.ValidatorFactory;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Tunables of the offer service, bound from the {@code offer.*} properties.
+ * The values are validated once bound, so a misconfigured application fails at startup. They are checked by
+ * {@link #validate()} rather than with @Validated, which would put every getter behind a method validation proxy.
+ */
+@Component
+@ConfigurationProperties(prefix = "offer")
+public class OfferProperties {
+
+    @Valid
+    private final Listing listing = new Listing();
+
+    @Valid
+    private final Search search = new Search();
+
+    @Valid
+    private final Expiry expiry = new Expiry();
+
+    @Valid
+    private final Cache cache = new Cache();
+
+    @Valid
+    private final Bulk bulk = new Bulk();
+
+    @Valid
+    private final Async async = new Async();
+
+    @Valid
+    private final Reactive reactive = new Reactive();
+
+    @Valid
+    private final HttpCache httpCache = new HttpCache();
+
+    @Valid
+    private final Compression compression = new Compression();
+
+    @Valid
+    private final Logging logging = new Logging();
+
+    @Valid
+    private final Store store = new Store();
+
+    @Valid
+    private final Parallel parallel = new Parallel();
+
+    @Valid
+    private final Events events = new Events();
+
+    /**
+     * This method will check the bound values against their constraints.
+     *
+     * @exception IllegalStateException naming every property whose value is not valid.
+     */
+    @PostConstruct
+    public void validate() {
+        Set<ConstraintViolation<OfferProperties>> violations;
+        try (ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory()) {
+            violations = validatorFactory.getValidator().validate(this);
+        }
+        if (!violations.isEmpty())
+            throw new IllegalStateException(violations.stream()
+                    .map(violation -> "offer." + violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ", "Invalid offer properties: ", "")));
+    }
+
+    public Listing getListing() {
+        return listing;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Expiry getExpiry() {
+        return expiry;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public Reactive getReactive() {
+        return reactive;
+    }
+
+    public HttpCache getHttpCache() {
+        return httpCache;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public Logging getLogging() {
+        return logging;
+    }
+
+    public Store getStore() {
+        return store;
+    }
+
+    public Parallel getParallel() {
+        return parallel;
+    }
+
+    public Events getEvents() {
+        return events;
+    }
+
+    public static class Listing {
+
+        /**
+         * Number of offers returned by a list request that does not ask for a limit.
+         */
+        @Min(1)
+        private int defaultPageSize = 100;
+
+        /**
+         * Upper bound on the number of offers returned by a single list request.
+         */
+        @Min(1)
+        private int maxPageSize = 500;
+
+        public int getDefaultPageSize() {
+            return defaultPageSize;
+        }
+
+        public void setDefaultPageSize(int defaultPageSize) {
+            this.defaultPageSize = defaultPageSize;
+        }
+
+        public int getMaxPageSize() {
+            return maxPageSize;
+        }
+
+        public void setMaxPageSize(int maxPageSize) {
+            this.maxPageSize = maxPageSize;
+        }
+    }
+
+    public static class Search {
+
+        /**
+         * Whether descriptions are kept in the in memory trigram index for substring searches. The index only
+         * holds the offers added through this instance, so it is only for an application run as a single instance.
+         */
+        private boolean indexEnabled = false;
+
+        /**
+         * Above this number of candidates from the trigram index the database scans the descriptions instead.
+         */
+        @Min(1)
+        private int maxCandidates = 5000;
+
+        public boolean isIndexEnabled() {
+            return indexEnabled;
+        }
+
+        public void setIndexEnabled(boolean indexEnabled) {
+            this.indexEnabled = indexEnabled;
+        }
+
+        public int getMaxCandidates() {
+            return maxCandidates;
+        }
+
+        public void setMaxCandidates(int maxCandidates) {
+            this.maxCandidates = maxCandidates;
+        }
+    }
+
+    public static class Expiry {
+
+        /**
+         * Whether active offers are also expired in process at their exact expiry date.
+         */
+        private boolean schedulerEnabled = true;
+
+        /**
+         * Number of offers expired per transaction by the expiry sweeper.
+         */
+        @Min(1)
+        private int batchSize = 500;
+
+        /**
+         * How far behind the previous run the sweeper looks again, covers offers committed late.
+         */
+        @NotNull
+        private Duration watermarkLag = Duration.ofMinutes(1);
+
+        /**
+         * Cron expression of the expiry sweeper runs, "-" disables the scheduled runs.
+         */
+        @NotEmpty
+        private String sweepCron = "0/10 * * * * ?";
+
+        public boolean isSchedulerEnabled() {
+            return schedulerEnabled;
+        }
+
+        public void setSchedulerEnabled(boolean schedulerEnabled) {
+            this.schedulerEnabled = schedulerEnabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getWatermarkLag() {
+            return watermarkLag;
+        }
+
+        public void setWatermarkLag(Duration watermarkLag) {
+            this.watermarkLag = watermarkLag;
+        }
+
+        public String getSweepCron() {
+            return sweepCron;
+        }
+
+        public void setSweepCron(String sweepCron) {
+            this.sweepCron = sweepCron;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Whether offers read by id are cached.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of cached offers.
+         */
+        @Min(0)
+        private long maximumSize = 10000;
+
+        /**
+         * How long an offer stays cached after it was loaded.
+         */
+        @NotNull
+        private Duration timeToLive = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class Bulk {
+
+        /**
+         * Maximum number of offers accepted by one bulk request.
+         */
+        @Min(1)
+        private int maxSize = 50000;
+
+        /**
+         * Number of offers inserted per flush, should match hibernate.jdbc.batch_size.
+         */
+        @Min(1)
+        private int batchSize = 50;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Async {
+
+        /**
+         * Whether requests are run on the request executor instead of holding a container thread.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Whether the request executor uses virtual threads, when the JVM has them (Java 21 and later).
+         */
+        private boolean virtualThreads = true;
+
+        /**
+         * Number of platform threads of the request executor, when virtual threads are not used.
+         */
+        @Min(1)
+        private int threads = 200;
+
+        /**
+         * Number of requests waiting for a platform thread before requests are rejected.
+         */
+        @Min(1)
+        private int queueCapacity = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public static class Reactive {
+
+        /**
+         * Whether the reactive offer endpoints under /api/reactive/offer are served.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of threads running the blocking repository calls of the reactive service, sized to the connection pool.
+         */
+        @Min(1)
+        private int threads = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+    }
+
+    public static class HttpCache {
+
+        /**
+         * Longest time clients and proxies may reuse an offer without asking again, an active offer is not
+         * reused past its expiry date.
+         */
+        @NotNull
+        private Duration maxAge = Duration.ofMinutes(1);
+
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+    }
+
+    public static class Compression {
+
+        /**
+         * Whether responses are compressed with gzip or deflate for clients sending a matching Accept-Encoding.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Smallest response body that is compressed, smaller bodies cost more to compress than they save.
+         */
+        @NotNull
+        private DataSize minResponseSize = DataSize.ofKilobytes(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public DataSize getMinResponseSize() {
+            return minResponseSize;
+        }
+
+        public void setMinResponseSize(DataSize minResponseSize) {
+            this.minResponseSize = minResponseSize;
+        }
+    }
+
+    public static class Logging {
+
+        /**
+         * Whether log events are written by a background thread instead of the thread logging them.
+         */
+        private boolean async = false;
+
+        /**
+         * Log events waiting for the background thread. A full queue drops events instead of blocking,
+         * events below WARN are dropped once it is 80% full.
+         */
+        @Min(1)
+        private int queueSize = 8192;
+
+        /**
+         * Share of the requests written to the request log, from 0 for none to 1 for all.
+         */
+        @DecimalMin("0")
+        @DecimalMax("1")
+        private double sampleRate = 0.01;
+
+        /**
+         * Share of the requests written to the request log per endpoint, keyed by resource method such as getOfferById.
+         */
+        private Map<String, @DecimalMin("0") @DecimalMax("1") Double> endpointSampleRates = new HashMap<>();
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public Map<String, Double> getEndpointSampleRates() {
+            return endpointSampleRates;
+        }
+
+        public void setEndpointSampleRates(Map<String, Double> endpointSampleRates) {
+            this.endpointSampleRates = endpointSampleRates;
+        }
+    }
+
+    public static class Store {
+
+        /**
+         * Whether offers are read from an off-heap copy of every offer instead of the database.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Offers per off-heap segment, the store grows by one segment of 47 bytes per offer at a time.
+         */
+        @Min(1)
+        @Max(1048576)
+        private int segmentSize = 65536;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+    }
+
+    public static class Parallel {
+
+        /**
+         * Whether description searches of the offer store, and their results when written as JSON, are processed
+         * in chunks on a dedicated fork-join pool.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Smallest number of offers processed in parallel, smaller lists are processed on the request thread.
+         */
+        @Min(1)
+        private int threshold = 20000;
+
+        /**
+         * Offers per chunk of parallel work.
+         */
+        @Min(1)
+        private int chunkSize = 4096;
+
+        /**
+         * Threads of the fork-join pool, shared by every request, by default the available processors. With a
+         * single thread lists are always processed on the request thread.
+         */
+        @Min(1)
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(int threshold) {
+            this.threshold = threshold;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+    }
+
+    public static class Events {
+
+        /**
+         * Whether offers created, cancelled and expired are appended to the offer event log and published to the feed.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How often the feed looks for committed events when no commit has signalled it, for instance events
+         * committed by another instance. At least a millisecond, the publisher waits for it in milliseconds.
+         */
+        @NotNull
+        @DurationMin(millis = 1)
+        private Duration publishInterval = Duration.ofSeconds(1);
+
+        /**
+         * Number of events given an offset per transaction by the feed.
+         */
+        @Min(1)
+        private int publishBatchSize = 500;
+
+        /**
+         * Number of events returned by a feed request that does not ask for a limit.
+         */
+        @Min(1)
+        private int defaultPageSize = 100;
+
+        /**
+         * Largest number of events returned by a feed request, larger limits are capped.
+         */
+        @Min(1)
+        private int maxPageSize = 1000;
+
+        /**
+         * Longest time a feed request waits for new events, longer waits are capped.
+         */
+        @NotNull
+        private Duration maxWait = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPublishInterval() {
+            return publishInterval;
+        }
+
+        public void setPublishInterval(Duration publishInterval) {
+            this.publishInterval = publishInterval;
+        }
+
+        public int getPublishBatchSize() {
+            return publishBatchSize;
+        }
+
+        public void setPublishBatchSize(int publishBatchSize) {
+            this.publishBatchSize = publishBatchSize;
+        }
+
+        public int getDefaultPageSize() {
+            return defaultPageSize;
+        }
+
+        public void setDefaultPageSize(int defaultPageSize) {
+            this.defaultPageSize = defaultPageSize;
+        }
+
+        public int getMaxPageSize() {
+            return maxPageSize;
+        }
+
+        public void setMaxPageSize(int maxPageSize) {
+            this.maxPageSize = maxPageSize;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.worldpay.offermanager.controller;
+
+import com.worldpay.offermanager.config.MetricsConfig;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Counts the requests in flight per endpoint, from the matching of the resource method until the response
+ * is ready to be written. The latency of the requests is recorded by the Jersey instrumentation.
+ */
+@Provider
+public class ActiveRequestsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+	private static final String SAMPLE_PROPERTY = ActiveRequestsFilter.class.getName() + ".sample";
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Context
+	private ResourceInfo resourceInfo;
+
+	@Override
+	public void filter(ContainerRequestContext request) {
+		if (resourceInfo.getResourceMethod() == null)
+			return;
+		LongTaskTimer timer = LongTaskTimer.builder(MetricsConfig.ACTIVE_REQUESTS)
+				.tag("endpoint", resourceInfo.getResourceMethod().getName())
+				.register(meterRegistry);
+		request.setProperty(SAMPLE_PROPERTY, timer.start());
+	}
+
+	@Override
+	public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+		Object sample = request.getProperty(SAMPLE_PROPERTY);
+		if (sample != null)
+			((LongTaskTimer.Sample) sample).stop();
+	}
+}
@@ -0,0 +1,167 @@
+package com.worldpay.offermanager.controller;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses response bodies with gzip or deflate, whichever the Accept-Encoding of the request prefers, gzip on a tie.
+ * The body is held back until it reaches offer.compression.min-response-size, a smaller body such as a single offer
+ * is written as it is, a larger one such as a listing is compressed from the first byte on. The headers are only
+ * written with the first byte, so Content-Encoding can still be set when the body turns out to be large enough.
+ */
+@Provider
+public class CompressionInterceptor implements WriterInterceptor {
+
+	static final String GZIP = "gzip";
+
+	static final String DEFLATE = "deflate";
+
+	@Autowired
+	private OfferProperties offerProperties;
+
+	@Context
+	private HttpHeaders requestHeaders;
+
+	@Override
+	public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+		OfferProperties.Compression compression = offerProperties.getCompression();
+		MultivaluedMap<String, Object> headers = context.getHeaders();
+		if (!compression.isEnabled() || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+			context.proceed();
+			return;
+		}
+		headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		String encoding = negotiate(requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+		if (encoding != null)
+			context.setOutputStream(new ThresholdOutputStream(context.getOutputStream(), headers, encoding,
+					(int) compression.getMinResponseSize().toBytes()));
+		context.proceed();
+	}
+
+	/**
+	 * The content coding to use for an Accept-Encoding header, or null when the body is to be sent as it is.
+	 */
+	static String negotiate(String acceptEncoding) {
+		if (acceptEncoding == null)
+			return null;
+		double gzip = -1, deflate = -1, any = -1;
+		for (String value : acceptEncoding.split(",")) {
+			String[] parts = value.split(";");
+			String coding = parts[0].trim().toLowerCase();
+			double quality = quality(parts);
+			if (coding.equals(GZIP) || coding.equals("x-gzip"))
+				gzip = Math.max(gzip, quality);
+			else if (coding.equals(DEFLATE))
+				deflate = quality;
+			else if (coding.equals("*"))
+				any = quality;
+		}
+		if (gzip < 0)
+			gzip = any;
+		if (deflate < 0)
+			deflate = any;
+		if (gzip <= 0 && deflate <= 0)
+			return null;
+		return gzip >= deflate ? GZIP : DEFLATE;
+	}
+
+	private static double quality(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			String parameter = parts[i].trim();
+			if (parameter.startsWith("q=")) {
+				try {
+					return Double.parseDouble(parameter.substring(2));
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	/**
+	 * Buffers the body up to the threshold, then either compresses it or, when the body ends first, writes it as it is.
+	 */
+	static final class ThresholdOutputStream extends OutputStream {
+
+		private final OutputStream out;
+		private final MultivaluedMap<String, Object> headers;
+		private final String encoding;
+		private final int threshold;
+
+		// the body written so far, until the threshold is reached
+		private ByteArrayOutputStream buffer;
+
+		// the stream the body goes to once decided
+		private OutputStream target;
+
+		private boolean closed;
+
+		ThresholdOutputStream(OutputStream out, MultivaluedMap<String, Object> headers, String encoding, int threshold) {
+			this.out = out;
+			this.headers = headers;
+			this.encoding = encoding;
+			this.threshold = threshold;
+			this.buffer = new ByteArrayOutputStream(Math.min(threshold, 8192));
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (target == null) {
+				if (buffer.size() + len < threshold) {
+					buffer.write(b, off, len);
+					return;
+				}
+				compress();
+			}
+			target.write(b, off, len);
+		}
+
+		private void compress() throws IOException {
+			headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+			headers.remove(HttpHeaders.CONTENT_LENGTH);
+			target = encoding.equals(GZIP) ? new GZIPOutputStream(out, 8192) : new DeflaterOutputStream(out);
+			buffer.writeTo(target);
+			buffer = null;
+		}
+
+		/**
+		 * A flush before the threshold is reached is held back, the body is not decided yet.
+		 */
+		@Override
+		public void flush() throws IOException {
+			if (target != null)
+				target.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed)
+				return;
+			closed = true;
+			if (target == null) {
+				target = out;
+				buffer.writeTo(out);
+				buffer = null;
+			}
+			target.close();
+		}
+	}
+}
@@ -1,67 +1,305 @@
 package com.worldpay.offermanager.controller;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.exception.ValidationException;
+import com.worldpay.offermanager.model.BulkCancelRequest;
+import com.worldpay.offermanager.model.BulkCancelResult;
+import com.worldpay.offermanager.model.BulkOfferResult;
+import com.worldpay.offermanager.model.CacheStatistics;
 import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferEventPage;
+import com.worldpay.offermanager.model.OfferPage;
+import com.worldpay.offermanager.model.OfferQuery;
+import com.worldpay.offermanager.model.OfferView;
+import com.worldpay.offermanager.service.OfferCache;
+import com.worldpay.offermanager.service.OfferEventFeed;
 import com.worldpay.offermanager.service.OfferService;
+import io.micrometer.core.annotation.Timed;
 import org.apache.logging.log4j.util.Strings;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Path("/offer")
-@Consumes(MediaType.APPLICATION_JSON)
-@Produces(MediaType.APPLICATION_JSON)
+@Timed(histogram = true)
+@Consumes({MediaType.APPLICATION_JSON, OfferEndPoint.APPLICATION_SMILE})
+@Produces({MediaType.APPLICATION_JSON, OfferEndPoint.APPLICATION_SMILE + ";qs=0.9"})
 public class OfferEndPoint {
 
-	private final Logger logger = LoggerFactory.getLogger(OfferEndPoint.class);
+	/**
+	 * Response header carrying the cursor of the next page of a listing.
+	 */
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	/**
+	 * Newline delimited JSON, one offer per line.
+	 */
+	public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+	/**
+	 * Smile, the binary encoding of JSON, read and written by the {@link SmileProvider}. JSON is preferred
+	 * when the client accepts both.
+	 */
+	public static final String APPLICATION_SMILE = "application/x-jackson-smile";
 
 	@Autowired
     OfferService offerService;
 
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	OfferCache offerCache;
+
+	@Autowired
+	RequestExecutor requestExecutor;
+
+	@Autowired
+	ResponseCaching responseCaching;
+
+	@Autowired
+	SmileProvider smileProvider;
+
+	@Autowired
+	OfferEventFeed offerEventFeed;
+
+	@Autowired
+	OfferProperties offerProperties;
+
 	@GET
 	@Path("/list")
-	public List<Offer> getAllOffer(@QueryParam("description") String description) {
-		logger.info("Listing offers by {}", description);
-		if (Strings.isEmpty(description))
-		   return offerService.getOffers();
-		return offerService.getOfferByDescription(description);
+	public void getAllOffer(@BeanParam OfferQuery query, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+							@Context Request request, @Suspended AsyncResponse asyncResponse) {
+		MediaType type = responseCaching.representation(request);
+		requestExecutor.resume(asyncResponse, () -> {
+			if (!Strings.isEmpty(query.getDescription())) {
+				List<OfferView> offers = offerService.getOfferByDescription(query.getDescription());
+				return responseCaching.page(offers, null, new GenericEntity<List<OfferView>>(offers) {}, type,
+						ifNoneMatch).build();
+			}
+
+			OfferPage page = offerService.getOffers(query);
+			Response.ResponseBuilder response = responseCaching.page(page.getOffers(), page.getNextCursor(),
+					new GenericEntity<List<OfferView>>(page.getOffers()) {}, type, ifNoneMatch);
+			if (page.getNextCursor() != null)
+				response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+			return response.build();
+		});
+	}
+
+
+
+
+	@GET
+	@Path("/export")
+	@Produces(MediaType.APPLICATION_JSON)
+	public StreamingOutput exportOffers(@BeanParam OfferQuery query) {
+		return exportArray(objectMapper, query);
+	}
+
+	@GET
+	@Path("/export")
+	@Produces(APPLICATION_SMILE + ";qs=0.9")
+	public StreamingOutput exportOffersAsSmile(@BeanParam OfferQuery query) {
+		return exportArray(smileProvider.getMapper(), query);
 	}
 
+	private StreamingOutput exportArray(ObjectMapper mapper, OfferQuery query) {
+		return output -> {
+			ObjectWriter writer = exportWriter(mapper);
+			try (JsonGenerator generator = mapper.getFactory().createGenerator(output)) {
+				generator.writeStartArray();
+				offerService.exportOffers(query, offer -> writeOffer(writer, generator, offer));
+				generator.writeEndArray();
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		};
+	}
+
+	@GET
+	@Path("/export")
+	@Produces(APPLICATION_NDJSON)
+	public StreamingOutput exportOffersAsNdjson(@BeanParam OfferQuery query) {
+		return output -> {
+			ObjectWriter writer = exportWriter(objectMapper);
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+				generator.setRootValueSeparator(null);
+				offerService.exportOffers(query, offer -> {
+					writeOffer(writer, generator, offer);
+					writeNewLine(generator);
+				});
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		};
+	}
+
+	/**
+	 * The generator is flushed by the container as its buffer fills, not after every offer.
+	 */
+	private static ObjectWriter exportWriter(ObjectMapper mapper) {
+		return mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	private static void writeOffer(ObjectWriter writer, JsonGenerator generator, Offer offer) {
+		try {
+			writer.writeValue(generator, offer);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void writeNewLine(JsonGenerator generator) {
+		try {
+			generator.writeRaw('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@POST
+	public void addOffer(Offer offer, @Context UriInfo uriInfo, @Suspended AsyncResponse asyncResponse) {
+		// the request scoped UriInfo is read on the container thread
+		UriBuilder location = uriInfo.getAbsolutePathBuilder();
+		requestExecutor.resume(asyncResponse, () -> {
+			Offer newOffer = offerService.addOffer(offer);
+			String newId = String.valueOf(newOffer.getId());
+			URI uri = location.path(newId).build();
+			return Response.created(uri)
+					.entity(newOffer)
+					.build();
+		});
+	}
 
 
+	@POST
+	@Path("/bulk")
+	public void addOffers(List<Offer> offers, @Suspended AsyncResponse asyncResponse) {
+		requestExecutor.resume(asyncResponse, () -> new GenericEntity<List<BulkOfferResult>>(offerService.addOffers(offers)) {});
+	}
 
+	/**
+	 * Bulk creation from newline delimited JSON, a line that is not an offer is reported as rejected.
+	 * The body is read on the request executor and rejected as soon as it holds more than offer.bulk.max-size offers.
+	 */
 	@POST
-	public Response addOffer(Offer offer, @Context UriInfo uriInfo) {
-		logger.info("Adding offer {0}", offer.toString());
-		Offer newOffer = offerService.addOffer(offer);
-		String newId = String.valueOf(newOffer.getId());
-		URI uri = uriInfo.getAbsolutePathBuilder().path(newId).build();
-		return Response.created(uri)
-				.entity(newOffer)
-				.build();
+	@Path("/bulk")
+	@Consumes(APPLICATION_NDJSON)
+	public void addOffersFromNdjson(InputStream body, @Suspended AsyncResponse asyncResponse) {
+		requestExecutor.resume(asyncResponse,
+				() -> new GenericEntity<List<BulkOfferResult>>(offerService.addOffers(readOffers(body))) {});
 	}
 
+	private List<Offer> readOffers(InputStream body) {
+		int maxSize = offerProperties.getBulk().getMaxSize();
+		List<Offer> offers = new ArrayList<>();
+		ObjectReader reader = objectMapper.readerFor(Offer.class);
+		try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = lines.readLine()) != null) {
+				if (line.trim().isEmpty())
+					continue;
+				if (offers.size() == maxSize)
+					throw new ValidationException("No more than " + maxSize + " offers can be added at once");
+				try {
+					offers.add(reader.readValue(line));
+				} catch (JsonProcessingException e) {
+					offers.add(null);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return offers;
+	}
 
 	@PUT
 	@Path("/cancel/{offerId}")
-	public Offer cancelOffer(@PathParam("offerId") long offerId) {
-		logger.info("Cancelling  offer {}", offerId);
-		Offer offer = offerService.cancelOffer(offerId);
-		return offer;
+	public void cancelOffer(@PathParam("offerId") long offerId, @Suspended AsyncResponse asyncResponse) {
+		requestExecutor.resume(asyncResponse, () -> offerService.cancelOffer(offerId));
+	}
+
+	@POST
+	@Path("/cancel")
+	public void cancelOffers(BulkCancelRequest request, @Suspended AsyncResponse asyncResponse) {
+		requestExecutor.resume(asyncResponse, () -> new GenericEntity<List<BulkCancelResult>>(offerService.cancelOffers(request)) {});
 	}
 
 	@GET
 	@Path("/{offerId}")
-	public Offer getOfferById(@PathParam("offerId") long offerId) {
-		logger.info("Get offer by Id: {}", offerId);
-		return offerService.getOfferById(offerId);
+	public void getOfferById(@PathParam("offerId") long offerId, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+							 @Context Request request, @Suspended AsyncResponse asyncResponse) {
+		MediaType type = responseCaching.representation(request);
+		requestExecutor.resume(asyncResponse,
+				() -> responseCaching.offer(offerService.getOfferById(offerId), type, ifNoneMatch).build());
+	}
+
+	/**
+	 * The offers created, cancelled and expired after an offset, to be called again with the last offset of the
+	 * response. With a wait in seconds the request is held until an event is published or the wait is over,
+	 * when it is answered with no events, without holding a container thread.
+	 */
+	@GET
+	@Path("/events")
+	public void getEvents(@QueryParam("after") @DefaultValue("0") long after, @QueryParam("limit") Integer limit,
+						  @QueryParam("wait") @DefaultValue("0") int wait, @Suspended AsyncResponse asyncResponse) {
+		Duration waitTime = offerEventFeed.waitTime(wait);
+		if (waitTime.isZero()) {
+			requestExecutor.resume(asyncResponse, () -> offerEventFeed.read(after, limit));
+			return;
+		}
+
+		CompletableFuture<OfferEventPage> events = offerEventFeed.awaitEvents(after, limit);
+		asyncResponse.setTimeoutHandler(response -> {
+			events.cancel(false);
+			response.resume(new OfferEventPage(Collections.emptyList(), after));
+		});
+		asyncResponse.setTimeout(waitTime.toMillis(), TimeUnit.MILLISECONDS);
+		events.whenComplete((page, error) -> {
+			if (page != null)
+				asyncResponse.resume(page);
+			else if (!events.isCancelled())
+				asyncResponse.resume(error);
+		});
+	}
+
+	@GET
+	@Path("/cache/stats")
+	public CacheStatistics getCacheStatistics() {
+		CacheStats stats = offerCache.stats();
+		return new CacheStatistics(stats.hitCount(), stats.missCount(), stats.evictionCount(), offerCache.size());
 	}
 }
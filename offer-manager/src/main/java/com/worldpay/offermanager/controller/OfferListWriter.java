@@ -0,0 +1,114 @@
+package com.worldpay.offermanager.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.worldpay.offermanager.model.OfferView;
+import com.worldpay.offermanager.service.ParallelChunks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes the lists of offers of the list endpoint as JSON. A list of at least offer.parallel.threshold offers is
+ * written in chunks on the {@link ParallelChunks} pool, each chunk into a buffer sized from the names and
+ * descriptions of its offers, and the buffers are then written out in order between the brackets of the array.
+ * Smaller lists are written on the request thread as the Jackson provider would write them.
+ */
+@Component
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class OfferListWriter implements MessageBodyWriter<List<OfferView>> {
+
+	// bytes of an offer besides its name and description, a little more than a typical offer takes
+	private static final int OFFER_BYTES = 144;
+
+	private final JsonFactory factory;
+
+	private final ObjectWriter listWriter;
+
+	private final ObjectWriter offerWriter;
+
+	private final ParallelChunks parallelChunks;
+
+	@Autowired
+	public OfferListWriter(ObjectMapper objectMapper, ParallelChunks parallelChunks) {
+		this.factory = objectMapper.getFactory();
+		this.listWriter = objectMapper.writerFor(new TypeReference<List<OfferView>>() {})
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		this.offerWriter = objectMapper.writerFor(OfferView.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		this.parallelChunks = parallelChunks;
+	}
+
+	@Override
+	public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		return List.class.isAssignableFrom(type) && genericType instanceof ParameterizedType
+				&& ((ParameterizedType) genericType).getActualTypeArguments()[0] == OfferView.class;
+	}
+
+	@Override
+	public void writeTo(List<OfferView> offers, Class<?> type, Type genericType, Annotation[] annotations,
+						MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+			throws IOException, WebApplicationException {
+		if (!parallelChunks.isParallel(offers.size())) {
+			listWriter.writeValue(entityStream, offers);
+			return;
+		}
+
+		List<ByteArrayOutputStream> chunks;
+		try {
+			chunks = parallelChunks.map(0, offers.size(), (from, to) -> writeChunk(offers, from, to));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		entityStream.write('[');
+		for (int i = 0; i < chunks.size(); i++) {
+			if (i > 0)
+				entityStream.write(',');
+			chunks.get(i).writeTo(entityStream);
+		}
+		entityStream.write(']');
+	}
+
+	/**
+	 * The offers of a chunk separated by commas, as they are written inside an array.
+	 */
+	private ByteArrayOutputStream writeChunk(List<OfferView> offers, int from, int to) {
+		int size = 0;
+		for (int i = from; i < to; i++)
+			size += OFFER_BYTES + length(offers.get(i).getName()) + length(offers.get(i).getDescription());
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(size);
+		try (JsonGenerator generator = factory.createGenerator(buffer)) {
+			generator.setRootValueSeparator(null);
+			for (int i = from; i < to; i++) {
+				if (i > from)
+					generator.writeRaw(',');
+				offerWriter.writeValue(generator, offers.get(i));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return buffer;
+	}
+
+	private static int length(String text) {
+		return text == null ? 0 : text.length();
+	}
+}
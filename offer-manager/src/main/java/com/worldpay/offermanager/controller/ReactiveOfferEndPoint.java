@@ -0,0 +1,127 @@
+package com.worldpay.offermanager.controller;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferQuery;
+import com.worldpay.offermanager.model.OfferView;
+import com.worldpay.offermanager.service.ReactiveOfferService;
+import io.micrometer.core.annotation.Timed;
+import org.apache.logging.log4j.util.Strings;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Mono;
+
+import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.UriInfo;
+import java.util.List;
+
+/**
+ * Offer endpoints served by the {@link ReactiveOfferService}, registered when offer.reactive.enabled is set.
+ * Not a Spring bean as the service only exists when enabled, Jersey creates it and autowires its fields.
+ * Requests are suspended while the service runs and resumed from its scheduler, so no container thread waits on the database,
+ * except for /stream which is written by the {@link RequestExecutor} as it pulls the offers while the client reads them.
+ * The service runs the blocking {@link com.worldpay.offermanager.service.OfferService} on threads sized to the same
+ * connection pool, so these endpoints serve no more requests at once than offer.async.enabled does.
+ */
+@Path("/reactive/offer")
+@Timed(histogram = true)
+@Consumes(MediaType.APPLICATION_JSON)
+@Produces(MediaType.APPLICATION_JSON)
+public class ReactiveOfferEndPoint {
+
+	/**
+	 * Offers read ahead of the client while streaming, one page of the listing.
+	 */
+	private static final int STREAM_PREFETCH = 500;
+
+	@Autowired
+	ReactiveOfferService reactiveOfferService;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	RequestExecutor requestExecutor;
+
+	@GET
+	@Path("/list")
+	public void getAllOffer(@BeanParam OfferQuery query, @Suspended AsyncResponse asyncResponse) {
+		if (!Strings.isEmpty(query.getDescription())) {
+			resume(reactiveOfferService.getOfferByDescription(query.getDescription()).collectList()
+					.map(offers -> Response.ok(new GenericEntity<List<OfferView>>(offers) {}).build()), asyncResponse);
+			return;
+		}
+		resume(reactiveOfferService.getOffers(query).map(page -> {
+			Response.ResponseBuilder response = Response.ok(new GenericEntity<List<OfferView>>(page.getOffers()) {});
+			if (page.getNextCursor() != null)
+				response.header(OfferEndPoint.NEXT_CURSOR_HEADER, page.getNextCursor());
+			return response.build();
+		}), asyncResponse);
+	}
+
+	/**
+	 * Streams every offer matching the query as newline delimited JSON. The offers are pulled from the service
+	 * as the client reads them, so a slow client holds back the database reads instead of filling the heap.
+	 * The thread resuming the request writes the whole stream, with offer.async.enabled a thread of the request
+	 * executor rather than a container thread.
+	 */
+	@GET
+	@Path("/stream")
+	@Produces(OfferEndPoint.APPLICATION_NDJSON)
+	public void streamOffers(@BeanParam OfferQuery query, @Suspended AsyncResponse asyncResponse) {
+		requestExecutor.resume(asyncResponse, () -> streamingOutput(query));
+	}
+
+	private StreamingOutput streamingOutput(OfferQuery query) {
+		return output -> {
+			ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+				generator.setRootValueSeparator(null);
+				for (OfferView offer : reactiveOfferService.streamOffers(query).toIterable(STREAM_PREFETCH)) {
+					writer.writeValue(generator, offer);
+					generator.writeRaw('\n');
+				}
+			}
+		};
+	}
+
+	@POST
+	public void addOffer(Offer offer, @Context UriInfo uriInfo, @Suspended AsyncResponse asyncResponse) {
+		UriBuilder location = uriInfo.getAbsolutePathBuilder();
+		resume(reactiveOfferService.addOffer(offer).map(newOffer ->
+				Response.created(location.path(String.valueOf(newOffer.getId())).build())
+						.entity(newOffer)
+						.build()), asyncResponse);
+	}
+
+	@PUT
+	@Path("/cancel/{offerId}")
+	public void cancelOffer(@PathParam("offerId") long offerId, @Suspended AsyncResponse asyncResponse) {
+		resume(reactiveOfferService.cancelOffer(offerId), asyncResponse);
+	}
+
+	@GET
+	@Path("/{offerId}")
+	public void getOfferById(@PathParam("offerId") long offerId, @Suspended AsyncResponse asyncResponse) {
+		resume(reactiveOfferService.getOfferById(offerId), asyncResponse);
+	}
+
+	/**
+	 * Resumes the request with the value of the publisher, 204 if it has none, or with its error which the exception
+	 * mappers turn into a response.
+	 */
+	private static void resume(Mono<?> result, AsyncResponse asyncResponse) {
+		result.cast(Object.class)
+				.defaultIfEmpty(Response.noContent().build())
+				.subscribe(value -> asyncResponse.resume(value), error -> asyncResponse.resume(error));
+	}
+}
@@ -0,0 +1,104 @@
+package com.worldpay.offermanager.controller;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.model.ErrorMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+import java.util.Collections;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the work of a suspended request. By default the work runs on the container thread and the request is
+ * resumed before the resource method returns. With offer.async.enabled the work runs on a dedicated executor
+ * and the container thread is released while the request waits on the database, so the number of requests
+ * in progress is bounded by the executor and the connection pool instead of the container threads.
+ * The executor uses virtual threads when the JVM has them, found by reflection as the build targets Java 8.
+ */
+@Component
+public class RequestExecutor {
+
+	private final Logger logger = LoggerFactory.getLogger(RequestExecutor.class);
+
+	// null when requests run on the container thread
+	private final ExecutorService executor;
+
+	@Autowired
+	public RequestExecutor(OfferProperties offerProperties, MeterRegistry meterRegistry) {
+		OfferProperties.Async async = offerProperties.getAsync();
+		if (!async.isEnabled()) {
+			executor = null;
+		} else {
+			ExecutorService virtualThreads = async.isVirtualThreads() ? virtualThreadExecutor() : null;
+			executor = ExecutorServiceMetrics.monitor(meterRegistry,
+					virtualThreads != null ? virtualThreads : platformThreadExecutor(async), "offer.requests",
+					Collections.emptyList());
+			logger.info("Running requests on {} threads", virtualThreads != null ? "virtual" : "platform");
+		}
+	}
+
+	/**
+	 * This method will run the work of a request on the request executor, or right away when requests are not run asynchronously,
+	 * and resume the request with its result or with the exception it threw, which the exception mappers turn into a response.
+	 * A request that the executor has no room for is resumed with 503 Service Unavailable.
+	 *
+	 * @param response The suspended request.
+	 * @param work The work of the request.
+	 */
+	public void resume(AsyncResponse response, Supplier<?> work) {
+		if (executor == null) {
+			run(response, work);
+			return;
+		}
+		try {
+			executor.execute(() -> run(response, work));
+		} catch (RejectedExecutionException e) {
+			logger.warn("Request rejected, the request executor is full");
+			response.resume(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+					.entity(new ErrorMessage("Too many requests in progress", 503))
+					.build());
+		}
+	}
+
+	private static void run(AsyncResponse response, Supplier<?> work) {
+		try {
+			response.resume(work.get());
+		} catch (Throwable e) {
+			response.resume(e);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (executor != null)
+			executor.shutdown();
+	}
+
+	private static ExecutorService platformThreadExecutor(OfferProperties.Async async) {
+		AtomicInteger count = new AtomicInteger();
+		return new ThreadPoolExecutor(async.getThreads(), async.getThreads(), 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(async.getQueueCapacity()), work -> {
+			Thread thread = new Thread(work, "offer-request-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private ExecutorService virtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			logger.info("Virtual threads are not available on Java {}", System.getProperty("java.version"));
+			return null;
+		}
+	}
+}
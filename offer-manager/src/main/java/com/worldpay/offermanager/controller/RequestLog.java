@@ -0,0 +1,62 @@
+package com.worldpay.offermanager.controller;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One key=value line per sampled request, written at INFO by the {@link RequestLogFilter}. Requests are sampled
+ * per endpoint with offer.logging.endpoint-sample-rates, falling back to offer.logging.sample-rate, so the
+ * busy endpoints can be logged sparsely without losing the rare ones. Nothing is built for a request that is
+ * not sampled.
+ */
+@Component
+public class RequestLog {
+
+	private final Logger logger = LoggerFactory.getLogger(RequestLog.class);
+
+	private final double sampleRate;
+
+	// configured rates by lower case endpoint, the property keys may have lost their case when bound
+	private final Map<String, Double> endpointSampleRates = new HashMap<>();
+
+	// resolved rate of each endpoint seen
+	private final ConcurrentMap<String, Double> rates = new ConcurrentHashMap<>();
+
+	@Autowired
+	public RequestLog(OfferProperties offerProperties) {
+		OfferProperties.Logging logging = offerProperties.getLogging();
+		this.sampleRate = logging.getSampleRate();
+		logging.getEndpointSampleRates().forEach((endpoint, rate) -> endpointSampleRates.put(endpoint.toLowerCase(), rate));
+	}
+
+	/**
+	 * Whether a request to the endpoint is to be logged.
+	 *
+	 * @param endpoint The name of the resource method.
+	 */
+	public boolean sampled(String endpoint) {
+		if (!logger.isInfoEnabled())
+			return false;
+		Double rate = rates.get(endpoint);
+		if (rate == null) {
+			rate = endpointSampleRates.getOrDefault(endpoint.toLowerCase(), sampleRate);
+			rates.putIfAbsent(endpoint, rate);
+		}
+		return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+	}
+
+	public void log(String endpoint, String method, String path, int status, long durationNanos) {
+		logger.info("endpoint={} method={} path={} status={} duration_us={}",
+				endpoint, method, path, status, TimeUnit.NANOSECONDS.toMicros(durationNanos));
+	}
+}
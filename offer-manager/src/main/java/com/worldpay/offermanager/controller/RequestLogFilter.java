@@ -0,0 +1,43 @@
+package com.worldpay.offermanager.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Writes the sampled requests to the {@link RequestLog}, timed from the matching of the resource method until
+ * the response is ready to be written. The request is only sampled once, so a request is logged either in full or not at all.
+ */
+@Provider
+public class RequestLogFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+	private static final String START_PROPERTY = RequestLogFilter.class.getName() + ".start";
+
+	@Autowired
+	private RequestLog requestLog;
+
+	@Context
+	private ResourceInfo resourceInfo;
+
+	@Override
+	public void filter(ContainerRequestContext request) {
+		if (resourceInfo.getResourceMethod() == null)
+			return;
+		if (requestLog.sampled(resourceInfo.getResourceMethod().getName()))
+			request.setProperty(START_PROPERTY, System.nanoTime());
+	}
+
+	@Override
+	public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+		Object start = request.getProperty(START_PROPERTY);
+		if (start != null)
+			requestLog.log(resourceInfo.getResourceMethod().getName(), request.getMethod(),
+					request.getUriInfo().getPath(), response.getStatus(), System.nanoTime() - (Long) start);
+	}
+}
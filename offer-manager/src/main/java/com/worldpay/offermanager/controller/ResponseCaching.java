@@ -0,0 +1,113 @@
+package com.worldpay.offermanager.controller;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferView;
+import com.worldpay.offermanager.model.Status;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Variant;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Conditional GET support of the offer endpoints. The entity tag of an offer is derived from its id, version and
+ * the status it is listed with, the entity tag of a page from those of its offers and its next cursor. A request whose
+ * If-None-Match holds the current entity tag gets 304 Not Modified without a body.
+ * Entity tags are weak as the same offer may be encoded in more than one way.
+ * JSON and Smile are served from the same URL, so responses vary on Accept and the entity tag names the media type
+ * of the response, a shared cache then never answers a JSON request with Smile or revalidates one with the other.
+ */
+@Component
+public class ResponseCaching {
+
+	// the media types of the offer endpoints, as in their @Produces
+	private static final List<Variant> VARIANTS = Variant.mediaTypes(MediaType.APPLICATION_JSON_TYPE,
+			MediaType.valueOf(OfferEndPoint.APPLICATION_SMILE + ";qs=0.9")).build();
+
+	private static final MediaType APPLICATION_SMILE_TYPE = MediaType.valueOf(OfferEndPoint.APPLICATION_SMILE);
+
+	private final Duration maxAge;
+
+	@Autowired
+	public ResponseCaching(OfferProperties offerProperties) {
+		this.maxAge = offerProperties.getHttpCache().getMaxAge();
+	}
+
+	/**
+	 * The media type a request is answered with, selected from its Accept header as for the endpoint's @Produces.
+	 * Read on the container thread.
+	 */
+	public MediaType representation(Request request) {
+		Variant variant = request.selectVariant(VARIANTS);
+		return variant != null && variant.getMediaType().isCompatible(APPLICATION_SMILE_TYPE)
+				? APPLICATION_SMILE_TYPE : MediaType.APPLICATION_JSON_TYPE;
+	}
+
+	/**
+	 * An active offer may be reused until it expires, up to offer.http-cache.max-age as it may be cancelled at any time.
+	 */
+	public Response.ResponseBuilder offer(Offer offer, MediaType type, String ifNoneMatch) {
+		EntityTag tag = new EntityTag(offer.getId() + "-" + offer.getVersion() + "-" + offer.getStatus() + "-"
+				+ type.getSubtype(), true);
+		Duration reuse = maxAge;
+		if (Status.ACTIVE.equals(offer.getStatus())) {
+			Duration untilExpiry = Duration.between(LocalDateTime.now(), offer.getExpiryDate());
+			if (untilExpiry.compareTo(reuse) < 0)
+				reuse = untilExpiry.isNegative() ? Duration.ZERO : untilExpiry;
+		}
+		CacheControl cacheControl = new CacheControl();
+		cacheControl.setMaxAge((int) reuse.getSeconds());
+		return respond(tag, type, cacheControl, ifNoneMatch, offer);
+	}
+
+	/**
+	 * A page changes whenever an offer is added, so it is always revalidated.
+	 */
+	public Response.ResponseBuilder page(List<OfferView> offers, String nextCursor, Object entity, MediaType type,
+										 String ifNoneMatch) {
+		long hash = nextCursor == null ? 0 : nextCursor.hashCode();
+		for (OfferView offer : offers) {
+			hash = 31 * hash + Objects.hashCode(offer.getId());
+			hash = 31 * hash + offer.getVersion();
+			hash = 31 * hash + (offer.getStatus() == null ? -1 : offer.getStatus().ordinal());
+		}
+		EntityTag tag = new EntityTag(offers.size() + "-" + Long.toHexString(hash) + "-" + type.getSubtype(), true);
+		CacheControl cacheControl = new CacheControl();
+		cacheControl.setNoCache(true);
+		return respond(tag, type, cacheControl, ifNoneMatch, entity);
+	}
+
+	private static Response.ResponseBuilder respond(EntityTag tag, MediaType type, CacheControl cacheControl,
+													String ifNoneMatch, Object entity) {
+		Response.ResponseBuilder response = matches(tag, ifNoneMatch) ? Response.notModified() : Response.ok(entity, type);
+		return response.tag(tag).cacheControl(cacheControl).header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+	}
+
+	/**
+	 * Weak comparison of the entity tags of an If-None-Match header with the current one.
+	 */
+	static boolean matches(EntityTag tag, String ifNoneMatch) {
+		if (ifNoneMatch == null)
+			return false;
+		for (String value : ifNoneMatch.split(",")) {
+			String candidate = value.trim();
+			if (candidate.equals("*"))
+				return true;
+			if (candidate.startsWith("W/"))
+				candidate = candidate.substring(2);
+			if (candidate.equals("\"" + tag.getValue() + "\""))
+				return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,52 @@
+package com.worldpay.offermanager.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.jaxrs.smile.JacksonSmileProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.ext.Provider;
+import java.util.List;
+
+/**
+ * Reads and writes the offer payloads as Smile, the binary encoding of the JSON data model, for clients sending
+ * or accepting {@value OfferEndPoint#APPLICATION_SMILE}. Smile writes numbers and repeated field names in a
+ * compact binary form, so lists of offers are smaller and cheaper to encode and decode than JSON.
+ * The mapper is built from the application's Jackson configuration, so an offer has the same fields in both formats.
+ */
+@Component
+@Provider
+@Consumes(OfferEndPoint.APPLICATION_SMILE)
+@Produces(OfferEndPoint.APPLICATION_SMILE)
+public class SmileProvider extends JacksonSmileProvider {
+
+	private final ObjectMapper mapper;
+
+	/**
+	 * The customizers carry the spring.jackson.* properties and the Jackson modules of the application. The shared
+	 * Jackson2ObjectMapperBuilder is not used as setting its factory would turn the JSON mapper into a Smile one.
+	 */
+	@Autowired
+	public SmileProvider(List<Jackson2ObjectMapperBuilderCustomizer> customizers) {
+		this(smileMapper(customizers));
+	}
+
+	private SmileProvider(ObjectMapper mapper) {
+		super(mapper);
+		this.mapper = mapper;
+	}
+
+	private static ObjectMapper smileMapper(List<Jackson2ObjectMapperBuilderCustomizer> customizers) {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.smile();
+		customizers.forEach(customizer -> customizer.customize(builder));
+		return builder.build();
+	}
+
+	public ObjectMapper getMapper() {
+		return mapper;
+	}
+}
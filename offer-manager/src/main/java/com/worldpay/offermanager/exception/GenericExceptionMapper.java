@@ -1,27 +1,70 @@
 package com.worldpay.offermanager.exception;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.worldpay.offermanager.config.MetricsConfig;
 import com.worldpay.offermanager.model.ErrorMessage;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.ext.ExceptionMapper;
 import javax.ws.rs.ext.Provider;
+import java.io.UncheckedIOException;
 
+/**
+ * Maps every other exception to a response. Client errors, such as an unknown path, a method or media type the
+ * endpoints do not support or a request body that is not valid JSON, keep or get their 4xx status and are logged
+ * at DEBUG without a stack trace, so bad traffic does not flood the log. Everything else, including a failure to
+ * write a response, is a server error logged at ERROR with its stack trace.
+ */
 @Provider
 public class GenericExceptionMapper implements ExceptionMapper<Throwable> {
 
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	private final Logger logger = LoggerFactory.getLogger(GenericExceptionMapper.class);
 
 	@Override
 	public Response toResponse(Throwable ex) {
+		meterRegistry.counter(MetricsConfig.ERRORS, "mapper", "GenericExceptionMapper", "exception", ex.getClass().getSimpleName()).increment();
+
+		if (ex instanceof WebApplicationException) {
+			Response response = ((WebApplicationException) ex).getResponse();
+			if (response.getStatus() < 500) {
+				logger.debug("Request rejected: {}", ex.getMessage());
+				return Response.fromResponse(response)
+						.entity(new ErrorMessage(ex.getMessage(), response.getStatus()))
+						.build();
+			}
+		}
+
+		if (isUnreadableRequest(ex)) {
+			logger.debug("Request could not be read: {}", ex.toString());
+			return Response.status(Status.BAD_REQUEST)
+					.entity(new ErrorMessage("Request could not be read", 400))
+					.build();
+		}
 
-		logger.info("Internal error:  %s ", ex.getMessage());
+		logger.error("Internal error: {}", ex.getMessage(), ex);
 		ErrorMessage errorMessage = new ErrorMessage("Sorry something went wrong", 500 );
 		return Response.status(Status.INTERNAL_SERVER_ERROR)
 				.entity(errorMessage)
 				.build();
 	}
 
+	/**
+	 * Whether the exception was raised parsing a request body, as NDJSON bodies are read by the endpoint and wrapped
+	 * in an UncheckedIOException. Only a parser raises these, a response that can not be written raises others.
+	 */
+	private static boolean isUnreadableRequest(Throwable ex) {
+		Throwable cause = ex instanceof UncheckedIOException ? ex.getCause() : ex;
+		return cause instanceof JsonParseException || cause instanceof MismatchedInputException;
+	}
+
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.worldpay.offermanager.exception;
 
+import com.worldpay.offermanager.config.MetricsConfig;
 import com.worldpay.offermanager.model.ErrorMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
@@ -10,8 +13,12 @@ import javax.ws.rs.ext.Provider;
 @Provider
 public class OfferNotFoundExceptionMapper implements ExceptionMapper<OfferNotFoundException> {
 
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	@Override
 	public Response toResponse(OfferNotFoundException ex) {
+		meterRegistry.counter(MetricsConfig.ERRORS, "mapper", "OfferNotFoundExceptionMapper", "exception", ex.getClass().getSimpleName()).increment();
 		ErrorMessage errorMessage = new ErrorMessage(ex.getMessage(), 404);
 		return Response.status(Status.NOT_FOUND)
 				.entity(errorMessage)
@@ -1,8 +1,11 @@
 package com.worldpay.offermanager.exception;
 
+import com.worldpay.offermanager.config.MetricsConfig;
 import com.worldpay.offermanager.model.ErrorMessage;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.ExceptionMapper;
@@ -11,12 +14,16 @@ import javax.ws.rs.ext.Provider;
 @Provider
 public class ValidationExceptionMapper implements ExceptionMapper<ValidationException> {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private final Logger logger = LoggerFactory.getLogger(ValidationExceptionMapper.class);
 
     @Override
     public Response toResponse(ValidationException ex) {
+        meterRegistry.counter(MetricsConfig.ERRORS, "mapper", "ValidationExceptionMapper", "exception", ex.getClass().getSimpleName()).increment();
 
-        logger.info("Internal error:  %s ", ex.getMessage());
+        logger.debug("Validation error: {}", ex.getMessage());
         ErrorMessage errorMessage = new ErrorMessage(ex.getMessage(), 500 );
         return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                 .entity(errorMessage)
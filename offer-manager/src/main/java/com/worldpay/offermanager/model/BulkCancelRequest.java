@@ -0,0 +1,49 @@
+package com.worldpay.offermanager.model;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import java.util.List;
+
+/**
+ * The offers to cancel at once: either a list of ids, or a filter on the description and expiry date
+ * selecting active offers. Dates use the ISO Date Time format of {@link Offer#getExpiryDate()}.
+ */
+@XmlRootElement
+public class BulkCancelRequest {
+
+	private List<Long> ids;
+	private String description;
+	private String expiresAfter;
+	private String expiresBefore;
+
+	public List<Long> getIds() {
+		return ids;
+	}
+
+	public void setIds(List<Long> ids) {
+		this.ids = ids;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public String getExpiresAfter() {
+		return expiresAfter;
+	}
+
+	public void setExpiresAfter(String expiresAfter) {
+		this.expiresAfter = expiresAfter;
+	}
+
+	public String getExpiresBefore() {
+		return expiresBefore;
+	}
+
+	public void setExpiresBefore(String expiresBefore) {
+		this.expiresBefore = expiresBefore;
+	}
+}
@@ -0,0 +1,42 @@
+package com.worldpay.offermanager.model;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * The outcome of cancelling one offer of a bulk cancel.
+ */
+@XmlRootElement
+public class BulkCancelResult {
+
+	public enum Outcome {
+		CANCELLED, ALREADY_CANCELLED, EXPIRED, NOT_FOUND
+	}
+
+	private Long id;
+	private Outcome outcome;
+
+	public BulkCancelResult() {
+
+	}
+
+	public BulkCancelResult(Long id, Outcome outcome) {
+		this.id = id;
+		this.outcome = outcome;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Outcome getOutcome() {
+		return outcome;
+	}
+
+	public void setOutcome(Outcome outcome) {
+		this.outcome = outcome;
+	}
+}
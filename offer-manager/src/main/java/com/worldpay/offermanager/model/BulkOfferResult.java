@@ -0,0 +1,70 @@
+package com.worldpay.offermanager.model;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * The outcome of one offer of a bulk creation, in the order the offers were sent.
+ */
+@XmlRootElement
+public class BulkOfferResult {
+
+	public enum Outcome {
+		CREATED, REJECTED
+	}
+
+	private int index;
+	private Long id;
+	private Outcome outcome;
+	private String message;
+
+	public BulkOfferResult() {
+
+	}
+
+	private BulkOfferResult(int index, Long id, Outcome outcome, String message) {
+		this.index = index;
+		this.id = id;
+		this.outcome = outcome;
+		this.message = message;
+	}
+
+	public static BulkOfferResult created(int index, Long id) {
+		return new BulkOfferResult(index, id, Outcome.CREATED, null);
+	}
+
+	public static BulkOfferResult rejected(int index, String message) {
+		return new BulkOfferResult(index, null, Outcome.REJECTED, message);
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Outcome getOutcome() {
+		return outcome;
+	}
+
+	public void setOutcome(Outcome outcome) {
+		this.outcome = outcome;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+}
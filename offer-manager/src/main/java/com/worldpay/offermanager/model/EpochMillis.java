@@ -0,0 +1,83 @@
+package com.worldpay.offermanager.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Expiry dates as milliseconds since 1970-01-01T00:00 of the same local date time, the compact form held by
+ * {@link OfferView}. The local date time is read as if it were UTC, so converting either way is plain arithmetic
+ * with no time zone rules.
+ */
+public final class EpochMillis {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private EpochMillis() {
+    }
+
+    public static long of(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().toEpochDay() * MILLIS_PER_DAY + dateTime.toLocalTime().toNanoOfDay() / 1_000_000;
+    }
+
+    public static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1_000L), (int) Math.floorMod(millis, 1_000L) * 1_000_000,
+                ZoneOffset.UTC);
+    }
+
+    /**
+     * Write the date as {@link java.time.format.DateTimeFormatter#ISO_LOCAL_DATE_TIME} writes it, e.g.
+     * 2030-01-01T12:00:00.12, for the years 0 to 9999.
+     *
+     * @return The offset after the last character written, at most 23 characters after the given offset,
+     * or -1 when the year is out of range and nothing was written.
+     */
+    static int format(long millis, char[] buffer, int offset) {
+        long epochDay = Math.floorDiv(millis, MILLIS_PER_DAY);
+        int millisOfDay = (int) Math.floorMod(millis, MILLIS_PER_DAY);
+
+        // civil date of an epoch day, years of 400 years starting in March so the leap day comes last
+        long days = epochDay + 719_468;
+        long era = Math.floorDiv(days, 146_097);
+        long dayOfEra = days - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999)
+            return -1;
+
+        int position = offset;
+        position = digits(buffer, position, (int) year, 4);
+        buffer[position++] = '-';
+        position = digits(buffer, position, month, 2);
+        buffer[position++] = '-';
+        position = digits(buffer, position, day, 2);
+        buffer[position++] = 'T';
+        position = digits(buffer, position, millisOfDay / 3_600_000, 2);
+        buffer[position++] = ':';
+        position = digits(buffer, position, millisOfDay / 60_000 % 60, 2);
+        buffer[position++] = ':';
+        position = digits(buffer, position, millisOfDay / 1_000 % 60, 2);
+
+        // the fraction without its trailing zeros, none at all on a whole second
+        int fraction = millisOfDay % 1_000;
+        if (fraction != 0) {
+            buffer[position++] = '.';
+            int width = 3;
+            for (; fraction % 10 == 0; fraction /= 10)
+                width--;
+            position = digits(buffer, position, fraction, width);
+        }
+        return position;
+    }
+
+    private static int digits(char[] buffer, int offset, int value, int width) {
+        for (int position = offset + width - 1; position >= offset; position--) {
+            buffer[position] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + width;
+    }
+}
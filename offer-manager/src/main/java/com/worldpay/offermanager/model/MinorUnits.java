@@ -0,0 +1,54 @@
+package com.worldpay.offermanager.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Prices as a long number of hundredths, the scale of the price column, the compact form held by {@link OfferView}
+ * and the offer store. Every price of the database fits this form without loss.
+ */
+public final class MinorUnits {
+
+    // scale of the price column
+    public static final int SCALE = 2;
+
+    private MinorUnits() {
+    }
+
+    /**
+     * @exception ArithmeticException if the price does not fit in a long at the scale of the price column.
+     */
+    public static long of(BigDecimal price) {
+        return price.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toPrice(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Write the price as {@link BigDecimal#toString()} writes it at the scale of the price column, e.g. -0.05.
+     *
+     * @return The offset after the last character written, at most 21 characters after the given offset.
+     */
+    static int format(long minorUnits, char[] buffer, int offset) {
+        // digits are taken from the negative value, which holds Long.MIN_VALUE
+        long value = minorUnits < 0 ? minorUnits : -minorUnits;
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10)
+            digits++;
+        digits = Math.max(digits, SCALE + 1);
+
+        int end = offset + (minorUnits < 0 ? 1 : 0) + digits + 1;
+        int position = end;
+        for (int digit = 0; digit < digits; digit++) {
+            if (digit == SCALE)
+                buffer[--position] = '.';
+            buffer[--position] = (char) ('0' - value % 10);
+            value /= 10;
+        }
+        if (minorUnits < 0)
+            buffer[--position] = '-';
+        return end;
+    }
+}
@@ -1,5 +1,6 @@
 package com.worldpay.offermanager.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
@@ -12,14 +13,20 @@ import javax.xml.bind.annotation.XmlRootElement;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Currency;
+import java.util.Locale;
 import java.util.Objects;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_offer_description_key", columnList = "descriptionKey"),
+        @Index(name = "idx_offer_status_expiry", columnList = "status, expiryDate")})
 @XmlRootElement
 public class Offer  {
 
+    // ids are allocated 50 at a time so inserts need no sequence round trip per row and can be batched
     @Id
-    @GeneratedValue(strategy=GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "offer_sequence")
+    @SequenceGenerator(name = "offer_sequence", sequenceName = "offer_sequence", allocationSize = 50)
     private Long id;
 
     @Column(precision = 19, scale = 2)
@@ -48,6 +55,28 @@ public class Offer  {
     @Enumerated(EnumType.STRING)
     private Status status= Status.ACTIVE;
 
+    // lower case copy of the description, indexed for case insensitive searches
+    @Column(length = 200)
+    private String descriptionKey;
+
+    // incremented by every update, including the bulk updates, so a stale copy of an offer can not overwrite a newer one
+    @Version
+    @JsonIgnore
+    private long version;
+
+    @PrePersist
+    @PreUpdate
+    void updateSearchKey() {
+        descriptionKey = searchKey(description);
+    }
+
+    /**
+     * The normalised form of a description stored for searches.
+     */
+    public static String searchKey(String text) {
+        return text == null ? null : text.toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -59,7 +88,7 @@ public class Offer  {
     @Override
     public int hashCode() {
 
-        return Objects.hash(getId());
+        return Objects.hashCode(getId());
     }
 
     @Override
@@ -129,4 +158,12 @@ public class Offer  {
     public void setStatus(Status status) {
         this.status = status;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,109 @@
+package com.worldpay.offermanager.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A change of state of an offer, appended to the offer_event outbox table in the transaction of the change.
+ * An event has no offset until the {@link com.worldpay.offermanager.service.OfferEventFeed} publishes it: offsets
+ * are given in the order the events are committed, so a consumer that has read up to an offset never misses
+ * an event committed after it read.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_offer_event_offset", columnList = "event_offset", unique = true))
+public class OfferEvent {
+
+    public enum Type {
+        CREATED, CANCELLED, EXPIRED
+    }
+
+    // ids are allocated 50 at a time as for offers, they give the order of the events waiting for an offset
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "offer_event_sequence")
+    @SequenceGenerator(name = "offer_event_sequence", sequenceName = "offer_event_sequence", allocationSize = 50)
+    @JsonIgnore
+    private Long id;
+
+    @Column(name = "event_offset")
+    private Long offset;
+
+    private long offerId;
+
+    @Column(length = 16)
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    @Column(name = "event_time")
+    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    private LocalDateTime time;
+
+    public OfferEvent() {
+
+    }
+
+    public OfferEvent(long offerId, Type type, LocalDateTime time) {
+        this.offerId = offerId;
+        this.type = type;
+        this.time = time;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * @return The position of the event in the feed, or null if it has not been published yet.
+     */
+    public Long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(Long offset) {
+        this.offset = offset;
+    }
+
+    public long getOfferId() {
+        return offerId;
+    }
+
+    public void setOfferId(long offerId) {
+        this.offerId = offerId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public void setTime(LocalDateTime time) {
+        this.time = time;
+    }
+
+    @Override
+    public String toString() {
+        return "OfferEvent{" +
+                "offset=" + offset +
+                ", offerId=" + offerId +
+                ", type=" + type +
+                ", time=" + time +
+                '}';
+    }
+}
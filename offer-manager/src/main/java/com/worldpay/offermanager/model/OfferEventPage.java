@@ -0,0 +1,40 @@
+package com.worldpay.offermanager.model;
+
+import java.util.List;
+
+/**
+ * The events of the feed after an offset, in offset order, with the offset to read the next events from.
+ */
+public class OfferEventPage {
+
+    private List<OfferEvent> events;
+    private long lastOffset;
+
+    public OfferEventPage() {
+
+    }
+
+    public OfferEventPage(List<OfferEvent> events, long lastOffset) {
+        this.events = events;
+        this.lastOffset = lastOffset;
+    }
+
+    public List<OfferEvent> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<OfferEvent> events) {
+        this.events = events;
+    }
+
+    /**
+     * @return The offset of the last event of the page, or the offset asked for when the page is empty.
+     */
+    public long getLastOffset() {
+        return lastOffset;
+    }
+
+    public void setLastOffset(long lastOffset) {
+        this.lastOffset = lastOffset;
+    }
+}
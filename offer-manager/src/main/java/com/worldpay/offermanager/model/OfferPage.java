@@ -0,0 +1,28 @@
+package com.worldpay.offermanager.model;
+
+import java.util.List;
+
+/**
+ * One page of offers ordered by id, with the cursor to fetch the next page.
+ */
+public class OfferPage {
+
+    private final List<OfferView> offers;
+    private final String nextCursor;
+
+    public OfferPage(List<OfferView> offers, String nextCursor) {
+        this.offers = offers;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<OfferView> getOffers() {
+        return offers;
+    }
+
+    /**
+     * @return The opaque cursor of the next page, or null if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
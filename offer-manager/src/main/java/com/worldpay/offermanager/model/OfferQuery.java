@@ -0,0 +1,76 @@
+package com.worldpay.offermanager.model;
+
+import javax.ws.rs.QueryParam;
+
+/**
+ * Query parameters accepted when listing offers.
+ * Dates use the ISO Date Time format of {@link Offer#getExpiryDate()}.
+ */
+public class OfferQuery {
+
+    @QueryParam("description")
+    private String description;
+
+    @QueryParam("status")
+    private String status;
+
+    @QueryParam("expiresAfter")
+    private String expiresAfter;
+
+    @QueryParam("expiresBefore")
+    private String expiresBefore;
+
+    @QueryParam("cursor")
+    private String cursor;
+
+    @QueryParam("limit")
+    private Integer limit;
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getExpiresAfter() {
+        return expiresAfter;
+    }
+
+    public void setExpiresAfter(String expiresAfter) {
+        this.expiresAfter = expiresAfter;
+    }
+
+    public String getExpiresBefore() {
+        return expiresBefore;
+    }
+
+    public void setExpiresBefore(String expiresBefore) {
+        this.expiresBefore = expiresBefore;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
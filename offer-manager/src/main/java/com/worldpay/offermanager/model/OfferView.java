@@ -0,0 +1,114 @@
+package com.worldpay.offermanager.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Currency;
+
+/**
+ * Read-only view of an offer, built by the listing and search queries instead of a managed {@link Offer}.
+ * The status is the one at the time of the query: an active offer past its expiry date is EXPIRED.
+ * The price is held in {@link MinorUnits}, the currency as its ISO code and the expiry date in {@link EpochMillis},
+ * so a view holds no object of its own beyond the name and description. It is serialized by the
+ * {@link OfferViewSerializer} with the same fields as {@link Offer}.
+ */
+@JsonSerialize(using = OfferViewSerializer.class)
+public class OfferView {
+
+    private final Long id;
+    private final long price;
+    private final String currency;
+    private final long expiryDate;
+    private final String name;
+    private final String description;
+    private final Status status;
+    private final long version;
+
+    /**
+     * Constructor of the offer store, from the compact forms.
+     */
+    public OfferView(Long id, long price, String currency, long expiryDate, String name, String description,
+                     Status status, long version) {
+        this.id = id;
+        this.price = price;
+        this.currency = currency;
+        this.expiryDate = expiryDate;
+        this.name = name;
+        this.description = description;
+        this.status = status;
+        this.version = version;
+    }
+
+    public OfferView(Long id, BigDecimal price, Currency currency, LocalDateTime expiryDate, String name,
+                     String description, Status status, long version) {
+        this(id, MinorUnits.of(price), currency.getCurrencyCode(), EpochMillis.of(expiryDate), name, description,
+                status, version);
+    }
+
+    /**
+     * Constructor of the queries, which tell whether an active offer has expired as the status column holds ACTIVE
+     * until the scheduler catches up.
+     */
+    public OfferView(Long id, BigDecimal price, Currency currency, LocalDateTime expiryDate, String name,
+                     String description, Status status, long version, boolean expired) {
+        this(id, price, currency, expiryDate, name, description, expired ? Status.EXPIRED : status, version);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public BigDecimal getPrice() {
+        return MinorUnits.toPrice(price);
+    }
+
+    public long getPriceMinorUnits() {
+        return price;
+    }
+
+    public Currency getCurrency() {
+        return Currency.getInstance(currency);
+    }
+
+    public String getCurrencyCode() {
+        return currency;
+    }
+
+    public LocalDateTime getExpiryDate() {
+        return EpochMillis.toLocalDateTime(expiryDate);
+    }
+
+    public long getExpiryMillis() {
+        return expiryDate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "OfferView{" +
+                "id=" + id +
+                ", price=" + getPrice() +
+                ", currency=" + currency +
+                ", expiryDate=" + getExpiryDate() +
+                ", name='" + name + '\'' +
+                ", description='" + description + '\'' +
+                ", status='" + status + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,73 @@
+package com.worldpay.offermanager.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes an {@link OfferView} with the fields and values {@link Offer} is written with, straight from its compact
+ * forms: the price and expiry date are formatted into a buffer kept per thread instead of going through a
+ * BigDecimal and a LocalDateTime. Formats that do not take numbers as text, such as Smile, get the price as a
+ * BigDecimal, dates written as timestamps go through the LocalDateTimeSerializer of {@link Offer}.
+ */
+public class OfferViewSerializer extends StdSerializer<OfferView> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString PRICE = new SerializedString("price");
+    private static final SerializableString CURRENCY = new SerializedString("currency");
+    private static final SerializableString EXPIRY_DATE = new SerializedString("expiryDate");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString STATUS = new SerializedString("status");
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[32]);
+
+    public OfferViewSerializer() {
+        super(OfferView.class);
+    }
+
+    @Override
+    public void serialize(OfferView offer, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        char[] buffer = BUFFER.get();
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        if (offer.getId() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(offer.getId());
+        }
+
+        generator.writeFieldName(PRICE);
+        if (generator.canWriteFormattedNumbers() && !generator.isEnabled(JsonGenerator.Feature.WRITE_NUMBERS_AS_STRINGS)) {
+            generator.writeRawValue(buffer, 0, MinorUnits.format(offer.getPriceMinorUnits(), buffer, 0));
+        } else {
+            generator.writeNumber(offer.getPrice());
+        }
+
+        generator.writeFieldName(CURRENCY);
+        generator.writeString(offer.getCurrencyCode());
+
+        generator.writeFieldName(EXPIRY_DATE);
+        int length = provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                ? -1 : EpochMillis.format(offer.getExpiryMillis(), buffer, 0);
+        if (length < 0) {
+            LocalDateTimeSerializer.INSTANCE.serialize(offer.getExpiryDate(), generator, provider);
+        } else {
+            generator.writeString(buffer, 0, length);
+        }
+
+        generator.writeFieldName(NAME);
+        generator.writeString(offer.getName());
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(offer.getDescription());
+        generator.writeFieldName(STATUS);
+        generator.writeString(offer.getStatus() == null ? null : offer.getStatus().name());
+        generator.writeEndObject();
+    }
+}
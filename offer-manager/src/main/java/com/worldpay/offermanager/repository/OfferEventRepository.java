@@ -0,0 +1,44 @@
+package com.worldpay.offermanager.repository;
+
+import com.worldpay.offermanager.model.OfferEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OfferEventRepository extends JpaRepository<OfferEvent, Long> {
+
+    /**
+     * Published events after the given offset, in offset order, served by the unique offset index.
+     * Callers always ask for the first page of the pageable, its size bounds the result.
+     */
+    @Query("from OfferEvent e where e.offset > :after order by e.offset")
+    List<OfferEvent> findEventsAfter(@Param("after") long after, Pageable pageable);
+
+    /**
+     * Events committed but not published yet, in the order they were appended.
+     */
+    @Query("from OfferEvent e where e.offset is null order by e.id")
+    List<OfferEvent> findUnpublishedEvents(Pageable pageable);
+
+    /**
+     * Gives an offset to an event that has none yet. The events read before are detached, so giving them the offset
+     * as well does not update them again.
+     *
+     * @return 1 if the event was given the offset, 0 if another publisher gave it one first.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update OfferEvent e set e.offset = :offset where e.id = :id and e.offset is null")
+    int publishEvent(@Param("id") long id, @Param("offset") long offset);
+
+    /**
+     * @return The offset of the last published event, or null if no event has been published.
+     */
+    @Query("select max(e.offset) from OfferEvent e")
+    Long findLastOffset();
+}
@@ -1,31 +1,175 @@
 package com.worldpay.offermanager.repository;
 
 import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferView;
+import com.worldpay.offermanager.model.Status;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Propagation;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface OfferRepository extends JpaRepository<Offer, Long> {
 
+    /**
+     * Constructor of the {@link OfferView} of an offer, with an active offer past its expiry date at :now listed as EXPIRED.
+     */
+    String OFFER_VIEW = "select new com.worldpay.offermanager.model.OfferView(o.id, o.price, o.currency, o.expiryDate,"
+            + " o.name, o.description, o.status, o.version,"
+            + " case when o.status = 'ACTIVE' and o.expiryDate <= :now then true else false end)";
+
+    /**
+     * Keyset page of offers: the offers after the given id, in id order, that match the filters.
+     * Callers always ask for the first page of the pageable, its size bounds the result.
+     */
+    @Query(OFFER_VIEW + " from Offer o where o.id > :afterId and o.status in :statuses"
+            + " and o.expiryDate > :expiresAfter and o.expiryDate <= :expiresBefore order by o.id")
+    List<OfferView> findOffersPage(@Param("afterId") long afterId,
+                                   @Param("statuses") Collection<Status> statuses,
+                                   @Param("expiresAfter") LocalDateTime expiresAfter,
+                                   @Param("expiresBefore") LocalDateTime expiresBefore,
+                                   @Param("now") LocalDateTime now,
+                                   Pageable pageable);
+
+    /**
+     * All offers matching the filters in id order, read through an open cursor.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("from Offer o where o.status in :statuses"
+            + " and o.expiryDate > :expiresAfter and o.expiryDate <= :expiresBefore order by o.id")
+    Stream<Offer> streamOffers(@Param("statuses") Collection<Status> statuses,
+                               @Param("expiresAfter") LocalDateTime expiresAfter,
+                               @Param("expiresBefore") LocalDateTime expiresBefore);
+
+    /**
+     * Case insensitive like search on the indexed description key, exact and prefix patterns use the index.
+     */
+    @Query(OFFER_VIEW + " from Offer o where o.descriptionKey like lower(:description)")
+    List<OfferView> findOffersByDescription(@Param("description") String description,
+                                            @Param("now") LocalDateTime now);
+
+    /**
+     * Case insensitive like search restricted to the given ids.
+     */
+    @Query(OFFER_VIEW + " from Offer o where o.id in :ids and o.descriptionKey like lower(:description)")
+    List<OfferView> findOffersByIdsAndDescription(@Param("ids") Collection<Long> ids,
+                                                  @Param("description") String description,
+                                                  @Param("now") LocalDateTime now);
+
+    /**
+     * The id and description of every offer in id order, as Object[] pairs, read through an open cursor.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select o.id, o.description from Offer o order by o.id")
+    Stream<Object[]> streamDescriptions();
 
-    @Query("from Offer where upper(description) like upper(:description)")
-    List<Offer> findOffersByDescription(@Param("description") String description);
+    /**
+     * Every offer in id order with its status as stored, read through an open cursor.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select new com.worldpay.offermanager.model.OfferView(o.id, o.price, o.currency, o.expiryDate,"
+            + " o.name, o.description, o.status, o.version) from Offer o order by o.id")
+    Stream<OfferView> streamOfferViews();
+
+    /**
+     * The id and expiry date of every active offer, as Object[] pairs, read through an open cursor.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select o.id, o.expiryDate from Offer o where o.status = 'ACTIVE'")
+    Stream<Object[]> streamActiveExpiryDates();
 
     @Query("select count(o) from Offer o where o.expiryDate <= :expiryDate and STATUS = 'ACTIVE'")
     Long countExpiredOffers(@Param("expiryDate") LocalDateTime expiryDate);
 
-    @org.springframework.transaction.annotation.Transactional(propagation=Propagation.REQUIRES_NEW)
+    /**
+     * Ids of the active offers that expired within the given window, earliest expiry first.
+     * Served by the (status, expiryDate) index, the pageable bounds the batch.
+     */
+    @Query("select o.id from Offer o where o.status = 'ACTIVE'"
+            + " and o.expiryDate > :expiredAfter and o.expiryDate <= :expiredBefore order by o.expiryDate")
+    List<Long> findExpiredOfferIds(@Param("expiredAfter") LocalDateTime expiredAfter,
+                                   @Param("expiredBefore") LocalDateTime expiredBefore,
+                                   Pageable pageable);
+
+    /**
+     * Ids of the given offers that are still active, locked until the end of the transaction so they can be
+     * expired together with their events without a concurrent cancel in between.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o.id from Offer o where o.id in :ids and o.status = 'ACTIVE' order by o.id")
+    List<Long> lockActiveOfferIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Expire the given offers that are still active, in the transaction of the caller.
+     */
     @Modifying
-    @Query("update Offer set status = 'EXPIRED' where expiryDate <= :expiryDate and STATUS = 'ACTIVE'")
-    int updateExpiryStatus(@Param("expiryDate") LocalDateTime expiryDate);
+    @Query("update versioned Offer set status = 'EXPIRED' where id in :ids and status = 'ACTIVE'")
+    int expireOffers(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Ids of the active, not yet expired, offers matching a case insensitive like search and an expiry window.
+     */
+    @Query("select o.id from Offer o where o.status = 'ACTIVE' and o.descriptionKey like lower(:description)"
+            + " and o.expiryDate > :expiresAfter and o.expiryDate <= :expiresBefore order by o.id")
+    List<Long> findActiveOfferIds(@Param("description") String description,
+                                  @Param("expiresAfter") LocalDateTime expiresAfter,
+                                  @Param("expiresBefore") LocalDateTime expiresBefore,
+                                  Pageable pageable);
+
+    /**
+     * Ids of the given offers that are still active and not expired at the given time, locked until the end of the
+     * transaction so they are cancelled by this transaction and no concurrent one.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o.id from Offer o where o.id in :ids and o.status = 'ACTIVE' and o.expiryDate > :now order by o.id")
+    List<Long> lockCancellableOfferIds(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Cancel the given offers that are still active and not expired at the given time,
+     * their expiry date is set to that time.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update versioned Offer set status = 'CANCELLED', expiryDate = :now"
+            + " where id in :ids and status = 'ACTIVE' and expiryDate > :now")
+    int cancelOffers(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
 
+    /**
+     * Cancel the offer if it is still active and not expired at the given time, its expiry date is set to that time.
+     *
+     * @return 1 if the offer was cancelled, 0 if it does not exist or can not be cancelled.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update versioned Offer set status = 'CANCELLED', expiryDate = :now"
+            + " where id = :id and status = 'ACTIVE' and expiryDate > :now")
+    int cancelOffer(@Param("id") Long id, @Param("now") LocalDateTime now);
 
+    /**
+     * The id, status and expiry date of the given offers, as Object[] triples.
+     */
+    @Query("select o.id, o.status, o.expiryDate from Offer o where o.id in :ids")
+    List<Object[]> findStatuses(@Param("ids") Collection<Long> ids);
 
+    /**
+     * The id, status, expiry date and version of the given offers, as Object[] rows.
+     */
+    @Query("select o.id, o.status, o.expiryDate, o.version from Offer o where o.id in :ids")
+    List<Object[]> findVersions(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,195 @@
+package com.worldpay.offermanager.service;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from long keys to long values, used by the in memory offer indexes so that looking up
+ * an offer id neither boxes it nor follows a node per entry. Keys and values are held in two arrays probed linearly,
+ * a removed key shifts the keys after it back so no tombstones are left behind.
+ * Not thread safe, callers guard it with their own lock.
+ */
+public final class LongLongMap {
+
+    private static final long EMPTY = 0;
+
+    private static final int MIN_CAPACITY = 16;
+
+    // returned for a missing key
+    private final long missingValue;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    // the key 0 marks an empty slot so its entry is held apart
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    /**
+     * @param expectedSize Number of entries the map holds without growing.
+     * @param missingValue Value returned for a key that is not in the map.
+     */
+    public LongLongMap(int expectedSize, long missingValue) {
+        this.missingValue = missingValue;
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return The value of the key, or the missing value.
+     */
+    public long get(long key) {
+        if (key == EMPTY)
+            return hasZeroKey ? zeroValue : missingValue;
+
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long k = keys[slot];
+            if (k == key)
+                return values[slot];
+            if (k == EMPTY)
+                return missingValue;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY)
+            return hasZeroKey;
+
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long k = keys[slot];
+            if (k == key)
+                return true;
+            if (k == EMPTY)
+                return false;
+        }
+    }
+
+    /**
+     * @return The previous value of the key, or the missing value.
+     */
+    public long put(long key, long value) {
+        if (key == EMPTY) {
+            long previous = hasZeroKey ? zeroValue : missingValue;
+            if (!hasZeroKey)
+                size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return previous;
+        }
+
+        int slot = slot(key);
+        for (long k; (k = keys[slot]) != EMPTY; slot = (slot + 1) & mask) {
+            if (k == key) {
+                long previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length)
+            rehash(keys.length * 2);
+        return missingValue;
+    }
+
+    /**
+     * @return The value the key had, or the missing value.
+     */
+    public long remove(long key) {
+        if (key == EMPTY) {
+            if (!hasZeroKey)
+                return missingValue;
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long k = keys[slot];
+            if (k == EMPTY)
+                return missingValue;
+            if (k == key) {
+                long previous = values[slot];
+                size--;
+                shiftKeys(slot);
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * Remove the key only if it has the given value.
+     *
+     * @return Whether the key was removed.
+     */
+    public boolean remove(long key, long value) {
+        if (!containsKey(key) || get(key) != value)
+            return false;
+        remove(key);
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    /**
+     * Close the gap left by a removed key: every key after it in the run that may live at the gap moves there.
+     */
+    private void shiftKeys(int gap) {
+        for (int slot = (gap + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int ideal = slot(keys[slot]);
+            if (((slot - ideal) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int slot = slot(key);
+                while (keys[slot] != EMPTY)
+                    slot = (slot + 1) & mask;
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    // Fibonacci hashing spreads sequential ids over the table
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L)
+            capacity <<= 1;
+        return capacity;
+    }
+}
@@ -0,0 +1,69 @@
+package com.worldpay.offermanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.model.Offer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of offers by id.
+ * Caffeine admits new entries with W-TinyLFU so the few hot offers stay cached under skewed traffic,
+ * entries are evicted by size and after a time to live.
+ * Every change to an offer must invalidate its entry.
+ */
+@Component
+public class OfferCache {
+
+    private final Cache<Long, Offer> cache;
+
+    private final boolean enabled;
+
+    @Autowired
+    public OfferCache(OfferProperties offerProperties) {
+        OfferProperties.Cache properties = offerProperties.getCache();
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive().toNanos(), TimeUnit.NANOSECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param offerId The id of the offer.
+     * @param loader Loads the offer on a miss, returns null if there is no such offer.
+     * @return The cached or loaded offer, null if there is no such offer.
+     */
+    public Offer get(Long offerId, Function<Long, Offer> loader) {
+        if (!enabled)
+            return loader.apply(offerId);
+        return cache.get(offerId, loader);
+    }
+
+    public void invalidate(Long offerId) {
+        if (offerId != null)
+            cache.invalidate(offerId);
+    }
+
+    public void invalidateAll(Collection<Long> offerIds) {
+        cache.invalidateAll(offerIds);
+    }
+
+    /**
+     * @return The hit, miss and eviction counts since startup.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
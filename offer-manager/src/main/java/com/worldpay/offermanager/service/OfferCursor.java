@@ -0,0 +1,48 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.exception.ValidationException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Encodes the keyset position of an offer listing as an opaque token.
+ * The token carries the id of the last offer returned, the next page starts after it.
+ */
+final class OfferCursor {
+
+    static final long START = 0L;
+
+    private OfferCursor() {
+    }
+
+    static String encode(long lastId) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(lastId).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * @param cursor The token returned with the previous page, may be empty for the first page.
+     * @return The id the next page starts after.
+     * @exception ValidationException if the cursor was not issued by this service.
+     */
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty())
+            return START;
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Cursor is not valid");
+        }
+
+        if (bytes.length != Long.BYTES)
+            throw new ValidationException("Cursor is not valid");
+
+        long lastId = ByteBuffer.wrap(bytes).getLong();
+        if (lastId < START)
+            throw new ValidationException("Cursor is not valid");
+        return lastId;
+    }
+}
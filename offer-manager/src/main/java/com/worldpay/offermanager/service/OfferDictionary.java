@@ -0,0 +1,171 @@
+package com.worldpay.offermanager.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Off-heap dictionary of the names and descriptions of the {@link OfferStore}, each distinct text is stored once
+ * as UTF-8 and referred to by its code. The entries, their offsets and the open addressing hash table
+ * used to find a text already stored all live in direct buffers, so the heap does not grow with the texts.
+ * Entries are never removed. Not thread safe, the store guards it with its lock.
+ */
+final class OfferDictionary {
+
+    private static final int INITIAL_ENTRIES = 1024;
+
+    // entries: the length of the UTF-8 bytes as an int followed by the bytes
+    private ByteBuffer data = ByteBuffer.allocateDirect(INITIAL_ENTRIES * 32);
+    private int dataSize;
+
+    // the offset in data of each code
+    private ByteBuffer offsets = ByteBuffer.allocateDirect(INITIAL_ENTRIES * Integer.BYTES);
+
+    // code + 1 of the entry in each slot, 0 for an empty slot, linear probing
+    private ByteBuffer table = ByteBuffer.allocateDirect(INITIAL_ENTRIES * 2 * Integer.BYTES);
+    private int slots = INITIAL_ENTRIES * 2;
+
+    private int size;
+
+    /**
+     * @return The code of the text, stored if it was not already.
+     */
+    int encode(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes);
+        int slot = hash & (slots - 1);
+        for (int entry; (entry = table.getInt(slot * Integer.BYTES)) != 0; slot = (slot + 1) & (slots - 1)) {
+            if (matches(entry - 1, bytes))
+                return entry - 1;
+        }
+
+        int code = size++;
+        int offset = dataSize;
+        data = ensureCapacity(data, (long) offset + Integer.BYTES + bytes.length);
+        data.putInt(offset, bytes.length);
+        for (int i = 0; i < bytes.length; i++)
+            data.put(offset + Integer.BYTES + i, bytes[i]);
+        dataSize = offset + Integer.BYTES + bytes.length;
+
+        offsets = ensureCapacity(offsets, (long) size * Integer.BYTES);
+        offsets.putInt(code * Integer.BYTES, offset);
+        table.putInt(slot * Integer.BYTES, code + 1);
+        if (size * 2 > slots)
+            rehash(slots * 2);
+        return code;
+    }
+
+    /**
+     * @return The text of the code.
+     */
+    String decode(int code) {
+        char[] chars = new char[length(code)];
+        return new String(chars, 0, chars(code, chars));
+    }
+
+    /**
+     * @return The number of UTF-8 bytes of the text of the code, an upper bound of its number of chars.
+     */
+    int length(int code) {
+        return data.getInt(offsets.getInt(code * Integer.BYTES));
+    }
+
+    /**
+     * Decode the text of the code into the given buffer, without allocating.
+     *
+     * @param chars Holds at least {@link #length(int)} chars.
+     * @return The number of chars of the text.
+     */
+    int chars(int code, char[] chars) {
+        int offset = offsets.getInt(code * Integer.BYTES);
+        int end = offset + Integer.BYTES + data.getInt(offset);
+        int count = 0;
+        for (int i = offset + Integer.BYTES; i < end; ) {
+            int b = data.get(i++) & 0xff;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if (b < 0xe0) {
+                chars[count++] = (char) (((b & 0x1f) << 6) | (data.get(i++) & 0x3f));
+            } else if (b < 0xf0) {
+                chars[count++] = (char) (((b & 0x0f) << 12) | ((data.get(i++) & 0x3f) << 6) | (data.get(i++) & 0x3f));
+            } else {
+                int codePoint = ((b & 0x07) << 18) | ((data.get(i++) & 0x3f) << 12) | ((data.get(i++) & 0x3f) << 6)
+                        | (data.get(i++) & 0x3f);
+                chars[count++] = Character.highSurrogate(codePoint);
+                chars[count++] = Character.lowSurrogate(codePoint);
+            }
+        }
+        return count;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return The off-heap memory held by the dictionary.
+     */
+    long capacityBytes() {
+        return (long) data.capacity() + offsets.capacity() + table.capacity();
+    }
+
+    private boolean matches(int code, byte[] bytes) {
+        int offset = offsets.getInt(code * Integer.BYTES);
+        if (data.getInt(offset) != bytes.length)
+            return false;
+        for (int i = 0; i < bytes.length; i++) {
+            if (data.get(offset + Integer.BYTES + i) != bytes[i])
+                return false;
+        }
+        return true;
+    }
+
+    private void rehash(int newSlots) {
+        ByteBuffer newTable = ByteBuffer.allocateDirect(newSlots * Integer.BYTES);
+        for (int code = 0; code < size; code++) {
+            int offset = offsets.getInt(code * Integer.BYTES);
+            int slot = hash(offset + Integer.BYTES, data.getInt(offset)) & (newSlots - 1);
+            while (newTable.getInt(slot * Integer.BYTES) != 0)
+                slot = (slot + 1) & (newSlots - 1);
+            newTable.putInt(slot * Integer.BYTES, code + 1);
+        }
+        table = newTable;
+        slots = newSlots;
+    }
+
+    // FNV-1a, computed the same way over the stored bytes when rehashing
+    private static int hash(byte[] bytes) {
+        int hash = 0x811c9dc5;
+        for (byte b : bytes)
+            hash = (hash ^ (b & 0xff)) * 0x01000193;
+        return mix(hash);
+    }
+
+    private int hash(int offset, int length) {
+        int hash = 0x811c9dc5;
+        for (int i = offset; i < offset + length; i++)
+            hash = (hash ^ (data.get(i) & 0xff)) * 0x01000193;
+        return mix(hash);
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @return The buffer, or a copy twice as large when it can not hold the given number of bytes.
+     * @exception IllegalStateException if a buffer would go over 2GB.
+     */
+    static ByteBuffer ensureCapacity(ByteBuffer buffer, long bytes) {
+        if (bytes <= buffer.capacity())
+            return buffer;
+        if (bytes > Integer.MAX_VALUE)
+            throw new IllegalStateException("Offer store dictionary is full");
+
+        ByteBuffer grown = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE, Math.max(bytes, buffer.capacity() * 2L)));
+        ByteBuffer source = buffer.duplicate();
+        source.clear();
+        grown.put(source);
+        grown.clear();
+        return grown;
+    }
+}
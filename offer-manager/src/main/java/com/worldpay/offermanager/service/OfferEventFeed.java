@@ -0,0 +1,269 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.MetricsConfig;
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.exception.ValidationException;
+import com.worldpay.offermanager.model.OfferEvent;
+import com.worldpay.offermanager.model.OfferEventPage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Publishes the events of the {@link OfferEventLog} to the consumers of the event feed, so they read the offers
+ * created, cancelled and expired since the last offset they read instead of listing every offer again.
+ * A single publisher thread gives the committed events their offsets, in the order it finds them committed, so
+ * offsets only ever grow in the order events become visible. It wakes up when a transaction that appended events
+ * commits, or every offer.events.publish-interval, and then completes the requests waiting for events past their
+ * offset with the events it has just published, without reading them back from the database.
+ * When several instances share the database each runs a publisher. An event is only given an offset while it has
+ * none and the unique offset index lets only one event take an offset, so two publishers that read the same events
+ * can not both publish them and an offset never changes once served. A publisher that fails, having lost either race
+ * or otherwise, rolls its batch back and carries on from the last offset in the database rather than its own, so it
+ * does not keep colliding with the offsets given by another.
+ */
+@Component
+public class OfferEventFeed {
+
+    private final Logger logger = LoggerFactory.getLogger(OfferEventFeed.class);
+
+    private final OfferEventLog offerEventLog;
+
+    // requests waiting for an event past their offset, completed or cancelled ones are dropped by the publisher
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    private final Object signal = new Object();
+
+    // set when a transaction that appended events commits, guarded by signal
+    private boolean signalled;
+
+    private final boolean enabled;
+    private final long publishIntervalMillis;
+    private final int publishBatchSize;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final Duration maxWait;
+
+    // only written by the publisher thread
+    private volatile long lastOffset;
+
+    private volatile Thread publisher;
+
+    @Autowired
+    public OfferEventFeed(OfferEventLog offerEventLog, OfferProperties offerProperties, MeterRegistry meterRegistry) {
+        this.offerEventLog = offerEventLog;
+        OfferProperties.Events events = offerProperties.getEvents();
+        enabled = events.isEnabled();
+        publishIntervalMillis = events.getPublishInterval().toMillis();
+        publishBatchSize = events.getPublishBatchSize();
+        defaultPageSize = events.getDefaultPageSize();
+        maxPageSize = events.getMaxPageSize();
+        maxWait = events.getMaxWait();
+        Gauge.builder(MetricsConfig.EVENT_OFFSET, this, OfferEventFeed::getLastOffset).register(meterRegistry);
+        Gauge.builder(MetricsConfig.EVENT_WAITERS, waiters, Queue::size).register(meterRegistry);
+    }
+
+    /**
+     * This method will start the publisher once the application has started, from the last offset published.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || publisher != null)
+            return;
+
+        lastOffset = offerEventLog.lastOffset();
+        logger.info("Publishing offer events from offset {}", lastOffset);
+        publisher = new Thread(this::run, "offer-event-publisher");
+        publisher.setDaemon(true);
+        publisher.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (publisher != null) {
+            publisher.interrupt();
+            publisher = null;
+        }
+    }
+
+    /**
+     * This method will wake up the publisher once a transaction that appended events has committed.
+     */
+    @TransactionalEventListener
+    public void appended(OfferEventLog.Appended appended) {
+        synchronized (signal) {
+            signalled = true;
+            signal.notify();
+        }
+    }
+
+    /**
+     * @return The offset of the last event published.
+     */
+    public long getLastOffset() {
+        return lastOffset;
+    }
+
+    /**
+     * This method will read the published events after an offset.
+     *
+     * @param after The offset of the last event the consumer has read, 0 to read from the first event.
+     * @param limit The largest number of events to read, offer.events.default-page-size when null and capped
+     *              by offer.events.max-page-size.
+     * @return The events after the offset, in offset order.
+     * @exception ValidationException if the offset or the limit is not valid.
+     */
+    public OfferEventPage read(long after, Integer limit) {
+        return read(after, pageSize(after, limit));
+    }
+
+    /**
+     * This method will wait for events to be published after an offset. The returned future completes with the
+     * events once there are some, right away if there are already, and is cancelled by the caller when it stops
+     * waiting.
+     *
+     * @param after The offset of the last event the consumer has read.
+     * @param limit The largest number of events to read, as for {@link #read(long, Integer)}.
+     * @return The events after the offset, once there are some.
+     * @exception ValidationException if the offset or the limit is not valid.
+     */
+    public CompletableFuture<OfferEventPage> awaitEvents(long after, Integer limit) {
+        int pageSize = pageSize(after, limit);
+        CompletableFuture<OfferEventPage> events = new CompletableFuture<>();
+        Waiter waiter = new Waiter(after, pageSize, events);
+        waiters.add(waiter);
+        // events published before the waiter was added would not complete it
+        if (lastOffset > after && waiters.remove(waiter))
+            complete(waiter, null, 0);
+        return events;
+    }
+
+    /**
+     * @return How long a request asking to wait the given number of seconds waits, capped by offer.events.max-wait.
+     * @exception ValidationException if the wait is negative.
+     */
+    public Duration waitTime(int seconds) {
+        if (seconds < 0)
+            throw new ValidationException("Wait should not be negative");
+
+        Duration wait = Duration.ofSeconds(seconds);
+        return wait.compareTo(maxWait) > 0 ? maxWait : wait;
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                synchronized (signal) {
+                    if (!signalled)
+                        signal.wait(publishIntervalMillis);
+                    signalled = false;
+                }
+                publish();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.warn("Could not publish offer events, retrying from offset {}", lastOffset, e);
+            }
+        }
+    }
+
+    /**
+     * This method will publish every committed event without an offset, then complete the requests now behind
+     * the last offset. Requests waiting from the previous last offset, as they all are unless they fell behind
+     * while being added, are given the events just published. When a batch can not be published the last offset
+     * is read again from the database, the requests are completed on the next run.
+     */
+    void publish() {
+        long from = lastOffset;
+        List<OfferEvent> published = new ArrayList<>();
+        List<OfferEvent> batch;
+        do {
+            try {
+                batch = offerEventLog.publish(lastOffset, publishBatchSize);
+            } catch (RuntimeException e) {
+                lastOffset = offerEventLog.lastOffset();
+                throw e;
+            }
+            if (!batch.isEmpty())
+                lastOffset = batch.get(batch.size() - 1).getOffset();
+            // no request reads more than a page of them
+            if (published.size() < maxPageSize)
+                published.addAll(batch);
+        } while (batch.size() == publishBatchSize);
+
+        for (Iterator<Waiter> i = waiters.iterator(); i.hasNext(); ) {
+            Waiter waiter = i.next();
+            if (waiter.events.isDone()) {
+                i.remove();
+            } else if (waiter.after < lastOffset) {
+                i.remove();
+                complete(waiter, published, from);
+            }
+        }
+    }
+
+    private void complete(Waiter waiter, List<OfferEvent> published, long from) {
+        try {
+            if (published != null && waiter.after == from) {
+                List<OfferEvent> events = published.subList(0, Math.min(waiter.pageSize, published.size()));
+                waiter.events.complete(page(new ArrayList<>(events), from));
+            } else {
+                waiter.events.complete(read(waiter.after, waiter.pageSize));
+            }
+        } catch (RuntimeException e) {
+            waiter.events.completeExceptionally(e);
+        }
+    }
+
+    private OfferEventPage read(long after, int pageSize) {
+        return page(offerEventLog.read(after, pageSize), after);
+    }
+
+    private static OfferEventPage page(List<OfferEvent> events, long after) {
+        return new OfferEventPage(events, events.isEmpty() ? after : events.get(events.size() - 1).getOffset());
+    }
+
+    /**
+     * The page size requested by the client, capped by the configured maximum.
+     */
+    private int pageSize(long after, Integer limit) {
+        if (after < 0)
+            throw new ValidationException("Offset should not be negative");
+
+        if (limit == null)
+            return Math.min(defaultPageSize, maxPageSize);
+
+        if (limit < 1)
+            throw new ValidationException("Limit should be greater than zero");
+
+        return Math.min(limit, maxPageSize);
+    }
+
+    private static final class Waiter {
+
+        private final long after;
+        private final int pageSize;
+        private final CompletableFuture<OfferEventPage> events;
+
+        private Waiter(long after, int pageSize, CompletableFuture<OfferEventPage> events) {
+            this.after = after;
+            this.pageSize = pageSize;
+            this.events = events;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferEvent;
+import com.worldpay.offermanager.repository.OfferEventRepository;
+import com.worldpay.offermanager.repository.OfferRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The outbox of offer events. An event is appended to the offer_event table in the transaction that creates,
+ * cancels or expires its offer, so it is committed if and only if the change is. Once such a transaction commits
+ * the {@link OfferEventFeed} is signalled and gives the new events their offsets.
+ * With offer.events.enabled=false nothing is appended.
+ */
+@Component
+public class OfferEventLog {
+
+    /**
+     * Published to the application in a transaction that appended events, received by the feed once it commits.
+     */
+    public static final class Appended {
+
+        private Appended() {
+        }
+    }
+
+    private static final Appended APPENDED = new Appended();
+
+    private final OfferEventRepository offerEventRepository;
+
+    private final OfferRepository offerRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean enabled;
+
+    @Autowired
+    public OfferEventLog(OfferEventRepository offerEventRepository, OfferRepository offerRepository,
+                         ApplicationEventPublisher eventPublisher, OfferProperties offerProperties) {
+        this.offerEventRepository = offerEventRepository;
+        this.offerRepository = offerRepository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = offerProperties.getEvents().isEnabled();
+    }
+
+    /**
+     * This method will append a CREATED event for each offer, in the transaction that saved them.
+     *
+     * @param offers The saved offers.
+     * @param time The time of the request.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Collection<Offer> offers, LocalDateTime time) {
+        if (!enabled)
+            return;
+
+        List<OfferEvent> events = new ArrayList<>(offers.size());
+        for (Offer offer : offers)
+            events.add(new OfferEvent(offer.getId(), OfferEvent.Type.CREATED, time));
+        append(events);
+    }
+
+    /**
+     * This method will append a CANCELLED event for each offer, in the transaction that cancelled them.
+     *
+     * @param offerIds The ids of the offers cancelled.
+     * @param time The time of the cancel, the new expiry date of the offers.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cancelled(Collection<Long> offerIds, LocalDateTime time) {
+        if (enabled)
+            append(events(offerIds, OfferEvent.Type.CANCELLED, time));
+    }
+
+    /**
+     * This method will expire the given offers that are still active and append an EXPIRED event for each,
+     * in a transaction of its own so each batch of the expiry sweeper and scheduler commits with its events.
+     * The offers are locked first so an offer cancelled at the same time gets a single event.
+     *
+     * @param offerIds The ids of the offers past their expiry date.
+     * @param time The time of the expiry run.
+     * @return The number of offers expired.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int expire(Collection<Long> offerIds, LocalDateTime time) {
+        if (!enabled)
+            return offerRepository.expireOffers(offerIds);
+
+        List<Long> active = offerRepository.lockActiveOfferIds(offerIds);
+        if (active.isEmpty())
+            return 0;
+        int expired = offerRepository.expireOffers(active);
+        append(events(active, OfferEvent.Type.EXPIRED, time));
+        return expired;
+    }
+
+    /**
+     * This method will give the next offsets to the committed events that have none, in the order they were
+     * appended. It is only called by the feed's publisher thread, one batch per transaction. An event is only
+     * given an offset if it still has none, so the publisher of another instance that read the same events can not
+     * change an offset once it has been served.
+     *
+     * @param lastOffset The offset of the last event published.
+     * @param batchSize The largest number of events published.
+     * @return The events published, in offset order.
+     * @exception OptimisticLockingFailureException if another publisher published one of the events first, none
+     * of the batch is published then.
+     */
+    @Transactional
+    public List<OfferEvent> publish(long lastOffset, int batchSize) {
+        List<OfferEvent> events = offerEventRepository.findUnpublishedEvents(PageRequest.of(0, batchSize));
+        for (OfferEvent event : events) {
+            if (offerEventRepository.publishEvent(event.getId(), lastOffset + 1) == 0)
+                throw new OptimisticLockingFailureException("Offer event " + event.getId() + " already published");
+            event.setOffset(++lastOffset);
+        }
+        return events;
+    }
+
+    /**
+     * @return Up to limit published events after the given offset, in offset order.
+     */
+    @Transactional(readOnly = true)
+    public List<OfferEvent> read(long after, int limit) {
+        return offerEventRepository.findEventsAfter(after, PageRequest.of(0, limit));
+    }
+
+    /**
+     * @return The offset of the last published event, 0 if there is none.
+     */
+    @Transactional(readOnly = true)
+    public long lastOffset() {
+        Long lastOffset = offerEventRepository.findLastOffset();
+        return lastOffset == null ? 0 : lastOffset;
+    }
+
+    private void append(List<OfferEvent> events) {
+        if (events.isEmpty())
+            return;
+
+        offerEventRepository.saveAll(events);
+        eventPublisher.publishEvent(APPENDED);
+    }
+
+    private static List<OfferEvent> events(Collection<Long> offerIds, OfferEvent.Type type, LocalDateTime time) {
+        List<OfferEvent> events = new ArrayList<>(offerIds.size());
+        for (Long offerId : offerIds)
+            events.add(new OfferEvent(offerId, type, time));
+        return events;
+    }
+}
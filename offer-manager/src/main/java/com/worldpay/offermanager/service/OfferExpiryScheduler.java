@@ -0,0 +1,238 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.MetricsConfig;
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.repository.OfferRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Expires active offers at their expiry date instead of at the next run of the {@link OfferExpirySweeper}.
+ * Every active offer is held in a delay queue, loaded on startup and kept up to date by the service,
+ * a single worker thread wakes up when the earliest offer expires and expires every offer that is due.
+ * The sweeper still runs and catches anything this scheduler misses, for instance after a failed update.
+ * Cancelled and rescheduled offers leave their old task in the queue, the queue is rebuilt from the live tasks
+ * once they outnumber them so months of churn do not pile up until those tasks fall due.
+ */
+@Component
+public class OfferExpiryScheduler {
+
+    private final Logger logger = LoggerFactory.getLogger(OfferExpiryScheduler.class);
+
+    // number of stale tasks always left in the queue, so small queues are not rebuilt on every cancel
+    private static final int MIN_STALE_TASKS = 1024;
+
+    private final DelayQueue<ExpiryTask> queue = new DelayQueue<>();
+
+    // the scheduled expiry time of each offer, a polled task whose time is no longer in this map has been
+    // cancelled or replaced, guarded by itself, which also guards adding to the queue and rebuilding it
+    private final LongLongMap tasks = new LongLongMap(1024, -1);
+
+    private final OfferRepository offerRepository;
+
+    private final OfferCache offerCache;
+
+    private final OfferStore offerStore;
+
+    private final OfferEventLog offerEventLog;
+
+    private final MeterRegistry meterRegistry;
+
+    // read once, schedule is called for every active offer on startup
+    private final boolean enabled;
+    private final int batchSize;
+
+    private volatile Thread worker;
+
+    @Autowired
+    public OfferExpiryScheduler(OfferRepository offerRepository, OfferProperties offerProperties, OfferCache offerCache,
+                                OfferStore offerStore, OfferEventLog offerEventLog, MeterRegistry meterRegistry) {
+        this.offerRepository = offerRepository;
+        this.offerCache = offerCache;
+        this.offerStore = offerStore;
+        this.offerEventLog = offerEventLog;
+        this.meterRegistry = meterRegistry;
+        enabled = offerProperties.getExpiry().isSchedulerEnabled();
+        batchSize = offerProperties.getExpiry().getBatchSize();
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder(MetricsConfig.SCHEDULED_OFFERS, this, OfferExpiryScheduler::size).register(meterRegistry);
+    }
+
+    /**
+     * This method will schedule every active offer once the application has started and start the worker.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (!enabled)
+            return;
+
+        logger.info("Loading offer expiry schedule");
+        try (Stream<Object[]> expiries = offerRepository.streamActiveExpiryDates()) {
+            expiries.forEach(row -> schedule((Long) row[0], (LocalDateTime) row[1]));
+        }
+        logger.info("Scheduled expiry of {} offers", size());
+        start();
+    }
+
+    /**
+     * This method will schedule the expiry of an active offer, replacing any expiry already scheduled for it.
+     *
+     * @param offerId The id of the offer.
+     * @param expiryDate The time the offer expires.
+     */
+    public void schedule(Long offerId, LocalDateTime expiryDate) {
+        if (offerId == null || expiryDate == null || !enabled)
+            return;
+
+        ExpiryTask task = new ExpiryTask(offerId, expiryDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        synchronized (tasks) {
+            if (tasks.put(task.offerId, task.expiryMillis) != -1)
+                purgeIfStale();
+            queue.offer(task);
+        }
+    }
+
+    /**
+     * This method will drop the scheduled expiry of an offer that is no longer active.
+     *
+     * @param offerId The id of the offer.
+     */
+    public void cancel(Long offerId) {
+        if (offerId == null)
+            return;
+        synchronized (tasks) {
+            if (tasks.remove(offerId) != -1)
+                purgeIfStale();
+        }
+    }
+
+    /**
+     * @return The number of offers waiting to expire.
+     */
+    public int size() {
+        synchronized (tasks) {
+            return tasks.size();
+        }
+    }
+
+    /**
+     * @return The number of tasks in the queue, those of cancelled or rescheduled offers included.
+     */
+    int queued() {
+        return queue.size();
+    }
+
+    /**
+     * Rebuild the queue from the live tasks once the stale ones outnumber them, called holding the tasks lock.
+     * A task the worker takes meanwhile may be put back, it is then skipped as stale when it falls due again.
+     */
+    private void purgeIfStale() {
+        int live = tasks.size();
+        if (queue.size() - live <= Math.max(MIN_STALE_TASKS, live))
+            return;
+
+        List<ExpiryTask> liveTasks = new ArrayList<>(live);
+        for (ExpiryTask task : queue.toArray(new ExpiryTask[0])) {
+            if (tasks.get(task.offerId) == task.expiryMillis)
+                liveTasks.add(task);
+        }
+        queue.clear();
+        queue.addAll(liveTasks);
+        logger.debug("Dropped stale expiry tasks, {} left", liveTasks.size());
+    }
+
+    synchronized void start() {
+        if (worker != null)
+            return;
+
+        worker = new Thread(this::run, "offer-expiry-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    private void run() {
+        List<ExpiryTask> due = new ArrayList<>(batchSize);
+        Timer batchTimer = meterRegistry.timer(MetricsConfig.EXPIRY_BATCH_TIMER, "source", "scheduler");
+        Counter expired = meterRegistry.counter(MetricsConfig.EXPIRED_OFFERS, "source", "scheduler");
+
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Long> ids = new ArrayList<>();
+            try {
+                due.add(queue.take());
+                queue.drainTo(due, batchSize - 1);
+                synchronized (tasks) {
+                    for (ExpiryTask task : due) {
+                        if (tasks.remove(task.offerId, task.expiryMillis))
+                            ids.add(task.offerId);
+                    }
+                }
+                if (!ids.isEmpty()) {
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    expired.increment(offerEventLog.expire(ids, LocalDateTime.now()));
+                    offerCache.invalidateAll(ids);
+                    offerStore.changed(ids);
+                    sample.stop(batchTimer);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.warn("Could not expire offers {}, the sweeper will catch up", ids, e);
+            } finally {
+                due.clear();
+            }
+        }
+    }
+
+    private static final class ExpiryTask implements Delayed {
+
+        private final long offerId;
+        private final long expiryMillis;
+
+        private ExpiryTask(long offerId, long expiryMillis) {
+            this.offerId = offerId;
+            this.expiryMillis = expiryMillis;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiryMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiryMillis, ((ExpiryTask) other).expiryMillis);
+        }
+    }
+}
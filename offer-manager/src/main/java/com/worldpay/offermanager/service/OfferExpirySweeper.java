@@ -0,0 +1,101 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.MetricsConfig;
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.repository.OfferRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sets the status of the active offers past their expiry date to EXPIRED.
+ * Each run only looks at the offers that expired since the previous run, minus a safety lag,
+ * and expires them in bounded batches each committed in its own transaction, with their EXPIRED events, so locks
+ * are held briefly.
+ */
+@Component
+public class OfferExpirySweeper {
+
+    // the first run looks at every offer
+    static final LocalDateTime INITIAL_WATERMARK = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final Logger logger = LoggerFactory.getLogger(OfferExpirySweeper.class);
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @Autowired
+    private OfferProperties offerProperties;
+
+    @Autowired
+    private OfferCache offerCache;
+
+    @Autowired
+    private OfferStore offerStore;
+
+    @Autowired
+    private OfferEventLog offerEventLog;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile LocalDateTime watermark = INITIAL_WATERMARK;
+
+    @PostConstruct
+    void registerMetrics() {
+        TimeGauge.builder(MetricsConfig.EXPIRY_LAG, this, TimeUnit.MILLISECONDS,
+                sweeper -> Duration.between(sweeper.watermark, LocalDateTime.now()).toMillis())
+                .register(meterRegistry);
+    }
+
+    /**
+     * This method will set the status of expired offer every 10 seconds, or as set by offer.expiry.sweep-cron
+     *
+     * @return The number of offers expired.
+     */
+    @Scheduled(cron = "${offer.expiry.sweep-cron:0/10 * * * * ?}")
+    public synchronized int refreshOfferStatus() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiredAfter = watermark;
+        int batchSize = offerProperties.getExpiry().getBatchSize();
+        int expired = 0;
+
+        List<Long> ids;
+        Timer batchTimer = meterRegistry.timer(MetricsConfig.EXPIRY_BATCH_TIMER, "source", "sweeper");
+        do {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            ids = offerRepository.findExpiredOfferIds(expiredAfter, now, PageRequest.of(0, batchSize));
+            if (!ids.isEmpty()) {
+                expired += offerEventLog.expire(ids, now);
+                offerCache.invalidateAll(ids);
+                offerStore.changed(ids);
+            }
+            sample.stop(batchTimer);
+        } while (ids.size() == batchSize);
+        meterRegistry.counter(MetricsConfig.EXPIRED_OFFERS, "source", "sweeper").increment(expired);
+
+        LocalDateTime next = now.minus(offerProperties.getExpiry().getWatermarkLag());
+        if (next.isAfter(watermark))
+            watermark = next;
+
+        if (expired > 0)
+            logger.info("Expired {} offers", expired);
+        return expired;
+    }
+
+    LocalDateTime getWatermark() {
+        return watermark;
+    }
+}
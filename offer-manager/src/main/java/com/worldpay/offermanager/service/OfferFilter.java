@@ -0,0 +1,90 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.exception.ValidationException;
+import com.worldpay.offermanager.model.OfferQuery;
+import com.worldpay.offermanager.model.Status;
+import org.apache.logging.log4j.util.Strings;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Locale;
+
+/**
+ * The status and expiry filters of an {@link OfferQuery} translated into the stored columns.
+ * An offer past its expiry date is EXPIRED even if the scheduler has not updated its status yet,
+ * so the requested status is resolved against the expiry date as well.
+ */
+final class OfferFilter {
+
+    // bounds used when a listing does not filter on the expiry date
+    static final LocalDateTime EARLIEST_EXPIRY = LocalDateTime.of(1970, 1, 1, 0, 0);
+    static final LocalDateTime LATEST_EXPIRY = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final Collection<Status> statuses;
+    private final LocalDateTime expiresAfter;
+    private final LocalDateTime expiresBefore;
+
+    private OfferFilter(Collection<Status> statuses, LocalDateTime expiresAfter, LocalDateTime expiresBefore) {
+        this.statuses = statuses;
+        this.expiresAfter = expiresAfter;
+        this.expiresBefore = expiresBefore;
+    }
+
+    /**
+     * @exception ValidationException if the status or one of the dates is not valid.
+     */
+    static OfferFilter of(OfferQuery query, LocalDateTime now) {
+        LocalDateTime expiresAfter = parseDate(query.getExpiresAfter(), EARLIEST_EXPIRY);
+        LocalDateTime expiresBefore = parseDate(query.getExpiresBefore(), LATEST_EXPIRY);
+
+        if (Strings.isBlank(query.getStatus()))
+            return new OfferFilter(EnumSet.allOf(Status.class), expiresAfter, expiresBefore);
+
+        switch (parseStatus(query.getStatus())) {
+            case ACTIVE:
+                return new OfferFilter(EnumSet.of(Status.ACTIVE),
+                        expiresAfter.isAfter(now) ? expiresAfter : now, expiresBefore);
+            case EXPIRED:
+                return new OfferFilter(EnumSet.of(Status.ACTIVE, Status.EXPIRED),
+                        expiresAfter, expiresBefore.isBefore(now) ? expiresBefore : now);
+            default:
+                return new OfferFilter(EnumSet.of(Status.CANCELLED), expiresAfter, expiresBefore);
+        }
+    }
+
+    Collection<Status> getStatuses() {
+        return statuses;
+    }
+
+    LocalDateTime getExpiresAfter() {
+        return expiresAfter;
+    }
+
+    LocalDateTime getExpiresBefore() {
+        return expiresBefore;
+    }
+
+    private static Status parseStatus(String status) {
+        try {
+            return Status.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Status " + status + " is not valid");
+        }
+    }
+
+    /**
+     * @exception ValidationException if the date is not in the ISO Date Time format.
+     */
+    static LocalDateTime parseDate(String date, LocalDateTime defaultDate) {
+        if (Strings.isBlank(date))
+            return defaultDate;
+
+        try {
+            return LocalDateTime.parse(date.trim());
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Date " + date + " is not valid");
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.repository.OfferRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In memory trigram index of the offer descriptions.
+ * A like pattern starting with a wildcard can not use the database index, the trigrams of its literal
+ * parts narrow the search down to the offers that may match, which the database then checks.
+ * The ids of the offers of each trigram are held as a sorted array of primitive longs, found through a
+ * {@link LongLongMap}, so the index holds no boxed id and candidates are intersected by merging sorted arrays,
+ * from the shortest, and returned as a sorted array.
+ * Descriptions do not change once an offer is created so offers are only ever added.
+ * The index only learns of the offers added through this instance, an offer inserted by another instance or
+ * straight into the database is never a candidate, so it is for a single instance and off unless
+ * offer.search.index-enabled is set.
+ */
+@Component
+public class OfferSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final Logger logger = LoggerFactory.getLogger(OfferSearchIndex.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // index in postings of each trigram
+    private final LongLongMap trigrams = new LongLongMap(1024, -1);
+
+    private final List<Postings> postings = new ArrayList<>();
+
+    private volatile boolean ready;
+
+    private final OfferRepository offerRepository;
+
+    private final boolean enabled;
+
+    @Autowired
+    public OfferSearchIndex(OfferRepository offerRepository, OfferProperties offerProperties) {
+        this.offerRepository = offerRepository;
+        enabled = offerProperties.getSearch().isIndexEnabled();
+    }
+
+    /**
+     * This method will index the description of every stored offer once the application has started.
+     * Offers added meanwhile are indexed by {@link #add(Long, String)}, candidates are only returned once loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (!enabled)
+            return;
+
+        logger.info("Loading offer search index");
+        try (Stream<Object[]> descriptions = offerRepository.streamDescriptions()) {
+            descriptions.forEach(row -> add((Long) row[0], (String) row[1]));
+        }
+        ready = true;
+        logger.info("Offer search index loaded with {} trigrams", trigramCount());
+    }
+
+    /**
+     * This method will index the description of an offer.
+     *
+     * @param offerId The id of the offer.
+     * @param description The description of the offer.
+     */
+    public void add(Long offerId, String description) {
+        if (offerId == null || description == null || !enabled)
+            return;
+
+        String key = Offer.searchKey(description);
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i + GRAM <= key.length(); i++)
+                postings(trigram(key, i)).add(offerId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This method will return the ids of the offers whose description may match a like pattern.
+     * Every offer matching the pattern is in the result, the result may hold offers that do not match.
+     *
+     * @param pattern The like pattern, case insensitive.
+     * @param maxCandidates The largest number of candidates worth checking one by one.
+     * @return The candidate ids in increasing order, or null if the index can not narrow the search down
+     *         to at most maxCandidates offers.
+     */
+    public long[] candidates(String pattern, int maxCandidates) {
+        if (!ready || pattern == null || pattern.indexOf('\\') >= 0)
+            return null;
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (String fragment : Offer.searchKey(pattern).split("[%_]")) {
+                for (int i = 0; i + GRAM <= fragment.length(); i++) {
+                    long index = trigrams.get(trigram(fragment, i));
+                    if (index < 0)
+                        return new long[0];
+                    lists.add(postings.get((int) index));
+                }
+            }
+            if (lists.isEmpty())
+                return null;
+
+            // the shortest list bounds the candidates, the longer ones are only merged into it
+            lists.sort(Comparator.comparingInt(ids -> ids.size));
+            Postings shortest = lists.get(0);
+            long[] candidates = null;
+            int count = shortest.size;
+            for (int i = 1; i < lists.size() && count > 0; i++) {
+                if (candidates == null)
+                    candidates = Arrays.copyOf(shortest.ids, shortest.size);
+                count = lists.get(i).retain(candidates, count);
+            }
+            if (count > maxCandidates)
+                return null;
+            return Arrays.copyOf(candidates == null ? shortest.ids : candidates, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of distinct trigrams indexed.
+     */
+    public int trigramCount() {
+        lock.readLock().lock();
+        try {
+            return trigrams.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A like pattern the database index can serve: one without a leading wildcard.
+     */
+    public static boolean isPrefixPattern(String pattern) {
+        return !pattern.isEmpty() && pattern.charAt(0) != '%' && pattern.charAt(0) != '_';
+    }
+
+    private Postings postings(long trigram) {
+        long index = trigrams.get(trigram);
+        if (index >= 0)
+            return postings.get((int) index);
+
+        Postings ids = new Postings();
+        trigrams.put(trigram, postings.size());
+        postings.add(ids);
+        return ids;
+    }
+
+    private static long trigram(String key, int start) {
+        return ((long) key.charAt(start) << 32) | ((long) key.charAt(start + 1) << 16) | key.charAt(start + 2);
+    }
+
+    /**
+     * The ids of the offers having a trigram, sorted.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int index;
+            // ids mostly come in increasing order
+            if (size == 0 || ids[size - 1] < id) {
+                index = size;
+            } else {
+                index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0)
+                    return;
+                index = -index - 1;
+            }
+            if (size == ids.length)
+                ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        /**
+         * Keep the first count candidates that have the trigram, both being sorted.
+         *
+         * @return The number of candidates kept, at the start of the array.
+         */
+        int retain(long[] candidates, int count) {
+            int kept = 0;
+            for (int c = 0, i = 0; c < count && i < size; ) {
+                if (candidates[c] < ids[i]) {
+                    c++;
+                } else if (candidates[c] > ids[i]) {
+                    i++;
+                } else {
+                    candidates[kept++] = candidates[c++];
+                    i++;
+                }
+            }
+            return kept;
+        }
+    }
+}
@@ -2,9 +2,16 @@ package com.worldpay.offermanager.service;
 
 import com.worldpay.offermanager.exception.OfferNotFoundException;
 import com.worldpay.offermanager.exception.ValidationException;
+import com.worldpay.offermanager.model.BulkCancelRequest;
+import com.worldpay.offermanager.model.BulkCancelResult;
+import com.worldpay.offermanager.model.BulkOfferResult;
 import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferPage;
+import com.worldpay.offermanager.model.OfferQuery;
+import com.worldpay.offermanager.model.OfferView;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface OfferService {
 
@@ -28,6 +35,15 @@ public interface OfferService {
      */
     Offer addOffer(Offer offer) ;
 
+    /**
+     * This method will add the valid offers of a list to the database, invalid offers are reported and skipped.
+     *
+     * @param offers The offers to persist, a null element is reported as not valid.
+     * @return The outcome of each offer, in the order of the list.
+     * @exception ValidationException if the list holds more offers than allowed.
+     */
+    List<BulkOfferResult> addOffers(List<Offer> offers);
+
     /**
      * This method will cancel an active offer by setting the expiry date to now and status to CANCELLED.
      *
@@ -36,14 +52,34 @@ public interface OfferService {
      */
     Offer cancelOffer(Long offerId) ;
 
-    List<Offer> getOfferByDescription(String description);
+    /**
+     * This method will cancel the active offers given by id or matching a filter, with the rules of {@link #cancelOffer(Long)}.
+     *
+     * @param request The ids of the offers, or the description and expiry filter of the offers.
+     * @return The outcome for each offer, in the order of the ids.
+     * @exception ValidationException if neither ids nor a filter is given, or the filter is not valid.
+     */
+    List<BulkCancelResult> cancelOffers(BulkCancelRequest request);
+
+    List<OfferView> getOfferByDescription(String description);
+
 
+    /**
+     * This method will return one page of offers in id order.
+     *
+     * @param query The status and expiry filters, the cursor of the page and its size.
+     * @return The offers of the page and the cursor of the next page.
+     * @exception ValidationException if any of the query parameters is not valid.
+     */
+    OfferPage getOffers(OfferQuery query);
 
     /**
-     * This method will return the list of offer that matche the description.
+     * This method will hand every offer matching the query to the consumer, in id order, without loading them all at once.
      *
-     * @return The list of offer that matches the description.
+     * @param query The status and expiry filters.
+     * @param consumer Receives the offers as they are read.
+     * @exception ValidationException if any of the query parameters is not valid.
      */
-    List<Offer> getOffers();
+    void exportOffers(OfferQuery query, Consumer<Offer> consumer);
 
 }
@@ -1,161 +1,512 @@
 package com.worldpay.offermanager.service;
 
+import com.worldpay.offermanager.config.MetricsConfig;
+import com.worldpay.offermanager.config.OfferProperties;
 import com.worldpay.offermanager.exception.OfferNotFoundException;
 import com.worldpay.offermanager.exception.ValidationException;
+import com.worldpay.offermanager.model.BulkCancelRequest;
+import com.worldpay.offermanager.model.BulkCancelResult;
+import com.worldpay.offermanager.model.BulkOfferResult;
+import com.worldpay.offermanager.model.EpochMillis;
 import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferPage;
+import com.worldpay.offermanager.model.OfferQuery;
+import com.worldpay.offermanager.model.OfferView;
 import com.worldpay.offermanager.model.Status;
 import com.worldpay.offermanager.repository.OfferRepository;
+import io.micrometer.core.annotation.Timed;
 import org.apache.logging.log4j.util.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
-
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class OfferServiceImpl implements OfferService {
 
     private final Logger logger = LoggerFactory.getLogger(OfferServiceImpl.class);
 
+    // number of ids passed to the database per query
+    private static final int SEARCH_BATCH_SIZE = 1000;
+
     @Autowired
     private OfferRepository offerRepository;
 
+    @Autowired
+    private OfferProperties offerProperties;
+
+    @Autowired
+    private OfferCache offerCache;
+
+    @Autowired
+    private OfferSearchIndex offerSearchIndex;
+
+    @Autowired
+    private OfferExpiryScheduler offerExpiryScheduler;
+
+    @Autowired
+    private OfferStore offerStore;
+
+    @Autowired
+    private OfferEventLog offerEventLog;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // loads a missing offer into the cache, held once so a cache read allocates no lambda
+    private final Function<Long, Offer> findOffer = id -> offerRepository.findById(id).orElse(null);
+
     /**
      * This method will find an offer by id .
+     * Offers are read from the offer store once loaded, otherwise through the offer cache,
+     * the expiry check applies to stored and cached offers too. An active offer past its expiry date is
+     * returned as an expired copy, the cached offer is shared by every request and is left as it is.
      *
      * @param offerId The id of the offer.
      * @return The offer if it exists
      * @exception OfferNotFoundException if offer with the given id does not exist.
      * @see RuntimeException
      */
+    @Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
     public Offer getOfferById(Long offerId) {
         Objects.requireNonNull(offerId, "Offer Id should not be null");
 
-     logger.info("Get offer by id  {} ", offerId);
-     Optional<Offer> offer = offerRepository.findById(offerId);
+     logger.debug("Get offer by id {}", offerId);
+     Offer offer = offerStore.get(offerId);
+     if (offer == null)
+         offer = offerCache.get(offerId, findOffer);
+     return markExpired(offerId, offer, LocalDateTime.now());
+    }
 
-     if (offer.isPresent()) {
-         Offer offerPresent = offer.get();
-         if (offerPresent.getExpiryDate().isBefore(LocalDateTime.now()) && Status.ACTIVE.equals(offerPresent.getStatus())) {
+    /**
+     * Find an offer in the database, bypassing the cache, for an update.
+     */
+    private Offer loadOffer(Long offerId, LocalDateTime now) {
+        return markExpired(offerId, offerRepository.findById(offerId).orElse(null), now);
+    }
+
+    private Offer markExpired(Long offerId, Offer offer, LocalDateTime now) {
+     if (offer != null) {
+         if (offer.getExpiryDate().isBefore(now) && Status.ACTIVE.equals(offer.getStatus())) {
              // no need to save the Scheduler will catchup
-             offerPresent.setStatus(Status.EXPIRED);
+             return expired(offer);
 
            }
-         return offerPresent;
+         return offer;
      }else
           throw new OfferNotFoundException("Offer with id " + offerId + " not found");
     }
 
+    /**
+     * A copy of an offer with the EXPIRED status.
+     */
+    private static Offer expired(Offer offer) {
+        Offer expired = new Offer();
+        expired.setId(offer.getId());
+        expired.setPrice(offer.getPrice());
+        expired.setCurrency(offer.getCurrency());
+        expired.setExpiryDate(offer.getExpiryDate());
+        expired.setName(offer.getName());
+        expired.setDescription(offer.getDescription());
+        expired.setStatus(Status.EXPIRED);
+        expired.setVersion(offer.getVersion());
+        return expired;
+    }
+
 
     /**
-     * This method will add a given valid offer to the database.
+     * This method will add a given valid offer to the database, with its CREATED event. The cache, the search
+     * index and the expiry schedule learn about the offer once the transaction commits.
      *
      * @param offer The offer to persist.
      * @return The offer if successfully saved.
      * @exception ValidationException if any of the parameter constraints is violated .
      * @see RuntimeException
      */
+    @Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+    @Transactional
     public Offer addOffer(Offer offer) {
-        logger.info("Adding offer {} ", offer.toString());
+        logger.debug("Adding offer {}", offer);
         Objects.requireNonNull(offer, "Offer Id should not be null");
-        validateOffer(offer);
+        LocalDateTime now = LocalDateTime.now();
+        validateOffer(offer, now);
+        activate(offer);
+        Offer savedOffer = offerRepository.save(offer);
+        offerEventLog.created(Collections.singletonList(savedOffer), now);
+        offerAdded(Collections.singletonList(savedOffer));
+        return savedOffer;
+    }
+
+    /**
+     * This method will add the valid offers of a list to the database, invalid offers are reported and skipped.
+     * Offers are inserted in JDBC batches of offer.bulk.batch-size with their CREATED events, the persistence
+     * context is cleared after each batch so memory does not grow with the list.
+     *
+     * @param offers The offers to persist, a null element is reported as not valid.
+     * @return The outcome of each offer, in the order of the list.
+     * @exception ValidationException if the list holds more offers than allowed.
+     */
+    @Override
+    @Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+    @Transactional
+    public List<BulkOfferResult> addOffers(List<Offer> offers) {
+        Objects.requireNonNull(offers, "Offers should not be null");
+        logger.debug("Adding {} offers", offers.size());
+        if (offers.size() > offerProperties.getBulk().getMaxSize())
+            throw new ValidationException("No more than " + offerProperties.getBulk().getMaxSize() + " offers can be added at once");
+
+        int batchSize = offerProperties.getBulk().getBatchSize();
+        LocalDateTime now = LocalDateTime.now();
+        List<BulkOfferResult> results = new ArrayList<>(offers.size());
+        List<Offer> batch = new ArrayList<>(batchSize);
+        List<Integer> batchIndexes = new ArrayList<>(batchSize);
+
+        for (int index = 0; index < offers.size(); index++) {
+            Offer offer = offers.get(index);
+            try {
+                if (offer == null)
+                    throw new ValidationException("Offer is not valid");
+                validateOffer(offer, now);
+            } catch (ValidationException e) {
+                results.add(BulkOfferResult.rejected(index, e.getMessage()));
+                continue;
+            }
+            activate(offer);
+            batch.add(offer);
+            batchIndexes.add(index);
+            results.add(null);
+
+            if (batch.size() == batchSize) {
+                insertBatch(batch, batchIndexes, results, now);
+                batch = new ArrayList<>(batchSize);
+                batchIndexes = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty())
+            insertBatch(batch, batchIndexes, results, now);
+        return results;
+    }
+
+    private void insertBatch(List<Offer> batch, List<Integer> batchIndexes, List<BulkOfferResult> results,
+                             LocalDateTime now) {
+        offerRepository.saveAll(batch);
+        offerEventLog.created(batch, now);
+        entityManager.flush();
+        entityManager.clear();
+
+        offerAdded(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            Offer savedOffer = batch.get(i);
+            results.set(batchIndexes.get(i), BulkOfferResult.created(batchIndexes.get(i), savedOffer.getId()));
+        }
+    }
+
+    /**
+     * A new offer is active, its expiry date is kept to the millisecond as offers are listed in {@link EpochMillis}.
+     */
+    private static void activate(Offer offer) {
         offer.setStatus(Status.ACTIVE);
-        return offerRepository.save(offer);
+        offer.setExpiryDate(offer.getExpiryDate().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    /**
+     * Keep the in memory structures in line with newly added offers, once the transaction commits so a rolled
+     * back offer is never found or expired.
+     */
+    private void offerAdded(List<Offer> offers) {
+        afterCommit(() -> {
+            for (Offer offer : offers) {
+                offerCache.invalidate(offer.getId());
+                offerSearchIndex.add(offer.getId(), offer.getDescription());
+                offerExpiryScheduler.schedule(offer.getId(), offer.getExpiryDate());
+            }
+        });
+        for (Offer offer : offers)
+            offerStore.put(offer);
     }
 
     /**
      * This method will cancel an active offer by setting the expiry date to now and status to CANCELLED.
+     * The offer is cancelled by a single conditional update, so a concurrent cancel or expiry can not be lost,
+     * it is only read when the update did not apply to find out why. Its CANCELLED event is appended in the
+     * same transaction, the cached offer and its scheduled expiry are dropped once the transaction commits.
      *
      * @param offerId The offer to cancel.
-     * @return Nothing.
+     * @return The cancelled offer.
+     * @exception OfferNotFoundException if offer with the given id does not exist.
+     * @exception ValidationException if the offer has expired or has already been cancelled.
      */
     @Override
+    @Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+    @Transactional
     public Offer  cancelOffer(Long offerId) {
         Objects.requireNonNull(offerId, "Offer Id should not be null");
-        logger.info("Cancelling offer {} ", offerId);
-        Offer offer = getOfferById(offerId);
+        logger.debug("Cancelling offer {}", offerId);
+
+        // a single read of the clock for the cancel and the expiry check, to the millisecond as offers are listed
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        if (offerRepository.cancelOffer(offerId, now) == 0) {
+            Offer offer = loadOffer(offerId, now);
+
+            if (Status.EXPIRED.equals(offer.getStatus()))
+                throw new ValidationException("Offer could not be cancelled because it has expired");
+
+            if (Status.CANCELLED.equals(offer.getStatus()))
+                throw new ValidationException("Offer could not be cancelled because it has already been cancelled");
+
+            throw new ValidationException("Offer could not be cancelled");
+        }
+
+        offerEventLog.cancelled(Collections.singletonList(offerId), now);
+        afterCommit(() -> {
+            offerCache.invalidate(offerId);
+            offerExpiryScheduler.cancel(offerId);
+        });
+        Offer offer = offerRepository.findById(offerId)
+                .orElseThrow(() -> new OfferNotFoundException("Offer with id " + offerId + " not found"));
+        offerStore.put(offer);
+        return offer;
+    }
 
-        if (Status.EXPIRED.equals(offer.getStatus()))
-            throw new ValidationException("Offer could not be cancelled because it has expired");
+    /**
+     * This method will cancel the active offers given by id or matching a filter, with the rules of {@link #cancelOffer(Long)}.
+     * The offers that can be cancelled are locked and cancelled by one update per batch of ids, so those are the
+     * offers this request cancelled even when another request cancels them at the same time. The status of the
+     * others is then read to tell why they could not be cancelled. The cache and the expiry schedule are updated
+     * once the transaction commits.
+     * A filter cancels at most offer.bulk.max-size offers per request.
+     *
+     * @param request The ids of the offers, or the description and expiry filter of the offers.
+     * @return The outcome for each offer, in the order of the ids.
+     * @exception ValidationException if neither ids nor a filter is given, or the filter is not valid.
+     */
+    @Override
+    @Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+    @Transactional
+    public List<BulkCancelResult> cancelOffers(BulkCancelRequest request) {
+        Objects.requireNonNull(request, "Cancel request should not be null");
+        logger.debug("Cancelling offers in bulk");
+        // millisecond precision so the time read back from the database compares equal
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        int maxSize = offerProperties.getBulk().getMaxSize();
 
-        if (Status.CANCELLED.equals(offer.getStatus()))
-            throw new ValidationException("Offer could not be cancelled because it has already been cancelled");
+        List<Long> ids;
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            ids = request.getIds().stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+            if (ids.size() > maxSize)
+                throw new ValidationException("No more than " + maxSize + " offers can be cancelled at once");
+        } else if (!Strings.isBlank(request.getDescription()) || !Strings.isBlank(request.getExpiresAfter())
+                || !Strings.isBlank(request.getExpiresBefore())) {
+            LocalDateTime expiresAfter = OfferFilter.parseDate(request.getExpiresAfter(), OfferFilter.EARLIEST_EXPIRY);
+            LocalDateTime expiresBefore = OfferFilter.parseDate(request.getExpiresBefore(), OfferFilter.LATEST_EXPIRY);
+            String description = Strings.isBlank(request.getDescription()) ? "%" : request.getDescription();
+            ids = offerRepository.findActiveOfferIds(description, expiresAfter.isAfter(now) ? expiresAfter : now,
+                    expiresBefore, PageRequest.of(0, maxSize));
+        } else {
+            throw new ValidationException("Offer ids or a filter should be given");
+        }
 
-        offer.setExpiryDate(LocalDateTime.now());
-        offer.setStatus(Status.CANCELLED);
-        return offerRepository.save(offer);
+        Map<Long, BulkCancelResult.Outcome> outcomes = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += SEARCH_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + SEARCH_BATCH_SIZE, ids.size()));
+            List<Long> cancellable = offerRepository.lockCancellableOfferIds(batch, now);
+            if (!cancellable.isEmpty()) {
+                offerRepository.cancelOffers(cancellable, now);
+                for (Long id : cancellable)
+                    outcomes.put(id, BulkCancelResult.Outcome.CANCELLED);
+            }
+            if (cancellable.size() < batch.size()) {
+                for (Object[] row : offerRepository.findStatuses(batch))
+                    outcomes.putIfAbsent((Long) row[0], Status.CANCELLED.equals(row[1])
+                            ? BulkCancelResult.Outcome.ALREADY_CANCELLED : BulkCancelResult.Outcome.EXPIRED);
+            }
+        }
 
+        List<BulkCancelResult> results = new ArrayList<>(ids.size());
+        List<Long> cancelled = new ArrayList<>();
+        for (Long id : ids) {
+            BulkCancelResult.Outcome outcome = outcomes.getOrDefault(id, BulkCancelResult.Outcome.NOT_FOUND);
+            if (outcome == BulkCancelResult.Outcome.CANCELLED)
+                cancelled.add(id);
+            results.add(new BulkCancelResult(id, outcome));
+        }
+        offerEventLog.cancelled(cancelled, now);
+        afterCommit(() -> {
+            for (Long id : cancelled) {
+                offerCache.invalidate(id);
+                offerExpiryScheduler.cancel(id);
+            }
+        });
+        offerStore.changed(cancelled);
+        return results;
+    }
+
+    /**
+     * Run a change to the in memory structures once the current transaction commits, so a concurrent read can not
+     * cache an offer as it was before the change and a rolled back change is never applied.
+     */
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
     }
 
     /**
      * This method will return all offers that match a given description.
+     * Exact and prefix searches use the database index on the description,
+     * substring searches ask the search index for the offers that may match first.
+     * Once the offer store is loaded the offers are read from it instead, only the candidates of the search index
+     * when it can narrow the search down.
+     * The offers are read-only views built by the query, an offer past its expiry date is listed as EXPIRED.
      *
      * @param description The description to search for.
      * @return The list of offer that matches the description.
      */
     @Override
-    public List<Offer> getOfferByDescription(String description) {
-        logger.info("Get offers by description");
+    @Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+    @Transactional(readOnly = true)
+    public List<OfferView> getOfferByDescription(String description) {
+        logger.debug("Get offers by description");
         if (Strings.isBlank(description))
             return Collections.emptyList();
 
-        return updateStatusOfExpiredButStillActiveOffers(offerRepository.findOffersByDescription(description));
+        LocalDateTime now = LocalDateTime.now();
+        int maxCandidates = offerProperties.getSearch().getMaxCandidates();
+        if (offerStore.isReady()) {
+            long[] candidates = offerSearchIndex.candidates(description, maxCandidates);
+            if (candidates == null)
+                return offerStore.search(description, now);
+            return offerStore.search(description, candidates, now);
+        }
+
+        if (OfferSearchIndex.isPrefixPattern(description))
+            return offerRepository.findOffersByDescription(description, now);
+
+        long[] candidates = offerSearchIndex.candidates(description, maxCandidates);
+        if (candidates == null)
+            return offerRepository.findOffersByDescription(description, now);
+
+        List<OfferView> offers = new ArrayList<>();
+        for (int from = 0; from < candidates.length; from += SEARCH_BATCH_SIZE) {
+            List<Long> batch = new ArrayList<>(SEARCH_BATCH_SIZE);
+            for (int i = from; i < Math.min(from + SEARCH_BATCH_SIZE, candidates.length); i++)
+                batch.add(candidates[i]);
+            offers.addAll(offerRepository.findOffersByIdsAndDescription(batch, description, now));
+        }
+        offers.sort(Comparator.comparing(OfferView::getId));
+        return offers;
     }
 
     /**
-     * This method will return the list of offer that matche the description.
+     * This method will return one page of offers in id order.
+     * The status and expiry filters are part of the query so only the rows of the page are loaded,
+     * as read-only views built by the query: an offer past its expiry date is listed as EXPIRED
+     * even if the scheduler has not caught up yet. Once the offer store is loaded the page is read from it.
      *
-     * @return The list of offer that matches the description.
+     * @param query The status and expiry filters, the cursor of the page and its size.
+     * @return The offers of the page and the cursor of the next page.
+     * @exception ValidationException if any of the query parameters is not valid.
      */
     @Override
-    public List<Offer> getOffers() {
-       logger.info("Get all offers");
-       return updateStatusOfExpiredButStillActiveOffers(offerRepository.findAll());
+    @Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+    @Transactional(readOnly = true)
+    public OfferPage getOffers(OfferQuery query) {
+        logger.debug("Get offers page");
+        Objects.requireNonNull(query, "Offer query should not be null");
+
+        int pageSize = pageSize(query.getLimit());
+        long afterId = OfferCursor.decode(query.getCursor());
+        LocalDateTime now = LocalDateTime.now();
+        OfferFilter filter = OfferFilter.of(query, now);
+
+        // one extra row tells whether there is a next page
+        List<OfferView> offers = offerStore.isReady()
+                ? offerStore.page(afterId, filter.getStatuses(), filter.getExpiresAfter(), filter.getExpiresBefore(),
+                        now, pageSize + 1)
+                : offerRepository.findOffersPage(afterId, filter.getStatuses(), filter.getExpiresAfter(),
+                        filter.getExpiresBefore(), now, PageRequest.of(0, pageSize + 1));
+
+        String nextCursor = null;
+        if (offers.size() > pageSize) {
+            offers = new ArrayList<>(offers.subList(0, pageSize));
+            nextCursor = OfferCursor.encode(offers.get(pageSize - 1).getId());
+        }
+        return new OfferPage(offers, nextCursor);
     }
 
     /**
-     * This method will set the status of expired offer every 50 seconds
+     * This method will hand every offer matching the query to the consumer, in id order.
+     * Rows are read from an open cursor and detached once consumed so memory does not grow with the table,
+     * the cursor and page size of the query are ignored.
      *
+     * @param query The status and expiry filters.
+     * @param consumer Receives the offers as they are read.
+     * @exception ValidationException if any of the query parameters is not valid.
      */
-    @Scheduled(cron = "0/10 * * * * ?")
-    private void refreshOfferStatus() {
-        logger.info("Refreshing offer statuses");
-        if (offerRepository.countExpiredOffers(LocalDateTime.now()) > 0)
-         offerRepository.updateExpiryStatus(LocalDateTime.now());
+    @Override
+    @Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+    @Transactional(readOnly = true)
+    public void exportOffers(OfferQuery query, Consumer<Offer> consumer) {
+        logger.debug("Export offers");
+        Objects.requireNonNull(query, "Offer query should not be null");
+        LocalDateTime now = LocalDateTime.now();
+        OfferFilter filter = OfferFilter.of(query, now);
+
+        try (Stream<Offer> offers = offerRepository.streamOffers(filter.getStatuses(), filter.getExpiresAfter(),
+                filter.getExpiresBefore())) {
+            offers.forEach(offer -> {
+                entityManager.detach(offer);
+                if (offer.getExpiryDate().isBefore(now) && Status.ACTIVE.equals(offer.getStatus()))
+                    offer.setStatus(Status.EXPIRED);
+                consumer.accept(offer);
+            });
+        }
     }
 
     /**
-     * Make up for the real-time expiry
-     * This method check and update the status of offers that has expired since the last scheduled run
-     * Note: the save method is not called this will be done by the next scheduler run
-     *
+     * The page size requested by the client, capped by the configured maximum.
      */
-    private List<Offer> updateStatusOfExpiredButStillActiveOffers(List<Offer> offers)
-    {
-        for (Offer offer : offers)
-        {
-            if (offer.getExpiryDate().isBefore(LocalDateTime.now()) && Status.ACTIVE.equals(offer.getStatus()))
-                offer.setStatus(Status.EXPIRED);
-        }
+    private int pageSize(Integer limit) {
+        OfferProperties.Listing listing = offerProperties.getListing();
+        if (limit == null)
+            return Math.min(listing.getDefaultPageSize(), listing.getMaxPageSize());
 
-        return offers;
+        if (limit < 1)
+            throw new ValidationException("Limit should be greater than zero");
+
+        return Math.min(limit, listing.getMaxPageSize());
     }
 
     /**
      * This method will validate the constraint on an offer.
      *
+     * @param now The time of the request, the expiry date must be after it.
      * @return Nothing
      * @exception ValidationException if any of the parameter constraints is violated .
      */
-    private void validateOffer(Offer offer)
+    private void validateOffer(Offer offer, LocalDateTime now)
     {
         if (offer.getCurrency() == null)
             throw new ValidationException("Currency value can not be empty");
@@ -169,7 +520,7 @@ public class OfferServiceImpl implements OfferService {
         if (offer.getPrice() == null)
             throw new ValidationException("Offer price can not be empty");
 
-        if (offer.getExpiryDate() == null || offer.getExpiryDate().isBefore(LocalDateTime.now()))
+        if (offer.getExpiryDate() == null || offer.getExpiryDate().isBefore(now))
             throw new ValidationException("Expiry date is not valid");
 
     }
@@ -0,0 +1,586 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.MetricsConfig;
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.model.MinorUnits;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferView;
+import com.worldpay.offermanager.model.Status;
+import com.worldpay.offermanager.repository.OfferRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Off-heap copy of every offer, enabled with offer.store.enabled, that serves the reads by id, the pages of offers
+ * and the description searches without the database. The offers are held in id order in direct buffer segments
+ * of offer.store.segment-size rows, one fixed width column per field: the price in {@link MinorUnits},
+ * the expiry date as microseconds, the currency, status, name and description as codes.
+ * Names and descriptions are stored once in the {@link OfferDictionary}. Scanning the rows allocates nothing,
+ * objects are only built for the offers returned, so the heap does not grow with the number of offers
+ * beyond the two primitive arrays of the {@link LongLongMap} that finds the row of an offer id.
+ * The store is loaded on startup and kept up to date by the service and the expiry jobs once their changes
+ * are committed, with the version the database gave each offer so the version served matches a committed row.
+ * Offers cancelled or expired are kept with their status so every listing can be served.
+ * Scans of large lists are split into chunks of rows run on the {@link ParallelChunks} pool while the calling
+ * thread holds the read lock.
+ */
+@Component
+public class OfferStore {
+
+    // width in bytes of each column, in the order of the columns in a segment
+    private static final int ID = 0;
+    private static final int PRICE = ID + Long.BYTES;
+    private static final int EXPIRY = PRICE + Long.BYTES;
+    private static final int VERSION = EXPIRY + Long.BYTES;
+    private static final int NAME = VERSION + Long.BYTES;
+    private static final int DESCRIPTION = NAME + Integer.BYTES;
+    private static final int DESCRIPTION_KEY = DESCRIPTION + Integer.BYTES;
+    private static final int CURRENCY = DESCRIPTION_KEY + Integer.BYTES;
+    private static final int STATUS = CURRENCY + Short.BYTES;
+    private static final int ROW_BYTES = STATUS + 1;
+
+    // ids per query reading back the offers changed by a bulk update
+    private static final int READ_BATCH_SIZE = 1000;
+
+    private static final int[] LONG_COLUMNS = {ID, PRICE, EXPIRY, VERSION};
+    private static final int[] INT_COLUMNS = {NAME, DESCRIPTION, DESCRIPTION_KEY};
+
+    private static final Status[] STATUSES = Status.values();
+
+    // decoded description keys of the rows scanned by a search
+    private static final ThreadLocal<char[]> SEARCH_BUFFER = ThreadLocal.withInitial(() -> new char[256]);
+
+    private final Logger logger = LoggerFactory.getLogger(OfferStore.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<ByteBuffer> segments = new ArrayList<>();
+
+    private final OfferDictionary dictionary = new OfferDictionary();
+
+    private final List<Currency> currencies = new ArrayList<>();
+
+    private final Map<Currency, Short> currencyCodes = new HashMap<>();
+
+    private int size;
+
+    // row of each offer id
+    private final LongLongMap rows = new LongLongMap(1024, -1);
+
+    // offer.store.segment-size
+    private int segmentSize;
+
+    // ids changed while loading before their row was loaded, read again once loaded, null when not loading
+    private Set<Long> missed;
+
+    private volatile boolean ready;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @Autowired
+    private OfferProperties offerProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ParallelChunks parallelChunks;
+
+    @PostConstruct
+    void registerMetrics() {
+        if (!offerProperties.getStore().isEnabled())
+            return;
+
+        Gauge.builder(MetricsConfig.STORED_OFFERS, this, OfferStore::size).register(meterRegistry);
+        Gauge.builder(MetricsConfig.STORE_MEMORY, this, OfferStore::capacityBytes).baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * This method will copy every stored offer into the store once the application has started.
+     * Offers changed meanwhile are kept up to date by the service, the store is only read once loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (!offerProperties.getStore().isEnabled())
+            return;
+
+        logger.info("Loading offer store");
+        write(() -> {
+            missed = new HashSet<>();
+        });
+        try (Stream<OfferView> offers = offerRepository.streamOfferViews()) {
+            offers.forEach(offer -> write(() -> {
+                if (find(offer.getId()) < 0)
+                    insert(offer.getId(), offer.getPrice(), offer.getCurrency(), offer.getExpiryDate(), offer.getName(),
+                            offer.getDescription(), offer.getStatus(), offer.getVersion());
+            }));
+        }
+
+        List<Long> changed = new ArrayList<>();
+        while (!write(() -> {
+            changed.clear();
+            changed.addAll(missed);
+            missed.clear();
+            if (changed.isEmpty()) {
+                missed = null;
+                ready = true;
+            }
+            return ready;
+        })) {
+            offerRepository.findAllById(changed).forEach(this::store);
+        }
+        logger.info("Offer store loaded with {} offers in {} bytes", size(), capacityBytes());
+    }
+
+    /**
+     * @return Whether the store is enabled and loaded, its reads are then complete.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * This method will store an offer as saved in the database, replacing the stored copy,
+     * once the current transaction commits.
+     *
+     * @param offer The offer, with its id.
+     */
+    public void put(Offer offer) {
+        if (offer == null || offer.getId() == null || !offerProperties.getStore().isEnabled())
+            return;
+
+        afterCommit(() -> store(offer));
+    }
+
+    /**
+     * This method will copy the status, expiry date and version of offers cancelled or expired by a bulk update.
+     * They are read from the database right away, within the current transaction so its own updates are seen,
+     * and stored once it commits. A copy older than the stored one is skipped, so updates committed by concurrent
+     * transactions leave the latest version whatever order they are stored in.
+     *
+     * @param offerIds The offers updated.
+     */
+    public void changed(Collection<Long> offerIds) {
+        if (offerIds.isEmpty() || !offerProperties.getStore().isEnabled())
+            return;
+
+        List<Long> ids = new ArrayList<>(offerIds);
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += READ_BATCH_SIZE)
+            rows.addAll(offerRepository.findVersions(ids.subList(from, Math.min(from + READ_BATCH_SIZE, ids.size()))));
+        afterCommit(() -> update(rows));
+    }
+
+    /**
+     * @param offerId The id of the offer.
+     * @return A copy of the offer, null if the store is not ready or does not hold the offer.
+     */
+    public Offer get(long offerId) {
+        if (!ready)
+            return null;
+
+        return read(() -> {
+            int row = find(offerId);
+            if (row < 0)
+                return null;
+
+            Offer offer = new Offer();
+            offer.setId(offerId);
+            offer.setPrice(price(row));
+            offer.setCurrency(currency(row));
+            offer.setExpiryDate(fromMicros(expiry(row)));
+            offer.setName(dictionary.decode(intAt(row, NAME)));
+            offer.setDescription(dictionary.decode(intAt(row, DESCRIPTION)));
+            offer.setStatus(status(row));
+            offer.setVersion(version(row));
+            return offer;
+        });
+    }
+
+    /**
+     * The offers after the given id, in id order, that match the filters, as read by
+     * {@link OfferRepository#findOffersPage}. A page stops the scan as soon as it is full, and is far smaller
+     * than the parallel threshold, so it is always scanned on the calling thread.
+     *
+     * @param limit The maximum number of offers returned.
+     */
+    public List<OfferView> page(long afterId, Collection<Status> statuses, LocalDateTime expiresAfter,
+                                LocalDateTime expiresBefore, LocalDateTime now, int limit) {
+        int statusMask = 0;
+        for (Status status : statuses)
+            statusMask |= 1 << status.ordinal();
+        int mask = statusMask;
+        long afterMicros = toMicros(expiresAfter);
+        long beforeMicros = toMicros(expiresBefore);
+        long nowMicros = toMicros(now);
+
+        return read(() -> page(after(afterId), size, mask, afterMicros, beforeMicros, nowMicros, limit));
+    }
+
+    private List<OfferView> page(int from, int to, int statusMask, long afterMicros, long beforeMicros, long nowMicros,
+                                 int limit) {
+        List<OfferView> offers = new ArrayList<>(Math.min(limit, 1024));
+        for (int row = from; row < to && offers.size() < limit; row++) {
+            long expiry = expiry(row);
+            if ((statusMask & (1 << byteAt(row, STATUS))) != 0 && expiry > afterMicros && expiry <= beforeMicros)
+                offers.add(view(row, nowMicros));
+        }
+        return offers;
+    }
+
+    /**
+     * The offers whose description matches a case insensitive like pattern, in id order,
+     * as read by {@link OfferRepository#findOffersByDescription}. Every offer is scanned, in parallel chunks
+     * when there are at least as many offers as the parallel threshold.
+     */
+    public List<OfferView> search(String pattern, LocalDateTime now) {
+        String key = Offer.searchKey(pattern);
+        long nowMicros = toMicros(now);
+
+        return read(() -> {
+            if (!parallelChunks.isParallel(size))
+                return search(key, 0, size, nowMicros);
+            return ParallelChunks.concat(parallelChunks.map(0, size, (from, to) -> search(key, from, to, nowMicros)));
+        });
+    }
+
+    private List<OfferView> search(String key, int from, int to, long nowMicros) {
+        List<OfferView> offers = new ArrayList<>();
+        for (int row = from; row < to; row++) {
+            if (matches(row, key))
+                offers.add(view(row, nowMicros));
+        }
+        return offers;
+    }
+
+    /**
+     * The offers among the given ones whose description matches a case insensitive like pattern, in id order,
+     * as read by {@link OfferRepository#findOffersByIdsAndDescription}.
+     *
+     * @param ids The ids of the offers, in increasing order.
+     */
+    public List<OfferView> search(String pattern, long[] ids, LocalDateTime now) {
+        String key = Offer.searchKey(pattern);
+        long nowMicros = toMicros(now);
+
+        return read(() -> {
+            List<OfferView> offers = new ArrayList<>();
+            for (long id : ids) {
+                int row = find(id);
+                if (row >= 0 && matches(row, key))
+                    offers.add(view(row, nowMicros));
+            }
+            return offers;
+        });
+    }
+
+    /**
+     * @return The number of offers stored.
+     */
+    public int size() {
+        return read(() -> size);
+    }
+
+    /**
+     * @return The off-heap memory held by the store.
+     */
+    public long capacityBytes() {
+        return read(() -> (long) segments.size() * segmentSize * ROW_BYTES
+                + dictionary.capacityBytes());
+    }
+
+    /**
+     * Like with the % and _ wildcards and the \ escape character.
+     */
+    static boolean like(char[] text, int length, String pattern) {
+        int t = 0;
+        int p = 0;
+        // where to resume after the last % when the rest of the pattern does not match
+        int wildcard = -1;
+        int wildcardText = 0;
+        while (t < length) {
+            if (p < pattern.length()) {
+                char c = pattern.charAt(p);
+                if (c == '%') {
+                    wildcard = ++p;
+                    wildcardText = t;
+                    continue;
+                }
+                if (c == '\\' && p + 1 < pattern.length()) {
+                    if (pattern.charAt(p + 1) == text[t]) {
+                        p += 2;
+                        t++;
+                        continue;
+                    }
+                } else if (c == '_' || c == text[t]) {
+                    p++;
+                    t++;
+                    continue;
+                }
+            }
+            if (wildcard < 0)
+                return false;
+            p = wildcard;
+            t = ++wildcardText;
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '%')
+            p++;
+        return p == pattern.length();
+    }
+
+    /**
+     * Whether the description key of the row matches the like pattern, decoded into a buffer kept per thread.
+     */
+    private boolean matches(int row, String key) {
+        int code = intAt(row, DESCRIPTION_KEY);
+        char[] chars = SEARCH_BUFFER.get();
+        if (chars.length < dictionary.length(code)) {
+            chars = new char[dictionary.length(code)];
+            SEARCH_BUFFER.set(chars);
+        }
+        return like(chars, dictionary.chars(code, chars), key);
+    }
+
+    private OfferView view(int row, long nowMicros) {
+        Status status = status(row);
+        long expiry = expiry(row);
+        return new OfferView(longAt(row, ID), longAt(row, PRICE), currency(row).getCurrencyCode(),
+                Math.floorDiv(expiry, 1_000L), dictionary.decode(intAt(row, NAME)),
+                dictionary.decode(intAt(row, DESCRIPTION)),
+                status == Status.ACTIVE && expiry <= nowMicros ? Status.EXPIRED : status, version(row));
+    }
+
+    private void update(List<Object[]> rows) {
+        write(() -> {
+            for (Object[] columns : rows) {
+                Long id = (Long) columns[0];
+                long version = (Long) columns[3];
+                int row = find(id);
+                if (row >= 0) {
+                    if (version(row) < version) {
+                        status(row, (Status) columns[1]);
+                        segment(row).putLong(position(row, EXPIRY, Long.BYTES), toMicros((LocalDateTime) columns[2]));
+                        segment(row).putLong(position(row, VERSION, Long.BYTES), version);
+                    }
+                } else if (missed != null) {
+                    missed.add(id);
+                }
+            }
+        });
+    }
+
+    private void store(Offer offer) {
+        write(() -> {
+            int row = find(offer.getId());
+            if (row < 0) {
+                insert(offer.getId(), offer.getPrice(), offer.getCurrency(), offer.getExpiryDate(), offer.getName(),
+                        offer.getDescription(), offer.getStatus(), offer.getVersion());
+            } else {
+                set(row, offer.getId(), offer.getPrice(), offer.getCurrency(), offer.getExpiryDate(), offer.getName(),
+                        offer.getDescription(), offer.getStatus(), offer.getVersion());
+            }
+        });
+    }
+
+    /**
+     * Insert a row in id order, the rows after it are moved up by one.
+     */
+    private void insert(Long id, BigDecimal price, Currency currency, LocalDateTime expiryDate, String name,
+                        String description, Status status, long version) {
+        // fails before any row is moved when the price does not fit
+        MinorUnits.of(price);
+        if (segments.isEmpty())
+            segmentSize = offerProperties.getStore().getSegmentSize();
+        if (size == segments.size() * segmentSize)
+            segments.add(ByteBuffer.allocateDirect(segmentSize * ROW_BYTES));
+
+        int row = after(id);
+        for (int moved = size; moved > row; moved--)
+            copy(moved - 1, moved);
+        size++;
+        set(row, id, price, currency, expiryDate, name, description, status, version);
+    }
+
+    private void set(int row, Long id, BigDecimal price, Currency currency, LocalDateTime expiryDate, String name,
+                     String description, Status status, long version) {
+        ByteBuffer segment = segment(row);
+        segment.putLong(position(row, ID, Long.BYTES), id);
+        rows.put(id, row);
+        segment.putLong(position(row, PRICE, Long.BYTES), MinorUnits.of(price));
+        segment.putLong(position(row, EXPIRY, Long.BYTES), toMicros(expiryDate));
+        segment.putLong(position(row, VERSION, Long.BYTES), version);
+        segment.putInt(position(row, NAME, Integer.BYTES), dictionary.encode(name));
+        segment.putInt(position(row, DESCRIPTION, Integer.BYTES), dictionary.encode(description));
+        segment.putInt(position(row, DESCRIPTION_KEY, Integer.BYTES), dictionary.encode(Offer.searchKey(description)));
+        segment.putShort(position(row, CURRENCY, Short.BYTES), currencyCode(currency));
+        status(row, status);
+    }
+
+    private void copy(int from, int to) {
+        ByteBuffer source = segment(from);
+        ByteBuffer target = segment(to);
+        for (int column : LONG_COLUMNS)
+            target.putLong(position(to, column, Long.BYTES), source.getLong(position(from, column, Long.BYTES)));
+        for (int column : INT_COLUMNS)
+            target.putInt(position(to, column, Integer.BYTES), source.getInt(position(from, column, Integer.BYTES)));
+        target.putShort(position(to, CURRENCY, Short.BYTES), source.getShort(position(from, CURRENCY, Short.BYTES)));
+        target.put(position(to, STATUS, 1), source.get(position(from, STATUS, 1)));
+        rows.put(longAt(to, ID), to);
+    }
+
+    /**
+     * @return The row of the offer, or -1.
+     */
+    private int find(long id) {
+        return (int) rows.get(id);
+    }
+
+    /**
+     * @return The first row with an id greater than the given id, by binary search on the id column.
+     * Pages start there, offers are found by id through the rows map.
+     */
+    private int after(long id) {
+        int low = 0;
+        int high = size;
+        // rows are mostly appended
+        if (size == 0 || longAt(size - 1, ID) <= id)
+            return size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (longAt(middle, ID) <= id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private ByteBuffer segment(int row) {
+        return segments.get(row / segmentSize);
+    }
+
+    /**
+     * The position of a row in the column starting at the given row offset: each column of a segment holds
+     * segment-size values of its width, after the columns before it.
+     */
+    private int position(int row, int column, int width) {
+        return column * segmentSize + (row % segmentSize) * width;
+    }
+
+    private long longAt(int row, int column) {
+        return segment(row).getLong(position(row, column, Long.BYTES));
+    }
+
+    private int intAt(int row, int column) {
+        return segment(row).getInt(position(row, column, Integer.BYTES));
+    }
+
+    private byte byteAt(int row, int column) {
+        return segment(row).get(position(row, column, 1));
+    }
+
+    private BigDecimal price(int row) {
+        return MinorUnits.toPrice(longAt(row, PRICE));
+    }
+
+    private long expiry(int row) {
+        return longAt(row, EXPIRY);
+    }
+
+    private long version(int row) {
+        return longAt(row, VERSION);
+    }
+
+    private Status status(int row) {
+        return STATUSES[byteAt(row, STATUS)];
+    }
+
+    private void status(int row, Status status) {
+        segment(row).put(position(row, STATUS, 1), (byte) status.ordinal());
+    }
+
+    private Currency currency(int row) {
+        return currencies.get(segment(row).getShort(position(row, CURRENCY, Short.BYTES)));
+    }
+
+    private short currencyCode(Currency currency) {
+        return currencyCodes.computeIfAbsent(currency, c -> {
+            currencies.add(c);
+            return (short) (currencies.size() - 1);
+        });
+    }
+
+    /**
+     * Microseconds since the epoch of a local date time, rounded half up to the precision of the expiry date column
+     * as the database does.
+     */
+    static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + (dateTime.getNano() + 500) / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private <T> T read(Supplier<T> work) {
+        lock.readLock().lock();
+        try {
+            return work.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> work) {
+        lock.writeLock().lock();
+        try {
+            return work.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(Runnable work) {
+        write(() -> {
+            work.run();
+            return null;
+        });
+    }
+}
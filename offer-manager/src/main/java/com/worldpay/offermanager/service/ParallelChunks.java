@@ -0,0 +1,140 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes large lists of offers, of at least offer.parallel.threshold offers, in chunks of offer.parallel.chunk-size
+ * on a dedicated fork-join pool of offer.parallel.threads threads. Only a description search reaches the threshold:
+ * it scans the whole offer store and its unpaged result is written as one list, where a page of the listing holds
+ * at most offer.listing.max-page-size offers and is always processed on the request thread. The pool is shared by every request and is not
+ * the common pool, so parallel work can neither take more threads than configured nor hold up the request threads
+ * or other users of the common pool. The calling thread waits for the chunks, their results come back in order.
+ * A single thread would only add the cost of splitting and joining the chunks, so there is no pool then.
+ */
+@Component
+public class ParallelChunks {
+
+    /**
+     * The work on the offers from index from, inclusive, to index to, exclusive.
+     */
+    @FunctionalInterface
+    public interface Chunk<R> {
+        R apply(int from, int to);
+    }
+
+    // null when disabled or with a single thread
+    private final ForkJoinPool pool;
+
+    private final int threshold;
+    private final int chunkSize;
+
+    @Autowired
+    public ParallelChunks(OfferProperties offerProperties, MeterRegistry meterRegistry) {
+        OfferProperties.Parallel parallel = offerProperties.getParallel();
+        threshold = parallel.getThreshold();
+        chunkSize = parallel.getChunkSize();
+        int threads = parallel.getThreads();
+        if (!parallel.isEnabled() || threads < 2) {
+            pool = null;
+        } else {
+            AtomicInteger count = new AtomicInteger();
+            pool = new ForkJoinPool(threads, forkJoinPool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("offer-parallel-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+            new ExecutorServiceMetrics(pool, "offer.parallel", Collections.emptyList()).bindTo(meterRegistry);
+        }
+    }
+
+    /**
+     * @return Whether a list of the given size is processed in parallel.
+     */
+    public boolean isParallel(int size) {
+        return pool != null && size >= threshold;
+    }
+
+    /**
+     * This method will split the offers from index from to index to into chunks and run the work on each chunk
+     * on the pool, or on the calling thread when parallel processing is disabled.
+     *
+     * @return The result of each chunk, in the order of the chunks.
+     */
+    public <R> List<R> map(int from, int to, Chunk<R> chunk) {
+        if (pool == null || to - from <= chunkSize)
+            return Collections.singletonList(chunk.apply(from, to));
+
+        return pool.invoke(new ChunkTask<>(from, to, chunkSize, chunk));
+    }
+
+    /**
+     * @return The results of the chunks as one list, in order.
+     */
+    public static <T> List<T> concat(List<List<T>> chunks) {
+        if (chunks.size() == 1)
+            return chunks.get(0);
+
+        int size = 0;
+        for (List<T> chunk : chunks)
+            size += chunk.size();
+        List<T> all = new ArrayList<>(size);
+        for (List<T> chunk : chunks)
+            all.addAll(chunk);
+        return all;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null)
+            pool.shutdown();
+    }
+
+    /**
+     * Splits its range in two until it is no larger than a chunk, one half is forked and the other run on the
+     * current thread.
+     */
+    private static final class ChunkTask<R> extends RecursiveTask<List<R>> {
+
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final Chunk<R> chunk;
+
+        private ChunkTask(int from, int to, int chunkSize, Chunk<R> chunk) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected List<R> compute() {
+            if (to - from <= chunkSize)
+                return Collections.singletonList(chunk.apply(from, to));
+
+            // splits on a chunk boundary so every chunk but the last is full
+            int chunks = (to - from + chunkSize - 1) / chunkSize;
+            int middle = from + chunks / 2 * chunkSize;
+            ChunkTask<R> left = new ChunkTask<>(from, middle, chunkSize, chunk);
+            left.fork();
+            List<R> right = new ChunkTask<>(middle, to, chunkSize, chunk).compute();
+            List<R> results = new ArrayList<>(left.join());
+            results.addAll(right);
+            return results;
+        }
+    }
+}
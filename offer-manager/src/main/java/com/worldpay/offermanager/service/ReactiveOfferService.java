@@ -0,0 +1,69 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.exception.OfferNotFoundException;
+import com.worldpay.offermanager.exception.ValidationException;
+import com.worldpay.offermanager.model.BulkCancelRequest;
+import com.worldpay.offermanager.model.BulkCancelResult;
+import com.worldpay.offermanager.model.BulkOfferResult;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferPage;
+import com.worldpay.offermanager.model.OfferQuery;
+import com.worldpay.offermanager.model.OfferView;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The operations of {@link OfferService} as Reactor publishers. Nothing is read or written until a publisher
+ * is subscribed to, and errors are signalled to the subscriber instead of being thrown.
+ */
+public interface ReactiveOfferService {
+
+    /**
+     * @param offerId The id of the offer.
+     * @return The offer, or an {@link OfferNotFoundException} error if it does not exist.
+     */
+    Mono<Offer> getOfferById(Long offerId);
+
+    /**
+     * @param offer The offer to persist.
+     * @return The saved offer, or a {@link ValidationException} error if any of the parameter constraints is violated.
+     */
+    Mono<Offer> addOffer(Offer offer);
+
+    /**
+     * @param offers The offers to persist.
+     * @return The outcome of each offer, in the order of the list.
+     */
+    Flux<BulkOfferResult> addOffers(List<Offer> offers);
+
+    /**
+     * @param offerId The offer to cancel.
+     * @return The cancelled offer, or the error of {@link OfferService#cancelOffer(Long)}.
+     */
+    Mono<Offer> cancelOffer(Long offerId);
+
+    /**
+     * @param request The ids of the offers, or the description and expiry filter of the offers.
+     * @return The outcome for each offer, in the order of the ids.
+     */
+    Flux<BulkCancelResult> cancelOffers(BulkCancelRequest request);
+
+    Flux<OfferView> getOfferByDescription(String description);
+
+    /**
+     * @param query The status and expiry filters, the cursor of the page and its size.
+     * @return One page of offers in id order and the cursor of the next page.
+     */
+    Mono<OfferPage> getOffers(OfferQuery query);
+
+    /**
+     * This method will stream every offer matching the query in id order, starting at its cursor.
+     * Pages are read from the database one at a time as the subscriber requests more offers.
+     *
+     * @param query The status and expiry filters and the cursor to start from, the limit is ignored.
+     * @return The offers matching the query.
+     */
+    Flux<OfferView> streamOffers(OfferQuery query);
+}
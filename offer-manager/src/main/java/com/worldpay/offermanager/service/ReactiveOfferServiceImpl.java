@@ -0,0 +1,110 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.model.BulkCancelRequest;
+import com.worldpay.offermanager.model.BulkCancelResult;
+import com.worldpay.offermanager.model.BulkOfferResult;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferPage;
+import com.worldpay.offermanager.model.OfferQuery;
+import com.worldpay.offermanager.model.OfferView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Reactive offer service over the blocking {@link OfferService}.
+ * JDBC has no non-blocking driver in this stack, so every call runs on a scheduler of offer.reactive.threads
+ * threads sized to the connection pool: no more calls wait on the database than there are connections, and
+ * the threads of the subscribers are never blocked.
+ */
+@Service
+@ConditionalOnProperty(prefix = "offer.reactive", name = "enabled", havingValue = "true")
+public class ReactiveOfferServiceImpl implements ReactiveOfferService {
+
+    private final OfferService offerService;
+
+    private final OfferProperties offerProperties;
+
+    private final Scheduler scheduler;
+
+    @Autowired
+    public ReactiveOfferServiceImpl(OfferService offerService, OfferProperties offerProperties) {
+        this.offerService = offerService;
+        this.offerProperties = offerProperties;
+        this.scheduler = Schedulers.newParallel("offer-reactive", offerProperties.getReactive().getThreads(), true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+
+    @Override
+    public Mono<Offer> getOfferById(Long offerId) {
+        return call(() -> offerService.getOfferById(offerId));
+    }
+
+    @Override
+    public Mono<Offer> addOffer(Offer offer) {
+        return call(() -> offerService.addOffer(offer));
+    }
+
+    @Override
+    public Flux<BulkOfferResult> addOffers(List<Offer> offers) {
+        return call(() -> offerService.addOffers(offers)).flatMapIterable(results -> results);
+    }
+
+    @Override
+    public Mono<Offer> cancelOffer(Long offerId) {
+        return call(() -> offerService.cancelOffer(offerId));
+    }
+
+    @Override
+    public Flux<BulkCancelResult> cancelOffers(BulkCancelRequest request) {
+        return call(() -> offerService.cancelOffers(request)).flatMapIterable(results -> results);
+    }
+
+    @Override
+    public Flux<OfferView> getOfferByDescription(String description) {
+        return call(() -> offerService.getOfferByDescription(description)).flatMapIterable(offers -> offers);
+    }
+
+    @Override
+    public Mono<OfferPage> getOffers(OfferQuery query) {
+        return call(() -> offerService.getOffers(query));
+    }
+
+    /**
+     * Pages of the largest size are read with the cursor of the previous page. At most one page is read ahead
+     * of the offers requested by the subscriber.
+     */
+    @Override
+    public Flux<OfferView> streamOffers(OfferQuery query) {
+        return getOffers(page(query, query.getCursor()))
+                .expand(page -> page.getNextCursor() == null ? Mono.empty() : getOffers(page(query, page.getNextCursor())))
+                .concatMapIterable(OfferPage::getOffers, 1);
+    }
+
+    private OfferQuery page(OfferQuery query, String cursor) {
+        OfferQuery page = new OfferQuery();
+        page.setStatus(query.getStatus());
+        page.setExpiresAfter(query.getExpiresAfter());
+        page.setExpiresBefore(query.getExpiresBefore());
+        page.setCursor(cursor);
+        page.setLimit(offerProperties.getListing().getMaxPageSize());
+        return page;
+    }
+
+    private <T> Mono<T> call(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(scheduler);
+    }
+}
@@ -1,16 +1,25 @@
 package com.worldpay.offermanager.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worldpay.offermanager.controller.ActiveRequestsFilter;
+import com.worldpay.offermanager.controller.CompressionInterceptor;
 import com.worldpay.offermanager.controller.OfferEndPoint;
+import com.worldpay.offermanager.controller.OfferListWriter;
+import com.worldpay.offermanager.controller.ReactiveOfferEndPoint;
+import com.worldpay.offermanager.controller.RequestLogFilter;
+import com.worldpay.offermanager.controller.SmileProvider;
 import com.worldpay.offermanager.exception.GenericExceptionMapper;
 import com.worldpay.offermanager.exception.OfferNotFoundExceptionMapper;
 import com.worldpay.offermanager.exception.ValidationExceptionMapper;
-import org.junit.Before;
+import com.worldpay.offermanager.service.ParallelChunks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.Collections;
 import java.util.Set;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -23,21 +32,52 @@ public class JerseyConfigTest {
 	@Rule
 	public ExpectedException thrown = ExpectedException.none();
 	
-	private JerseyConfig jerseyConfig = new JerseyConfig();
-	
-	@Before
-	public void setUp() {
-	}
+	private OfferProperties offerProperties = new OfferProperties();
+
+	private SmileProvider smileProvider = new SmileProvider(Collections.emptyList());
+
+	private OfferListWriter offerListWriter = new OfferListWriter(new ObjectMapper(),
+			new ParallelChunks(offerProperties, new SimpleMeterRegistry()));
 
 	@Test
 	public void createJerseyConfigWithValidArgumentsShouldReturnRegisteredClasses() {
-		Set<Class<?>> result = jerseyConfig.getClasses();
+		Set<Class<?>> result = jerseyConfig().getClasses();
 		assertThat(result, notNullValue());
-		assertThat(result.size(), equalTo(4));
+		assertThat(result.size(), equalTo(7));
 		assertThat(result.contains(OfferEndPoint.class), equalTo(true));
 		assertThat(result.contains(OfferNotFoundExceptionMapper.class), equalTo(true));
 		assertThat(result.contains(ValidationExceptionMapper.class), equalTo(true));
 		assertThat(result.contains(GenericExceptionMapper.class), equalTo(true));
+		assertThat(result.contains(ActiveRequestsFilter.class), equalTo(true));
+		assertThat(result.contains(CompressionInterceptor.class), equalTo(true));
+		assertThat(result.contains(RequestLogFilter.class), equalTo(true));
+	}
+
+	@Test
+	public void createJerseyConfigWhenReactiveEnabledShouldRegisterReactiveEndPoint() {
+		assertThat(jerseyConfig().getClasses().contains(ReactiveOfferEndPoint.class), equalTo(false));
+
+		offerProperties.getReactive().setEnabled(true);
+		Set<Class<?>> result = jerseyConfig().getClasses();
+		assertThat(result.size(), equalTo(8));
+		assertThat(result.contains(ReactiveOfferEndPoint.class), equalTo(true));
+	}
+
+	@Test
+	public void createJerseyConfigWithSmileProviderShouldRegisterItsInstance() {
+		JerseyConfig result = jerseyConfig();
+		assertThat(result.getClasses().size(), equalTo(7));
+		assertThat(result.getInstances().contains(smileProvider), equalTo(true));
+	}
+
+	@Test
+	public void createJerseyConfigWithOfferListWriterShouldRegisterItsInstance() {
+		JerseyConfig result = jerseyConfig();
+		assertThat(result.getInstances().contains(offerListWriter), equalTo(true));
+	}
+
+	private JerseyConfig jerseyConfig() {
+		return new JerseyConfig(offerProperties, smileProvider, offerListWriter);
 	}
 
 }
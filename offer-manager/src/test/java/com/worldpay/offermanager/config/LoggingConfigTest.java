@@ -0,0 +1,58 @@
+package com.worldpay.offermanager.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LoggingConfigTest {
+
+    private LoggerContext context;
+
+    private ListAppender<ILoggingEvent> events;
+
+    @Before
+    public void setUp() {
+        context = new LoggerContext();
+        events = new ListAppender<>();
+        events.setContext(context);
+        events.setName("LIST");
+        events.start();
+        context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).addAppender(events);
+    }
+
+    @After
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Test
+    public void makeAsync_thenRootAppendersFedThroughQueue() throws InterruptedException {
+        LoggingConfig.makeAsync(context, 16);
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        assertThat(root.getAppender("LIST"), nullValue());
+        assertThat(root.getAppender(LoggingConfig.ASYNC_PREFIX + "LIST"), instanceOf(AsyncAppender.class));
+
+        context.getLogger(LoggingConfigTest.class).warn("queued");
+        for (int i = 0; i < 100 && events.list.isEmpty(); i++)
+            Thread.sleep(10);
+        assertThat(events.list.get(0).getFormattedMessage(), equalTo("queued"));
+    }
+
+    @Test
+    public void makeAsync_whenAlreadyAsync_thenUnchanged() {
+        LoggingConfig.makeAsync(context, 16);
+        LoggingConfig.makeAsync(context, 16);
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        assertThat(root.getAppender(LoggingConfig.ASYNC_PREFIX + LoggingConfig.ASYNC_PREFIX + "LIST"), nullValue());
+    }
+}
@@ -0,0 +1,95 @@
+package com.worldpay.offermanager.config;
+
+import org.junit.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class OfferPropertiesTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ValidationAutoConfiguration.class))
+            .withUserConfiguration(PropertiesConfiguration.class);
+
+    @Test
+    public void bind_whenValid_thenStart() {
+        contextRunner.withPropertyValues("offer.listing.max-page-size=1000", "offer.cache.time-to-live=10m")
+                .run(context -> {
+                    assertThat(context.getStartupFailure(), nullValue());
+                    OfferProperties offerProperties = context.getBean(OfferProperties.class);
+                    assertThat(offerProperties.getListing().getMaxPageSize(), equalTo(1000));
+                    assertThat(offerProperties.getCache().getTimeToLive().toMinutes(), equalTo(10l));
+                });
+    }
+
+    @Test
+    public void bind_thenPropertiesNotProxied() {
+        contextRunner.run(context -> assertThat(AopUtils.isAopProxy(context.getBean(OfferProperties.class)), equalTo(false)));
+    }
+
+    @Test
+    public void bind_whenSizeNotPositive_thenFailStartup() {
+        contextRunner.withPropertyValues("offer.listing.max-page-size=0")
+                .run(context -> {
+                    assertThat(context.getStartupFailure(), notNullValue());
+                    assertThat(rootCauseMessage(context.getStartupFailure()), containsString("listing.maxPageSize"));
+                });
+    }
+
+    @Test
+    public void bind_whenCronEmpty_thenFailStartup() {
+        contextRunner.withPropertyValues("offer.expiry.sweep-cron=")
+                .run(context -> {
+                    assertThat(context.getStartupFailure(), notNullValue());
+                    assertThat(rootCauseMessage(context.getStartupFailure()), containsString("expiry.sweepCron"));
+                });
+    }
+
+    @Test
+    public void bind_whenEndpointSampleRates_thenBoundPerEndpoint() {
+        contextRunner.withPropertyValues("offer.logging.endpoint-sample-rates.getOfferById=0.5")
+                .run(context -> {
+                    assertThat(context.getStartupFailure(), nullValue());
+                    OfferProperties offerProperties = context.getBean(OfferProperties.class);
+                    assertThat(offerProperties.getLogging().getEndpointSampleRates().values().iterator().next(), equalTo(0.5));
+                });
+    }
+
+    @Test
+    public void bind_whenSampleRateAboveOne_thenFailStartup() {
+        contextRunner.withPropertyValues("offer.logging.endpoint-sample-rates.getOfferById=2")
+                .run(context -> {
+                    assertThat(context.getStartupFailure(), notNullValue());
+                    assertThat(rootCauseMessage(context.getStartupFailure()), containsString("logging.endpointSampleRates"));
+                });
+    }
+
+    @Test
+    public void bind_whenPublishIntervalBelowOneMillisecond_thenFailStartup() {
+        contextRunner.withPropertyValues("offer.events.publish-interval=0")
+                .run(context -> assertThat(rootCauseMessage(context.getStartupFailure()), containsString("events.publishInterval")));
+        contextRunner.withPropertyValues("offer.events.publish-interval=PT0.0005S")
+                .run(context -> assertThat(rootCauseMessage(context.getStartupFailure()), containsString("events.publishInterval")));
+    }
+
+    private static String rootCauseMessage(Throwable failure) {
+        StringBuilder messages = new StringBuilder();
+        for (Throwable cause = failure; cause != null; cause = cause.getCause())
+            messages.append(cause.getMessage()).append('\n');
+        return messages.toString();
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(OfferProperties.class)
+    static class PropertiesConfiguration {
+    }
+}
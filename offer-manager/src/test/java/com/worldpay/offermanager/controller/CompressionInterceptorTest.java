@@ -0,0 +1,140 @@
+package com.worldpay.offermanager.controller;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CompressionInterceptorTest {
+
+    @Spy
+    private OfferProperties offerProperties = new OfferProperties();
+
+    @Mock
+    private HttpHeaders requestHeaders;
+
+    @InjectMocks
+    private CompressionInterceptor compressionInterceptor;
+
+    @Test
+    public void negotiate_thenPrefersGzipUnlessRanked() {
+        assertThat(CompressionInterceptor.negotiate("gzip, deflate, br"), equalTo("gzip"));
+        assertThat(CompressionInterceptor.negotiate("deflate"), equalTo("deflate"));
+        assertThat(CompressionInterceptor.negotiate("gzip;q=0.5, deflate"), equalTo("deflate"));
+        assertThat(CompressionInterceptor.negotiate("*"), equalTo("gzip"));
+        assertThat(CompressionInterceptor.negotiate("*, gzip;q=0"), equalTo("deflate"));
+        assertThat(CompressionInterceptor.negotiate("gzip;q=0, deflate;q=0"), nullValue());
+        assertThat(CompressionInterceptor.negotiate("identity, br"), nullValue());
+        assertThat(CompressionInterceptor.negotiate(null), nullValue());
+    }
+
+    @Test
+    public void aroundWriteTo_whenBodyBelowThreshold_thenWrittenAsItIs() throws IOException {
+        given(requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING)).willReturn("gzip");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MultivaluedMap<String, Object> headers = write(body(100), out);
+
+        assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING), nullValue());
+        assertThat(headers.getFirst(HttpHeaders.VARY), equalTo(HttpHeaders.ACCEPT_ENCODING));
+        assertThat(out.toByteArray(), equalTo(body(100)));
+    }
+
+    @Test
+    public void aroundWriteTo_whenBodyAboveThreshold_thenGzipped() throws IOException {
+        given(requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING)).willReturn("gzip, deflate");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MultivaluedMap<String, Object> headers = write(body(100000), out);
+
+        assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING), equalTo("gzip"));
+        assertThat(out.size() < 100000, equalTo(true));
+        assertThat(read(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))), equalTo(body(100000)));
+    }
+
+    @Test
+    public void aroundWriteTo_whenDeflateAccepted_thenDeflated() throws IOException {
+        given(requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING)).willReturn("deflate");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MultivaluedMap<String, Object> headers = write(body(100000), out);
+
+        assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING), equalTo("deflate"));
+        assertThat(read(new InflaterInputStream(new ByteArrayInputStream(out.toByteArray()))), equalTo(body(100000)));
+    }
+
+    @Test
+    public void aroundWriteTo_whenNoAcceptEncoding_thenWrittenAsItIs() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MultivaluedMap<String, Object> headers = write(body(100000), out);
+
+        assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING), nullValue());
+        assertThat(out.toByteArray(), equalTo(body(100000)));
+    }
+
+    @Test
+    public void aroundWriteTo_whenDisabled_thenWrittenAsItIs() throws IOException {
+        offerProperties.getCompression().setEnabled(false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MultivaluedMap<String, Object> headers = write(body(100000), out);
+
+        assertThat(headers.containsKey(HttpHeaders.VARY), equalTo(false));
+        assertThat(out.toByteArray(), equalTo(body(100000)));
+    }
+
+    /**
+     * Runs the interceptor with a writer that writes the body in chunks and closes the stream, as Jersey does.
+     */
+    private MultivaluedMap<String, Object> write(byte[] body, ByteArrayOutputStream out) throws IOException {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        OutputStream[] stream = {out};
+        WriterInterceptorContext context = Mockito.mock(WriterInterceptorContext.class);
+        given(context.getHeaders()).willReturn(headers);
+        given(context.getOutputStream()).willAnswer(invocation -> stream[0]);
+        Mockito.doAnswer(invocation -> stream[0] = invocation.getArgument(0)).when(context).setOutputStream(Mockito.any());
+        Mockito.doAnswer(invocation -> {
+            for (int offset = 0; offset < body.length; offset += 1000)
+                stream[0].write(body, offset, Math.min(1000, body.length - offset));
+            stream[0].close();
+            return null;
+        }).when(context).proceed();
+
+        compressionInterceptor.aroundWriteTo(context);
+        return headers;
+    }
+
+    private static byte[] body(int size) {
+        byte[] body = new byte[size];
+        Arrays.fill(body, (byte) 'a');
+        return body;
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = in.read(chunk)) > 0)
+            out.write(chunk, 0, read);
+        return out.toByteArray();
+    }
+}
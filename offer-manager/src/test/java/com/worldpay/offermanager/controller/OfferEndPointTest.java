@@ -1,32 +1,63 @@
 package com.worldpay.offermanager.controller;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.worldpay.offermanager.config.OfferProperties;
 import com.worldpay.offermanager.exception.OfferNotFoundException;
 import com.worldpay.offermanager.exception.ValidationException;
+import com.worldpay.offermanager.model.BulkCancelRequest;
+import com.worldpay.offermanager.model.BulkCancelResult;
+import com.worldpay.offermanager.model.BulkOfferResult;
+import com.worldpay.offermanager.model.CacheStatistics;
 import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferPage;
+import com.worldpay.offermanager.model.OfferQuery;
+import com.worldpay.offermanager.model.OfferView;
+import com.worldpay.offermanager.model.Status;
+import com.worldpay.offermanager.service.OfferCache;
 import com.worldpay.offermanager.service.OfferService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -37,6 +68,27 @@ public class OfferEndPointTest  {
     @Mock
     private OfferService offerService;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private OfferCache offerCache;
+
+    @Spy
+    private RequestExecutor requestExecutor = new RequestExecutor(new OfferProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private ResponseCaching responseCaching = new ResponseCaching(new OfferProperties());
+
+    @Mock
+    private Request request;
+
+    @Spy
+    private OfferProperties offerProperties = new OfferProperties();
+
+    @Spy
+    private SmileProvider smileProvider = new SmileProvider(Collections.emptyList());
+
     @InjectMocks
     private OfferEndPoint offerEndPoint;
 
@@ -62,41 +114,85 @@ public class OfferEndPointTest  {
 
     @Test
     public void listAllOffers_ShouldReturnAllOffers() {
-        given(offerService.getOffers()).willReturn(offers);
-        List<Offer> result = offerEndPoint.getAllOffer(null);
+        OfferQuery query = new OfferQuery();
+        given(offerService.getOffers(query)).willReturn(new OfferPage(views(offers), null));
+        Response result = resumed(response -> offerEndPoint.getAllOffer(query, null, request, response));
         assertThat(result, notNullValue());
-        assertEquals(2,result.size());
-        verify(offerService, times(1)).getOffers();
+        assertEquals(2, getOffers(result).size());
+        assertThat(result.getHeaderString(OfferEndPoint.NEXT_CURSOR_HEADER), nullValue());
+        verify(offerService, times(1)).getOffers(query);
+    }
+
+    @Test
+    public void listAllOffers_whenMorePages_ShouldReturnNextCursor() {
+        OfferQuery query = new OfferQuery();
+        query.setLimit(2);
+        given(offerService.getOffers(query)).willReturn(new OfferPage(views(offers), "next"));
+        Response result = resumed(response -> offerEndPoint.getAllOffer(query, null, request, response));
+        assertEquals(2, getOffers(result).size());
+        assertThat(result.getHeaderString(OfferEndPoint.NEXT_CURSOR_HEADER), equalTo("next"));
     }
 
     @Test
     public void listAllOffer_whenNoOffer_ShouldReturnEmptyList() {
-        given(offerService.getOffers()).willReturn(Collections.emptyList());
-        List<Offer> result = offerEndPoint.getAllOffer(null);
+        OfferQuery query = new OfferQuery();
+        given(offerService.getOffers(query)).willReturn(new OfferPage(Collections.emptyList(), null));
+        Response result = resumed(response -> offerEndPoint.getAllOffer(query, null, request, response));
         assertThat(result, notNullValue());
-        assertEquals(result.size(),0);
-        verify(offerService, times(1)).getOffers();
+        assertEquals(getOffers(result).size(),0);
+        verify(offerService, times(1)).getOffers(query);
     }
 
     @Test
     public void listAllOffers_withDescriptionParameter_ShouldReturnAllMatchingOffers() {
-        given(offerService.getOfferByDescription("one hour offer")).willReturn(matchingOffers);
-        List<Offer> result = offerEndPoint.getAllOffer("one hour offer");
+        given(offerService.getOfferByDescription("one hour offer")).willReturn(views(matchingOffers));
+        Response result = resumed(response -> offerEndPoint.getAllOffer(queryByDescription("one hour offer"), null, request, response));
         assertThat(result, notNullValue());
-        assertEquals(1,result.size());
+        assertEquals(1,getOffers(result).size());
         verify(offerService, times(1)).getOfferByDescription("one hour offer");
     }
 
     @Test
     public void listAllOffer_withDescriptionParameter_WhenNoMatch_ShouldReturnEmptyList() {
         given(offerService.getOfferByDescription("ten hour offer")).willReturn(new ArrayList<>());
-        List<Offer> result = offerEndPoint.getAllOffer("ten hour offer");
-        assertEquals(0,result.size());
+        Response result = resumed(response -> offerEndPoint.getAllOffer(queryByDescription("ten hour offer"), null, request, response));
+        assertEquals(0,getOffers(result).size());
         verify(offerService, times(1)).getOfferByDescription("ten hour offer");
     }
 
 
 
+    @Test
+    public void exportOffers_ShouldWriteJsonArray() throws IOException {
+        OfferQuery query = new OfferQuery();
+        givenExportedOffers(query);
+
+        String result = write(offerEndPoint.exportOffers(query));
+        List<?> exported = objectMapper.readValue(result, List.class);
+        assertEquals(2, exported.size());
+    }
+
+    @Test
+    public void exportOffers_asSmile_ShouldWriteSmileArray() throws IOException {
+        OfferQuery query = new OfferQuery();
+        givenExportedOffers(query);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        offerEndPoint.exportOffersAsSmile(query).write(bytes);
+        List<?> exported = smileProvider.getMapper().readValue(bytes.toByteArray(), List.class);
+        assertEquals(2, exported.size());
+    }
+
+    @Test
+    public void exportOffers_asNdjson_ShouldWriteOneOfferPerLine() throws IOException {
+        OfferQuery query = new OfferQuery();
+        givenExportedOffers(query);
+
+        String[] lines = write(offerEndPoint.exportOffersAsNdjson(query)).split("\n");
+        assertEquals(2, lines.length);
+        assertThat(objectMapper.readValue(lines[1], Map.class).get("name"), equalTo("Two"));
+    }
+
     @Test
     public void addOffer_shouldReturnResponse() {
         Offer newOffer = getOfferObject("Four", "two hour offer", LocalDateTime.now().plusHours(1));
@@ -109,7 +205,7 @@ public class OfferEndPointTest  {
         given(uriBuilder.path("1")).willReturn(uriBuilder);
         given(uriBuilder.build()).willReturn(URI.create("api/offer/list/1"));
 
-        Response result = offerEndPoint.addOffer(offer, uriInfo);
+        Response result = resumed(response -> offerEndPoint.addOffer(offer, uriInfo, response));
         assertThat(result, notNullValue());
         assertThat(result.getStatus(), equalTo(201));
         assertThat(result.getLocation().toString(), equalTo("api/offer/list/1"));
@@ -122,7 +218,7 @@ public class OfferEndPointTest  {
         offer.setDescription(null);
         given(offerService.addOffer(offer)).willThrow(new ValidationException("Offer description can not be empty"));
         UriInfo uriInfo = Mockito.mock(UriInfo.class);
-        offerEndPoint.addOffer(offer, uriInfo);
+        resumed(response -> offerEndPoint.addOffer(offer, uriInfo, response));
     }
 
     @Test(expected = ValidationException.class)
@@ -130,7 +226,7 @@ public class OfferEndPointTest  {
         offer.setExpiryDate(null);
         given(offerService.addOffer(offer)).willThrow(new ValidationException("Expiry date is not valid"));
         UriInfo uriInfo = Mockito.mock(UriInfo.class);
-        offerEndPoint.addOffer(offer, uriInfo);
+        resumed(response -> offerEndPoint.addOffer(offer, uriInfo, response));
     }
 
     @Test(expected = ValidationException.class)
@@ -138,7 +234,7 @@ public class OfferEndPointTest  {
         offer.setCurrency(null);
         given(offerService.addOffer(offer)).willThrow(new ValidationException("Currency value can not be empty"));
         UriInfo uriInfo = Mockito.mock(UriInfo.class);
-        offerEndPoint.addOffer(offer, uriInfo);
+        resumed(response -> offerEndPoint.addOffer(offer, uriInfo, response));
     }
 
     @Test(expected = ValidationException.class)
@@ -146,7 +242,49 @@ public class OfferEndPointTest  {
         offer.setPrice(null);
         given(offerService.addOffer(offer)).willThrow(new ValidationException("Offer price can not be empty"));
         UriInfo uriInfo = Mockito.mock(UriInfo.class);
-        offerEndPoint.addOffer(offer, uriInfo);
+        resumed(response -> offerEndPoint.addOffer(offer, uriInfo, response));
+    }
+
+    @Test
+    public void addOffers_shouldReturnResultPerOffer() {
+        List<BulkOfferResult> results = Collections.singletonList(BulkOfferResult.created(0, 1l));
+        given(offerService.addOffers(offers)).willReturn(results);
+
+        assertThat(resumed(response -> offerEndPoint.addOffers(offers, response)), equalTo(results));
+        verify(offerService, times(1)).addOffers(offers);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void addOffersFromNdjson_whenLineNotAnOffer_shouldPassNull() throws IOException {
+        String body = "{\"name\":\"One\",\"description\":\"One offer\",\"price\":2,\"currency\":\"GBP\","
+                + "\"expiryDate\":\"2099-03-04T20:49:02.231\"}\n\nnot an offer\n";
+        ArgumentCaptor<List<Offer>> captor = ArgumentCaptor.forClass(List.class);
+        given(offerService.addOffers(captor.capture())).willReturn(Collections.emptyList());
+
+        resumed(response -> offerEndPoint.addOffersFromNdjson(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), response));
+
+        List<Offer> parsed = captor.getValue();
+        assertEquals(2, parsed.size());
+        assertThat(parsed.get(0).getName(), equalTo("One"));
+        assertThat(parsed.get(1), nullValue());
+    }
+
+    @Test
+    public void addOffersFromNdjson_whenMoreLinesThanMaxSize_shouldStopReading() {
+        offerProperties.getBulk().setMaxSize(2);
+        InputStream body = new SequenceInputStream(new ByteArrayInputStream("{}\n{}\n{}\n".getBytes(StandardCharsets.UTF_8)),
+                new InputStream() {
+                    @Override
+                    public int read() {
+                        throw new AssertionError("read past the maximum size");
+                    }
+                });
+
+        expectedException.expect(ValidationException.class);
+        expectedException.expectMessage("No more than 2 offers can be added at once");
+        resumed(response -> offerEndPoint.addOffersFromNdjson(body, response));
     }
 
     @Test
@@ -154,36 +292,135 @@ public class OfferEndPointTest  {
         Offer givenOffer = getOfferObject("Four", "two hour offer", LocalDateTime.now().plusHours(1));
         givenOffer.setId(1l);
         given(offerService.cancelOffer(givenOffer.getId())).willReturn(givenOffer);
-        offerEndPoint.cancelOffer(1l);
+        resumed(response -> offerEndPoint.cancelOffer(1l, response));
         verify(offerService, times(1)).cancelOffer(1l);
     }
 
     @Test(expected = ValidationException.class)
     public void cancelOffer_whenOfferHasExpire_shouldThrowException() {
         Mockito.doThrow(new ValidationException("Offer Id should not be null")).when(offerService).cancelOffer(1l);
-        offerEndPoint.cancelOffer(1l);
+        resumed(response -> offerEndPoint.cancelOffer(1l, response));
         verify(offerService, times(1)).cancelOffer(1l);
     }
 
+    @Test
+    public void cancelOffers_shouldReturnOutcomePerOffer() {
+        BulkCancelRequest request = new BulkCancelRequest();
+        request.setIds(Arrays.asList(1l, 2l));
+        given(offerService.cancelOffers(request)).willReturn(Arrays.asList(
+                new BulkCancelResult(1l, BulkCancelResult.Outcome.CANCELLED),
+                new BulkCancelResult(2l, BulkCancelResult.Outcome.NOT_FOUND)));
+        List<BulkCancelResult> results = resumed(response -> offerEndPoint.cancelOffers(request, response));
+        verify(offerService, times(1)).cancelOffers(request);
+        assertThat(results.size(), equalTo(2));
+        assertThat(results.get(1).getOutcome(), equalTo(BulkCancelResult.Outcome.NOT_FOUND));
+    }
 
     @Test
     public void getOfferById_shouldReturnOffer() {
         Offer givenOffer = getOfferObject("Four", "two hour offer", LocalDateTime.now().plusHours(1));
         givenOffer.setId(1l);
         given(offerService.getOfferById(1l)).willReturn(givenOffer);
-        Offer result = offerEndPoint.getOfferById(1l);
+        Response result = resumed(response -> offerEndPoint.getOfferById(1l, null, request, response));
         verify(offerService, times(1)).getOfferById(1l);
-        assertThat(result, notNullValue());
-        assertThat(result.getId(), equalTo(1l));
+        assertThat(result.getStatus(), equalTo(200));
+        assertThat(((Offer) result.getEntity()).getId(), equalTo(1l));
+        assertThat(result.getEntityTag().getValue(), equalTo("1-0-ACTIVE-json"));
+        assertThat(result.getEntityTag().isWeak(), equalTo(true));
+        assertThat(result.getHeaderString(HttpHeaders.CACHE_CONTROL), equalTo("no-transform, max-age=60"));
+    }
+
+    @Test
+    public void getOfferById_whenEntityTagMatches_shouldReturnNotModified() {
+        Offer givenOffer = getOfferObject("Four", "two hour offer", LocalDateTime.now().plusHours(1));
+        givenOffer.setId(1l);
+        given(offerService.getOfferById(1l)).willReturn(givenOffer);
+        Response result = resumed(response -> offerEndPoint.getOfferById(1l, "W/\"1-0-ACTIVE-json\"", request, response));
+        assertThat(result.getStatus(), equalTo(304));
+        assertThat(result.hasEntity(), equalTo(false));
+        assertThat(result.getEntityTag().getValue(), equalTo("1-0-ACTIVE-json"));
+    }
+
+    @Test
+    public void getOfferById_whenCancelled_shouldNotMatchEntityTagOfActiveOffer() {
+        Offer givenOffer = getOfferObject("Four", "two hour offer", LocalDateTime.now().plusHours(1));
+        givenOffer.setId(1l);
+        givenOffer.setStatus(Status.CANCELLED);
+        givenOffer.setVersion(1);
+        given(offerService.getOfferById(1l)).willReturn(givenOffer);
+        Response result = resumed(response -> offerEndPoint.getOfferById(1l, "W/\"1-0-ACTIVE-json\"", request, response));
+        assertThat(result.getStatus(), equalTo(200));
+        assertThat(result.getEntityTag().getValue(), equalTo("1-1-CANCELLED-json"));
     }
 
     @Test(expected = OfferNotFoundException.class)
     public void getOfferById_whenNotFound_shouldThrowException() {
         Mockito.doThrow(new OfferNotFoundException("Offer with id 1 not found")).when(offerService).getOfferById(1l);
-        offerEndPoint.getOfferById(1l);
+        resumed(response -> offerEndPoint.getOfferById(1l, null, request, response));
         verify(offerService, times(1)).getOfferById(1l);
     }
 
+    @Test
+    public void getCacheStatistics_shouldReturnCounters() {
+        given(offerCache.stats()).willReturn(new CacheStats(5, 2, 2, 0, 10, 1, 1));
+        given(offerCache.size()).willReturn(1l);
+
+        CacheStatistics result = offerEndPoint.getCacheStatistics();
+        assertEquals(5, result.getHitCount());
+        assertEquals(2, result.getMissCount());
+        assertEquals(1, result.getEvictionCount());
+        assertEquals(1, result.getSize());
+    }
+
+    private void givenExportedOffers(OfferQuery query) {
+        Mockito.doAnswer(invocation -> {
+            Consumer<Offer> consumer = invocation.getArgument(1);
+            offers.forEach(consumer);
+            return null;
+        }).when(offerService).exportOffers(eq(query), any());
+    }
+
+    private String write(StreamingOutput output) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        output.write(bytes);
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Calls an endpoint with a mocked suspended request, which is resumed before the call returns as requests
+     * are not run asynchronously by default, and returns the entity it was resumed with or throws the exception.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T resumed(Consumer<AsyncResponse> call) {
+        AsyncResponse response = Mockito.mock(AsyncResponse.class);
+        call.accept(response);
+        // resumed with either the entity or the exception
+        Object result = Mockito.mockingDetails(response).getInvocations().iterator().next().getArgument(0);
+        if (result instanceof RuntimeException)
+            throw (RuntimeException) result;
+        if (result instanceof GenericEntity)
+            return (T) ((GenericEntity<?>) result).getEntity();
+        return (T) result;
+    }
+
+    private OfferQuery queryByDescription(String description) {
+        OfferQuery query = new OfferQuery();
+        query.setDescription(description);
+        return query;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OfferView> getOffers(Response response) {
+        return (List<OfferView>) response.getEntity();
+    }
+
+    private List<OfferView> views(List<Offer> offers) {
+        return offers.stream()
+                .map(offer -> new OfferView(offer.getId(), offer.getPrice(), offer.getCurrency(), offer.getExpiryDate(),
+                        offer.getName(), offer.getDescription(), offer.getStatus(), offer.getVersion()))
+                .collect(Collectors.toList());
+    }
+
     private Offer getOfferObject(String name, String description, LocalDateTime expiry) {
         Offer offer = new Offer();
         offer.setExpiryDate(expiry);
@@ -0,0 +1,94 @@
+package com.worldpay.offermanager.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferView;
+import com.worldpay.offermanager.model.Status;
+import com.worldpay.offermanager.service.ParallelChunks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class OfferListWriterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+    private ParallelChunks parallelChunks;
+
+    @After
+    public void tearDown() {
+        parallelChunks.shutdown();
+    }
+
+    @Test
+    public void writeTo_whenLargeList_thenWrittenInParallelAsOneArray() throws IOException {
+        OfferListWriter writer = writer(10, 3);
+        for (int size : new int[]{0, 9, 10, 11, 100}) {
+            List<OfferView> offers = offers(size);
+            assertThat(write(writer, offers), equalTo(objectMapper.writeValueAsString(offers)));
+        }
+    }
+
+    @Test
+    public void writeTo_whenLargeList_thenReadBackAsOffers() throws IOException {
+        List<OfferView> offers = offers(50);
+        List<Offer> read = objectMapper.readValue(write(writer(10, 7), offers), new TypeReference<List<Offer>>() {});
+        assertThat(read.size(), equalTo(50));
+        assertThat(read.get(49).getDescription(), equalTo(offers.get(49).getDescription()));
+    }
+
+    @Test
+    public void isWriteable_onlyForListsOfOffers() {
+        OfferListWriter writer = writer(10, 3);
+        List<OfferView> offers = offers(1);
+        assertThat(writer.isWriteable(ArrayList.class, new GenericEntity<List<OfferView>>(offers) {}.getType(),
+                null, MediaType.APPLICATION_JSON_TYPE), equalTo(true));
+        assertThat(writer.isWriteable(ArrayList.class, new GenericEntity<List<String>>(new ArrayList<>()) {}.getType(),
+                null, MediaType.APPLICATION_JSON_TYPE), equalTo(false));
+        assertThat(writer.isWriteable(ArrayList.class, ArrayList.class, null, MediaType.APPLICATION_JSON_TYPE),
+                equalTo(false));
+    }
+
+    private OfferListWriter writer(int threshold, int chunkSize) {
+        OfferProperties offerProperties = new OfferProperties();
+        offerProperties.getParallel().setThreshold(threshold);
+        offerProperties.getParallel().setChunkSize(chunkSize);
+        offerProperties.getParallel().setThreads(2);
+        parallelChunks = new ParallelChunks(offerProperties, new SimpleMeterRegistry());
+        return new OfferListWriter(objectMapper, parallelChunks);
+    }
+
+    private static String write(OfferListWriter writer, List<OfferView> offers) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writer.writeTo(offers, ArrayList.class, null, null, MediaType.APPLICATION_JSON_TYPE, null, output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static List<OfferView> offers(int size) {
+        List<OfferView> offers = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++)
+            offers.add(new OfferView((long) i, BigDecimal.valueOf(1000 + i, 2), Currency.getInstance("GBP"),
+                    LocalDateTime.of(2030, 1, 1, 12, 0).plusSeconds(i), "Offer " + i, "Offer né " + i,
+                    i % 3 == 0 ? Status.EXPIRED : Status.ACTIVE, 0));
+        return offers;
+    }
+}
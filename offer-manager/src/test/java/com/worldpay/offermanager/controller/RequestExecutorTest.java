@@ -0,0 +1,93 @@
+package com.worldpay.offermanager.controller;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.exception.OfferNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class RequestExecutorTest {
+
+    private RequestExecutor requestExecutor;
+
+    @After
+    public void tearDown() {
+        requestExecutor.shutdown();
+    }
+
+    @Test
+    public void resume_whenNotAsync_thenRunOnCallingThread() {
+        requestExecutor = new RequestExecutor(new OfferProperties(), new SimpleMeterRegistry());
+        AsyncResponse response = Mockito.mock(AsyncResponse.class);
+
+        requestExecutor.resume(response, Thread::currentThread);
+        verify(response).resume(Thread.currentThread());
+    }
+
+    @Test
+    public void resume_whenWorkFails_thenResumeWithTheException() {
+        requestExecutor = new RequestExecutor(new OfferProperties(), new SimpleMeterRegistry());
+        AsyncResponse response = Mockito.mock(AsyncResponse.class);
+
+        requestExecutor.resume(response, () -> {
+            throw new OfferNotFoundException("Offer not found");
+        });
+        ArgumentCaptor<Throwable> captor = ArgumentCaptor.forClass(Throwable.class);
+        verify(response).resume(captor.capture());
+        assertThat(captor.getValue(), instanceOf(OfferNotFoundException.class));
+    }
+
+    @Test
+    public void resume_whenAsync_thenRunOnExecutor() {
+        requestExecutor = new RequestExecutor(asyncProperties(), new SimpleMeterRegistry());
+        AsyncResponse response = Mockito.mock(AsyncResponse.class);
+        Thread caller = Thread.currentThread();
+
+        requestExecutor.resume(response, Thread::currentThread);
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(response, timeout(5000)).resume(captor.capture());
+        assertThat(captor.getValue(), instanceOf(Thread.class));
+        assertThat(captor.getValue(), not(equalTo(caller)));
+    }
+
+    @Test
+    public void resume_whenQueueIsFull_thenResumeWithServiceUnavailable() {
+        OfferProperties offerProperties = asyncProperties();
+        offerProperties.getAsync().setVirtualThreads(false);
+        offerProperties.getAsync().setThreads(1);
+        offerProperties.getAsync().setQueueCapacity(1);
+        requestExecutor = new RequestExecutor(offerProperties, new SimpleMeterRegistry());
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+        AsyncResponse rejected = Mockito.mock(AsyncResponse.class);
+
+        try {
+            requestExecutor.resume(Mockito.mock(AsyncResponse.class), blocker::join);
+            requestExecutor.resume(Mockito.mock(AsyncResponse.class), blocker::join);
+            requestExecutor.resume(rejected, blocker::join);
+        } finally {
+            blocker.complete(null);
+        }
+        ArgumentCaptor<Response> captor = ArgumentCaptor.forClass(Response.class);
+        verify(rejected).resume(captor.capture());
+        assertThat(captor.getValue().getStatus(), equalTo(503));
+    }
+
+    private static OfferProperties asyncProperties() {
+        OfferProperties offerProperties = new OfferProperties();
+        offerProperties.getAsync().setEnabled(true);
+        return offerProperties;
+    }
+}
@@ -0,0 +1,37 @@
+package com.worldpay.offermanager.controller;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RequestLogTest {
+
+    @Test
+    public void sampled_whenEndpointRateSet_thenOverridesDefaultRate() {
+        OfferProperties offerProperties = new OfferProperties();
+        offerProperties.getLogging().setSampleRate(0);
+        offerProperties.getLogging().getEndpointSampleRates().put("getofferbyid", 1.0);
+        RequestLog requestLog = new RequestLog(offerProperties);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(requestLog.sampled("getOfferById"), equalTo(true));
+            assertThat(requestLog.sampled("getAllOffer"), equalTo(false));
+        }
+    }
+
+    @Test
+    public void sampled_whenRateBetweenZeroAndOne_thenSamplesShareOfRequests() {
+        OfferProperties offerProperties = new OfferProperties();
+        offerProperties.getLogging().setSampleRate(0.1);
+        RequestLog requestLog = new RequestLog(offerProperties);
+
+        int sampled = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (requestLog.sampled("getAllOffer"))
+                sampled++;
+        }
+        assertThat(sampled > 9000 && sampled < 11000, equalTo(true));
+    }
+}
@@ -0,0 +1,116 @@
+package com.worldpay.offermanager.controller;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferView;
+import com.worldpay.offermanager.model.Status;
+import org.junit.Test;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ResponseCachingTest {
+
+    private static final MediaType JSON = MediaType.APPLICATION_JSON_TYPE;
+
+    private static final MediaType SMILE = MediaType.valueOf(OfferEndPoint.APPLICATION_SMILE);
+
+    private final ResponseCaching responseCaching = new ResponseCaching(new OfferProperties());
+
+    @Test
+    public void offer_whenExpiringBeforeMaxAge_thenReusedUntilExpiry() {
+        Offer offer = offer(LocalDateTime.now().plusSeconds(30));
+        Response response = responseCaching.offer(offer, JSON, null).build();
+        assertThat(response.getStatus(), equalTo(200));
+        int maxAge = ((CacheControl) response.getHeaders().getFirst("Cache-Control")).getMaxAge();
+        assertThat(maxAge <= 30 && maxAge >= 28, equalTo(true));
+    }
+
+    @Test
+    public void offer_whenExpired_thenNotReused() {
+        Offer offer = offer(LocalDateTime.now().minusSeconds(30));
+        Response response = responseCaching.offer(offer, JSON, null).build();
+        assertThat(((CacheControl) response.getHeaders().getFirst("Cache-Control")).getMaxAge(), equalTo(0));
+    }
+
+    @Test
+    public void offer_whenCancelled_thenReusedForMaxAge() {
+        Offer offer = offer(LocalDateTime.now().plusSeconds(30));
+        offer.setStatus(Status.CANCELLED);
+        Response response = responseCaching.offer(offer, JSON, null).build();
+        assertThat(((CacheControl) response.getHeaders().getFirst("Cache-Control")).getMaxAge(), equalTo(60));
+    }
+
+    @Test
+    public void page_whenAnOfferChanges_thenEntityTagChanges() {
+        LocalDateTime expiry = LocalDateTime.now().plusHours(1);
+        List<OfferView> offers = Arrays.asList(view(1, expiry, Status.ACTIVE, 0), view(2, expiry, Status.ACTIVE, 0));
+        List<OfferView> changed = Arrays.asList(view(1, expiry, Status.ACTIVE, 0), view(2, expiry, Status.CANCELLED, 1));
+
+        EntityTag tag = responseCaching.page(offers, null, offers, JSON, null).build().getEntityTag();
+        assertThat(responseCaching.page(offers, null, offers, JSON, null).build().getEntityTag(), equalTo(tag));
+        assertThat(responseCaching.page(changed, null, changed, JSON, null).build().getEntityTag(), not(equalTo(tag)));
+        assertThat(responseCaching.page(offers, "next", offers, JSON, null).build().getEntityTag(), not(equalTo(tag)));
+    }
+
+    @Test
+    public void page_whenEntityTagMatches_thenNotModified() {
+        List<OfferView> offers = Arrays.asList(view(1, LocalDateTime.now().plusHours(1), Status.ACTIVE, 0));
+        EntityTag tag = responseCaching.page(offers, null, offers, JSON, null).build().getEntityTag();
+
+        Response response = responseCaching.page(offers, null, offers, JSON, "\"other\", " + tag.toString()).build();
+        assertThat(response.getStatus(), equalTo(304));
+        assertThat(response.hasEntity(), equalTo(false));
+    }
+
+    @Test
+    public void offer_whenSmile_thenEntityTagDiffersFromJsonAndVariesOnAccept() {
+        Offer offer = offer(LocalDateTime.now().plusHours(1));
+        Response json = responseCaching.offer(offer, JSON, null).build();
+        Response smile = responseCaching.offer(offer, SMILE, null).build();
+
+        assertThat(smile.getMediaType(), equalTo(SMILE));
+        assertThat(smile.getEntityTag(), not(equalTo(json.getEntityTag())));
+        assertThat(json.getHeaderString(HttpHeaders.VARY), equalTo(HttpHeaders.ACCEPT));
+        assertThat(responseCaching.offer(offer, SMILE, json.getEntityTag().toString()).build().getStatus(), equalTo(200));
+    }
+
+    @Test
+    public void matches_thenComparesWeakly() {
+        EntityTag tag = new EntityTag("1-0-ACTIVE", true);
+        assertThat(ResponseCaching.matches(tag, "W/\"1-0-ACTIVE\""), equalTo(true));
+        assertThat(ResponseCaching.matches(tag, "\"1-0-ACTIVE\""), equalTo(true));
+        assertThat(ResponseCaching.matches(tag, "\"1-1-CANCELLED\", W/\"1-0-ACTIVE\""), equalTo(true));
+        assertThat(ResponseCaching.matches(tag, "*"), equalTo(true));
+        assertThat(ResponseCaching.matches(tag, "W/\"1-1-CANCELLED\""), equalTo(false));
+        assertThat(ResponseCaching.matches(tag, null), equalTo(false));
+    }
+
+    private static Offer offer(LocalDateTime expiry) {
+        Offer offer = new Offer();
+        offer.setId(1l);
+        offer.setName("One");
+        offer.setDescription("One offer");
+        offer.setPrice(BigDecimal.TEN);
+        offer.setCurrency(Currency.getInstance(Locale.UK));
+        offer.setExpiryDate(expiry);
+        return offer;
+    }
+
+    private static OfferView view(long id, LocalDateTime expiry, Status status, long version) {
+        return new OfferView(id, BigDecimal.TEN, Currency.getInstance(Locale.UK), expiry, "One", "One offer", status, version);
+    }
+}
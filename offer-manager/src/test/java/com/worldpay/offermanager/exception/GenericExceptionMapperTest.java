@@ -0,0 +1,62 @@
+package com.worldpay.offermanager.exception;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worldpay.offermanager.model.Offer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GenericExceptionMapperTest {
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private GenericExceptionMapper genericExceptionMapper;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void toResponse_whenClientError_thenStatusKept() {
+        assertEquals(404, genericExceptionMapper.toResponse(new NotFoundException()).getStatus());
+    }
+
+    @Test
+    public void toResponse_whenRequestBodyNotJson_thenBadRequest() {
+        Response response = genericExceptionMapper.toResponse(readException("{not json"));
+        assertEquals(400, response.getStatus());
+
+        response = genericExceptionMapper.toResponse(new UncheckedIOException(readException("{\"price\":[]}")));
+        assertEquals(400, response.getStatus());
+    }
+
+    @Test
+    public void toResponse_whenResponseCanNotBeWritten_thenServerError() {
+        JsonMappingException writeFailure = JsonMappingException.from(objectMapper.getSerializerProvider(), "no serializer");
+        assertEquals(500, genericExceptionMapper.toResponse(writeFailure).getStatus());
+        assertEquals(500, genericExceptionMapper.toResponse(new IOException("Broken pipe")).getStatus());
+        assertEquals(500, genericExceptionMapper.toResponse(new UncheckedIOException(new IOException("Broken pipe"))).getStatus());
+    }
+
+    private IOException readException(String body) {
+        try {
+            objectMapper.readValue(body, Offer.class);
+        } catch (IOException e) {
+            return e;
+        }
+        throw new AssertionError("The body should not be read");
+    }
+}
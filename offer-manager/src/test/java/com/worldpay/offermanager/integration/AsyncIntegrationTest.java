@@ -0,0 +1,106 @@
+package com.worldpay.offermanager.integration;
+
+import com.worldpay.offermanager.OfferManagerApplication;
+import com.worldpay.offermanager.controller.OfferEndPoint;
+import com.worldpay.offermanager.model.BulkOfferResult;
+import com.worldpay.offermanager.model.Offer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the offer endpoints with the requests run on the request executor.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = OfferManagerApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "offer.async.enabled=true")
+public class AsyncIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    private Client client;
+
+    @Before
+    public void setup() {
+        client = ClientBuilder.newClient();
+    }
+
+    @After
+    public void cleanup() {
+        client.close();
+    }
+
+    @Test
+    public void addOffer_whenAsync_shouldReturnCreatedOffer() {
+        Response created = target().request(MediaType.APPLICATION_JSON)
+                .post(Entity.entity(getOfferObject(), MediaType.APPLICATION_JSON));
+        assertEquals(Response.Status.CREATED.getStatusCode(), created.getStatus());
+        assertThat(created.getLocation(), notNullValue());
+        Offer offer = created.readEntity(Offer.class);
+
+        Response response = target().path(String.valueOf(offer.getId())).request(MediaType.APPLICATION_JSON).get();
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertThat(response.readEntity(Offer.class).getName(), equalTo("async"));
+    }
+
+    @Test
+    public void addOffersFromNdjson_whenAsync_shouldReadTheBodyOnTheRequestExecutor() {
+        String body = "{\"name\":\"async\",\"description\":\"async offer\",\"price\":2,\"currency\":\"GBP\","
+                + "\"expiryDate\":\"" + LocalDateTime.now().plusHours(1) + "\"}\n";
+        Response response = target().path("bulk").request(MediaType.APPLICATION_JSON)
+                .post(Entity.entity(body, OfferEndPoint.APPLICATION_NDJSON));
+        List<BulkOfferResult> results = response.readEntity(new GenericType<List<BulkOfferResult>>() {});
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals(BulkOfferResult.Outcome.CREATED, results.get(0).getOutcome());
+    }
+
+    @Test
+    public void getOfferById_whenAsyncAndNotFound_shouldReturnNotFound() {
+        Response response = target().path("999999").request(MediaType.APPLICATION_JSON).get();
+        assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
+    }
+
+    @Test
+    public void listAllOffer_whenAsync_shouldReturnOk() {
+        Response response = target().path("list").request(MediaType.APPLICATION_JSON).get();
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    }
+
+    private WebTarget target() {
+        return client.target("http://localhost:" + port + "/api/offer/");
+    }
+
+    private Offer getOfferObject() {
+        Offer offer = new Offer();
+        offer.setName("async");
+        offer.setDescription("async offer");
+        offer.setPrice(BigDecimal.TEN);
+        offer.setCurrency(Currency.getInstance(Locale.UK));
+        offer.setExpiryDate(LocalDateTime.now().plusHours(1));
+        return offer;
+    }
+}
@@ -0,0 +1,104 @@
+package com.worldpay.offermanager.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worldpay.offermanager.OfferManagerApplication;
+import com.worldpay.offermanager.model.Offer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the offer endpoints with the client accepting compressed responses, on a database of its own as the
+ * other integration tests expect the ids they create.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = OfferManagerApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.generate-unique-name=true")
+public class CompressionIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    private Client client;
+
+    @Before
+    public void setup() {
+        client = ClientBuilder.newClient();
+    }
+
+    @After
+    public void cleanup() {
+        client.close();
+    }
+
+    @Test
+    public void listAllOffer_whenLarge_shouldReturnGzippedList() throws IOException {
+        List<Offer> offers = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            offers.add(getOfferObject("compressed " + i));
+        target().path("bulk").request(MediaType.APPLICATION_JSON).post(Entity.entity(offers, MediaType.APPLICATION_JSON));
+
+        Response response = target().path("list").queryParam("limit", 50).request(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate").get();
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertThat(response.getHeaderString(HttpHeaders.CONTENT_ENCODING), equalTo("gzip"));
+        assertThat(response.getHeaderString(HttpHeaders.VARY), equalTo(HttpHeaders.ACCEPT_ENCODING + "," + HttpHeaders.ACCEPT));
+
+        try (InputStream body = new GZIPInputStream(response.readEntity(InputStream.class))) {
+            List<?> result = new ObjectMapper().readValue(body, List.class);
+            assertEquals(50, result.size());
+        }
+    }
+
+    @Test
+    public void getOfferById_whenSmall_shouldNotBeCompressed() {
+        Offer created = target().request(MediaType.APPLICATION_JSON)
+                .post(Entity.entity(getOfferObject("uncompressed"), MediaType.APPLICATION_JSON)).readEntity(Offer.class);
+
+        Response response = target().path(String.valueOf(created.getId())).request(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip").get();
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertThat(response.getHeaderString(HttpHeaders.CONTENT_ENCODING), nullValue());
+        assertThat(response.readEntity(Offer.class).getName(), equalTo("uncompressed"));
+    }
+
+    private WebTarget target() {
+        return client.target("http://localhost:" + port + "/api/offer/");
+    }
+
+    private Offer getOfferObject(String name) {
+        Offer offer = new Offer();
+        offer.setExpiryDate(LocalDateTime.now().plusHours(1));
+        offer.setCurrency(Currency.getInstance(Locale.UK));
+        offer.setDescription(name + " offer");
+        offer.setName(name);
+        offer.setPrice(BigDecimal.TEN);
+        return offer;
+    }
+}
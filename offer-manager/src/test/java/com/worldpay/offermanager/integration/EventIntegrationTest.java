@@ -0,0 +1,147 @@
+package com.worldpay.offermanager.integration;
+
+import com.worldpay.offermanager.OfferManagerApplication;
+import com.worldpay.offermanager.model.BulkCancelRequest;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferEvent;
+import com.worldpay.offermanager.model.OfferEventPage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the offer event feed over HTTP, on a database of its own so the offsets start from the first event.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = OfferManagerApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.generate-unique-name=true"})
+public class EventIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    private Client client;
+
+    @Before
+    public void setup() {
+        client = ClientBuilder.newClient();
+    }
+
+    @After
+    public void cleanup() {
+        client.close();
+    }
+
+    @Test
+    public void events_whenOffersAddedCancelledAndExpired_thenReadInOrderFromAnyOffset() {
+        long after = events(0, 1000, 0).getLastOffset();
+        Offer first = add(getOfferObject("first", LocalDateTime.now().plusHours(1)));
+        List<Offer> bulk = Arrays.asList(getOfferObject("bulk one", LocalDateTime.now().plusHours(1)),
+                getOfferObject("bulk two", LocalDateTime.now().plusHours(1)));
+        target().path("bulk").request(MediaType.APPLICATION_JSON).post(Entity.entity(bulk, MediaType.APPLICATION_JSON));
+        target().path("cancel/" + first.getId()).request(MediaType.APPLICATION_JSON).put(Entity.json(""));
+        BulkCancelRequest cancel = new BulkCancelRequest();
+        cancel.setDescription("bulk two offer");
+        target().path("cancel").request(MediaType.APPLICATION_JSON).post(Entity.entity(cancel, MediaType.APPLICATION_JSON));
+        Offer expiring = add(getOfferObject("expiring", LocalDateTime.now().plusSeconds(1)));
+
+        List<OfferEvent> events = new ArrayList<>();
+        long offset = after;
+        while (events.size() < 7) {
+            OfferEventPage page = events(offset, 2, 5);
+            assertTrue("no event within the wait", !page.getEvents().isEmpty());
+            events.addAll(page.getEvents());
+            offset = page.getLastOffset();
+        }
+
+        assertEquals(Arrays.asList("CREATED " + first.getId(), "CREATED", "CREATED", "CANCELLED " + first.getId(),
+                "CANCELLED", "CREATED " + expiring.getId(), "EXPIRED " + expiring.getId()),
+                events.stream().map(event -> event.getType() + (event.getOfferId() == first.getId()
+                        || event.getOfferId() == expiring.getId() ? " " + event.getOfferId() : ""))
+                        .collect(Collectors.toList()));
+        for (int i = 0; i < events.size(); i++)
+            assertEquals(Long.valueOf(after + i + 1), events.get(i).getOffset());
+        assertEquals(events.subList(4, 7).stream().map(OfferEvent::getOffset).collect(Collectors.toList()),
+                events(after + 4, 10, 0).getEvents().stream().map(OfferEvent::getOffset).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void events_whenWaiting_thenAnsweredOnceAnOfferIsAdded() throws Exception {
+        long after = events(0, 1000, 0).getLastOffset();
+        Future<OfferEventPage> waiting = target().path("events").queryParam("after", after).queryParam("wait", 20)
+                .request(MediaType.APPLICATION_JSON).async().get(OfferEventPage.class);
+        Thread.sleep(200);
+        assertTrue(!waiting.isDone());
+
+        Offer added = add(getOfferObject("awaited", LocalDateTime.now().plusHours(1)));
+        OfferEventPage page = waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(1, page.getEvents().size());
+        assertEquals(added.getId().longValue(), page.getEvents().get(0).getOfferId());
+        assertEquals(OfferEvent.Type.CREATED, page.getEvents().get(0).getType());
+        assertEquals(after + 1, page.getLastOffset());
+    }
+
+    @Test
+    public void events_whenNothingPublishedWithinTheWait_thenAnsweredWithNoEvents() {
+        OfferEventPage page = events(1000000, 10, 1);
+        assertEquals(Collections.emptyList(), page.getEvents());
+        assertEquals(1000000, page.getLastOffset());
+    }
+
+    @Test
+    public void events_whenOffsetNegative_thenRejected() {
+        Response response = target().path("events").queryParam("after", -1).request(MediaType.APPLICATION_JSON).get();
+        assertEquals(500, response.getStatus());
+        assertTrue(response.readEntity(String.class).contains("Offset should not be negative"));
+    }
+
+    private OfferEventPage events(long after, int limit, int wait) {
+        return target().path("events").queryParam("after", after).queryParam("limit", limit)
+                .queryParam("wait", wait).request(MediaType.APPLICATION_JSON).get(new GenericType<OfferEventPage>() {});
+    }
+
+    private Offer add(Offer offer) {
+        return target().request(MediaType.APPLICATION_JSON).post(Entity.entity(offer, MediaType.APPLICATION_JSON))
+                .readEntity(Offer.class);
+    }
+
+    private WebTarget target() {
+        return client.target("http://localhost:" + port + "/api/offer/");
+    }
+
+    private Offer getOfferObject(String name, LocalDateTime expiryDate) {
+        Offer offer = new Offer();
+        offer.setExpiryDate(expiryDate);
+        offer.setCurrency(Currency.getInstance(Locale.UK));
+        offer.setDescription(name + " offer");
+        offer.setName(name);
+        offer.setPrice(BigDecimal.TEN);
+        return offer;
+    }
+}
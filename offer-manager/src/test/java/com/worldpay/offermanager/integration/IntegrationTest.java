@@ -2,6 +2,10 @@ package com.worldpay.offermanager.integration;
 
 
 import com.worldpay.offermanager.OfferManagerApplication;
+import com.worldpay.offermanager.controller.OfferEndPoint;
+import com.worldpay.offermanager.model.BulkCancelRequest;
+import com.worldpay.offermanager.model.BulkCancelResult;
+import com.worldpay.offermanager.model.BulkOfferResult;
 import com.worldpay.offermanager.model.Offer;
 //import com.worldpay.offermanager.model.Status;
 import com.worldpay.offermanager.model.Status;
@@ -17,11 +21,14 @@ import org.springframework.boot.web.server.LocalServerPort;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import javax.ws.rs.client.*;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Currency;
 import java.util.List;
 import java.util.Locale;
@@ -70,6 +77,48 @@ public class IntegrationTest  {
     }
 
 
+    @Test
+    public void listOffersWithLimit_shouldReturnPagesUntilLastPage() {
+        postOffer(getOfferObject("five", "five offer", LocalDateTime.now().plusHours(1)));
+        postOffer(getOfferObject("six", "six offer", LocalDateTime.now().plusHours(1)));
+
+        Response firstResponse = get0ffersPage(null, 1);
+        List<Offer> firstPage = firstResponse.readEntity(new GenericType<List<Offer>>() {
+        });
+        String cursor = firstResponse.getHeaderString(OfferEndPoint.NEXT_CURSOR_HEADER);
+        assertEquals(Response.Status.OK.getStatusCode(), firstResponse.getStatus());
+        assertEquals(1, firstPage.size());
+        MatcherAssert.assertThat(cursor, notNullValue());
+
+        Response secondResponse = get0ffersPage(cursor, 1000);
+        List<Offer> secondPage = secondResponse.readEntity(new GenericType<List<Offer>>() {
+        });
+        assertTrue(secondPage.size() > 0);
+        assertTrue(secondPage.get(0).getId() > firstPage.get(0).getId());
+        assertEquals(null, secondResponse.getHeaderString(OfferEndPoint.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void exportOffers_shouldStreamAllOffers() {
+        postOffer(getOfferObject("seven", "seven offer", LocalDateTime.now().plusHours(1)));
+
+        Response response = exportOffers(MediaType.APPLICATION_JSON);
+        List<Offer> result = response.readEntity(new GenericType<List<Offer>>() {
+        });
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertTrue(result.size() > 0);
+    }
+
+    @Test
+    public void exportOffersAsNdjson_shouldWriteOneOfferPerLine() {
+        postOffer(getOfferObject("eight", "eight offer", LocalDateTime.now().plusHours(1)));
+
+        Response response = exportOffers(OfferEndPoint.APPLICATION_NDJSON);
+        String result = response.readEntity(String.class);
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertTrue(result.contains("\"eight offer\""));
+        assertTrue(result.split("\n").length > 0);
+    }
 
     @Test
     public void getAllOfferWithDescriptionParameter_ShouldReturnAllMatchingOffers() {
@@ -85,6 +134,19 @@ public class IntegrationTest  {
         assertEquals(result.get(0).getDescription(), givenOffer.getDescription());
     }
 
+    @Test
+    public void getAllOfferWithPartialDescription_ShouldReturnAllMatchingOffers() {
+        Offer givenOffer = getOfferObject("nine", "Nine Lives offer", LocalDateTime.now().plusHours(1));
+        postOffer(givenOffer);
+        Response response = get0ffersWithDescription("%lives%");
+        List<Offer> result = response.readEntity(new GenericType<List<Offer>>() {
+        });
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals(1,result.size());
+        assertEquals(givenOffer.getDescription(), result.get(0).getDescription());
+    }
+
     @Test
     public void getAllOfferWithDescriptionParameter_WhenNoMatch_ShouldReturnEmptyList() {
         Response response = get0ffersWithDescription("no match");
@@ -109,6 +171,42 @@ public class IntegrationTest  {
     }
 
 
+    @Test
+    public void addOffersInBulk_shouldReturnResultPerOffer() {
+        Offer invalidOffer = getOfferObject("ten", "ten offer", LocalDateTime.now().plusHours(1));
+        invalidOffer.setPrice(null);
+        List<Offer> givenOffers = Arrays.asList(
+                getOfferObject("ten", "ten offer", LocalDateTime.now().plusHours(1)), invalidOffer);
+
+        WebTarget webTarget = jerseyClient.target("http://localhost:"+ port+ "/api/offer/").path("bulk");
+        Response response = webTarget.request(MediaType.APPLICATION_JSON)
+                .post(Entity.entity(givenOffers, MediaType.APPLICATION_JSON));
+        List<BulkOfferResult> results = response.readEntity(new GenericType<List<BulkOfferResult>>() {
+        });
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals(BulkOfferResult.Outcome.CREATED, results.get(0).getOutcome());
+        assertEquals(BulkOfferResult.Outcome.REJECTED, results.get(1).getOutcome());
+        assertEquals(Response.Status.OK.getStatusCode(), get0ffer(results.get(0).getId()).getStatus());
+    }
+
+    @Test
+    public void addOffersInBulkFromNdjson_shouldReturnResultPerLine() {
+        String body = "{\"name\":\"eleven\",\"description\":\"eleven offer\",\"price\":2,\"currency\":\"GBP\","
+                + "\"expiryDate\":\"" + LocalDateTime.now().plusHours(1) + "\"}\nnot an offer\n";
+
+        WebTarget webTarget = jerseyClient.target("http://localhost:"+ port+ "/api/offer/").path("bulk");
+        Response response = webTarget.request(MediaType.APPLICATION_JSON)
+                .post(Entity.entity(body, OfferEndPoint.APPLICATION_NDJSON));
+        List<BulkOfferResult> results = response.readEntity(new GenericType<List<BulkOfferResult>>() {
+        });
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals(2, results.size());
+        assertEquals(BulkOfferResult.Outcome.CREATED, results.get(0).getOutcome());
+        assertEquals(BulkOfferResult.Outcome.REJECTED, results.get(1).getOutcome());
+    }
+
     @Test
     public void addOffer_whenExpiryIsNull_shouldThrowException() {
         Offer givenOffer = getOfferObject("Four", "four hour offer", LocalDateTime.now().plusHours(1));
@@ -148,6 +246,54 @@ public class IntegrationTest  {
         assertEquals(Status.CANCELLED, cancelledOffer.getStatus()) ;
     }
 
+    @Test
+    public void cancelOffersInBulk_shouldReturnResultPerId() {
+        Long id = postOffer(getOfferObject("Five", "five offer", LocalDateTime.now().plusHours(1)))
+                .readEntity(Offer.class).getId();
+        BulkCancelRequest request = new BulkCancelRequest();
+        request.setIds(Arrays.asList(id, id + 100000));
+
+        WebTarget webTarget = jerseyClient.target("http://localhost:"+ port+ "/api/offer/").path("cancel");
+        Response response = webTarget.request(MediaType.APPLICATION_JSON)
+                .post(Entity.entity(request, MediaType.APPLICATION_JSON));
+        List<BulkCancelResult> results = response.readEntity(new GenericType<List<BulkCancelResult>>() {
+        });
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals(BulkCancelResult.Outcome.CANCELLED, results.get(0).getOutcome());
+        assertEquals(BulkCancelResult.Outcome.NOT_FOUND, results.get(1).getOutcome());
+        assertEquals(Status.CANCELLED, get0ffer(id).readEntity(Offer.class).getStatus());
+    }
+
+    @Test
+    public void clientErrors_shouldKeepTheirStatus() {
+        WebTarget webTarget = jerseyClient.target("http://localhost:"+ port+ "/api/offer/");
+        assertEquals(Response.Status.NOT_FOUND.getStatusCode(), webTarget.path("no/such/path").request(MediaType.APPLICATION_JSON).get().getStatus());
+        assertEquals(Response.Status.METHOD_NOT_ALLOWED.getStatusCode(), webTarget.path("list").request(MediaType.APPLICATION_JSON).delete().getStatus());
+        assertEquals(Response.Status.NOT_ACCEPTABLE.getStatusCode(), webTarget.path("list").request("text/csv").get().getStatus());
+        Response response = webTarget.request(MediaType.APPLICATION_JSON).post(Entity.entity("{not json", MediaType.APPLICATION_JSON));
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+    }
+
+    @Test
+    public void getMetrics_shouldPublishOfferMetricsForPrometheus() {
+        get0ffer(Long.MAX_VALUE);
+        get0ffers();
+        postOffer(getOfferObject("Timed", "timed offer", LocalDateTime.now().plusHours(1)));
+
+        WebTarget webTarget = jerseyClient.target("http://localhost:"+ port+ "/actuator/prometheus");
+        Response response = webTarget.request(MediaType.TEXT_PLAIN).get();
+        String metrics = response.readEntity(String.class);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket"));
+        assertTrue(metrics.contains("http_server_requests_active_seconds_active_count"));
+        assertTrue(metrics.contains("offer_service_seconds_count"));
+        assertTrue(metrics.contains("offer_service_seconds_bucket{class=\"com.worldpay.offermanager.service.OfferServiceImpl\",exception=\"none\",method=\"addOffer\""));
+        assertTrue(metrics.contains("offer_errors_total{exception=\"OfferNotFoundException\",mapper=\"OfferNotFoundExceptionMapper\",}"));
+        assertTrue(metrics.contains("offer_expiry_lag_seconds"));
+        assertTrue(metrics.contains("hikaricp_connections_active{pool=\"offer-pool\",}"));
+    }
 
     @Test
     public void cancelOffer_whenOfferHasExpire_shouldThrowException() throws InterruptedException {
@@ -178,6 +324,46 @@ public class IntegrationTest  {
         assertEquals( offer.getId(), id);
     }
 
+    @Test
+    public void getOfferById_whenEntityTagMatches_shouldReturnNotModified() {
+        Offer givenOffer = getOfferObject("Five", "two hour offer", LocalDateTime.now().plusHours(2));
+        Long id = postOffer(givenOffer).readEntity(Offer.class).getId();
+
+        Response first = get0ffer(id);
+        EntityTag tag = first.getEntityTag();
+        MatcherAssert.assertThat(tag, notNullValue());
+        assertEquals("no-transform, max-age=60", first.getHeaderString(HttpHeaders.CACHE_CONTROL));
+
+        Response second = get0ffer(id, tag);
+        assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), second.getStatus());
+        assertEquals(tag, second.getEntityTag());
+    }
+
+    @Test
+    public void getOfferById_whenCancelled_shouldReturnNewEntityTag() {
+        Offer givenOffer = getOfferObject("Six", "two hour offer", LocalDateTime.now().plusHours(2));
+        Long id = postOffer(givenOffer).readEntity(Offer.class).getId();
+        EntityTag tag = get0ffer(id).getEntityTag();
+
+        cancelOffer(id);
+        Response response = get0ffer(id, tag);
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals(Status.CANCELLED, response.readEntity(Offer.class).getStatus());
+        assertTrue(!tag.equals(response.getEntityTag()));
+    }
+
+    @Test
+    public void listOffers_whenEntityTagMatches_shouldReturnNotModified() {
+        postOffer(getOfferObject("Seven", "two hour offer", LocalDateTime.now().plusHours(2)));
+        Response first = get0ffers();
+        EntityTag tag = first.getEntityTag();
+        assertEquals("no-cache, no-transform", first.getHeaderString(HttpHeaders.CACHE_CONTROL));
+
+        WebTarget webTarget = jerseyClient.target("http://localhost:"+ port+ "/api/offer/").path("list");
+        Response second = webTarget.request(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, tag).get();
+        assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), second.getStatus());
+    }
+
     @Test
     public void getOfferById_whenNotFound_shouldThrowException() {
         Response result = cancelOffer(1l);
@@ -205,6 +391,11 @@ public class IntegrationTest  {
         return response;
     }
 
+    public Response get0ffer(Long offerId, EntityTag ifNoneMatch) {
+        WebTarget webTarget = jerseyClient.target("http://localhost:"+ port+ "/api/offer/").path(offerId+"");
+        return webTarget.request(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch).get();
+    }
+
     public Response get0ffers() {
         WebTarget webTarget = jerseyClient.target("http://localhost:"+ port+ "/api/offer/").path("list");
         Invocation.Builder invocationBuilder =  webTarget.request(MediaType.APPLICATION_JSON);
@@ -212,6 +403,21 @@ public class IntegrationTest  {
         return response;
     }
 
+    public Response get0ffersPage(String cursor, int limit) {
+        WebTarget webTarget = jerseyClient.target("http://localhost:"+ port+ "/api/offer/").path("list")
+                .queryParam("limit", limit);
+        if (cursor != null)
+            webTarget = webTarget.queryParam("cursor", cursor);
+        Invocation.Builder invocationBuilder =  webTarget.request(MediaType.APPLICATION_JSON);
+        return invocationBuilder.get();
+    }
+
+    public Response exportOffers(String mediaType) {
+        WebTarget webTarget = jerseyClient.target("http://localhost:"+ port+ "/api/offer/").path("export");
+        Invocation.Builder invocationBuilder =  webTarget.request(mediaType);
+        return invocationBuilder.get();
+    }
+
     public Response get0ffersWithDescription(String description) {
         WebTarget webTarget = jerseyClient.target("http://localhost:"+ port+ "/api/offer/").path("list")
                 .queryParam("description", description);
@@ -0,0 +1,103 @@
+package com.worldpay.offermanager.integration;
+
+import com.worldpay.offermanager.OfferManagerApplication;
+import com.worldpay.offermanager.controller.OfferEndPoint;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.Status;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.Locale;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the reactive offer endpoints under /api/reactive/offer.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = OfferManagerApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"offer.reactive.enabled=true", "offer.async.enabled=true"})
+public class ReactiveIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    private Client client;
+
+    @Before
+    public void setup() {
+        client = ClientBuilder.newClient();
+    }
+
+    @After
+    public void cleanup() {
+        client.close();
+    }
+
+    @Test
+    public void addOffer_thenGetAndCancelOffer() {
+        Offer offer = addOffer("reactive");
+
+        Response response = target().path(String.valueOf(offer.getId())).request(MediaType.APPLICATION_JSON).get();
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertThat(response.readEntity(Offer.class).getName(), equalTo("reactive"));
+
+        response = target().path("cancel").path(String.valueOf(offer.getId())).request(MediaType.APPLICATION_JSON)
+                .put(Entity.entity(offer.getId(), MediaType.APPLICATION_JSON));
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertThat(response.readEntity(Offer.class).getStatus(), equalTo(Status.CANCELLED));
+    }
+
+    @Test
+    public void getOfferById_whenNotFound_shouldReturnNotFound() {
+        Response response = target().path("999999").request(MediaType.APPLICATION_JSON).get();
+        assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
+    }
+
+    @Test
+    public void streamOffers_shouldWriteOneOfferPerLine() {
+        Offer offer = addOffer("streamed");
+
+        Response response = target().path("stream").request(OfferEndPoint.APPLICATION_NDJSON).get();
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        String body = response.readEntity(String.class);
+        assertThat(body, containsString("\"id\":" + offer.getId() + ","));
+        assertThat(body.endsWith("\n"), equalTo(true));
+    }
+
+    private Offer addOffer(String name) {
+        Offer offer = new Offer();
+        offer.setName(name);
+        offer.setDescription(name + " offer");
+        offer.setPrice(BigDecimal.TEN);
+        offer.setCurrency(Currency.getInstance(Locale.UK));
+        offer.setExpiryDate(LocalDateTime.now().plusHours(1));
+        Response response = target().request(MediaType.APPLICATION_JSON)
+                .post(Entity.entity(offer, MediaType.APPLICATION_JSON));
+        assertEquals(Response.Status.CREATED.getStatusCode(), response.getStatus());
+        assertThat(response.getLocation(), notNullValue());
+        return response.readEntity(Offer.class);
+    }
+
+    private WebTarget target() {
+        return client.target("http://localhost:" + port + "/api/reactive/offer/");
+    }
+}
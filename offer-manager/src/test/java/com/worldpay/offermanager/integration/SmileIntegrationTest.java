@@ -0,0 +1,159 @@
+package com.worldpay.offermanager.integration;
+
+import com.worldpay.offermanager.OfferManagerApplication;
+import com.worldpay.offermanager.controller.OfferEndPoint;
+import com.worldpay.offermanager.controller.SmileProvider;
+import com.worldpay.offermanager.model.ErrorMessage;
+import com.worldpay.offermanager.model.Offer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the offer endpoints with the offers sent and received as Smile, on a database of its own as the
+ * other integration tests expect the ids they create.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = OfferManagerApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.generate-unique-name=true")
+public class SmileIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    private Client client;
+
+    @Before
+    public void setup() {
+        client = ClientBuilder.newClient().register(new SmileProvider(Collections.emptyList()));
+    }
+
+    @After
+    public void cleanup() {
+        client.close();
+    }
+
+    @Test
+    public void addOffer_asSmile_shouldReturnCreatedOfferAsSmile() {
+        LocalDateTime expiry = LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.MILLIS);
+        Response created = target().request(OfferEndPoint.APPLICATION_SMILE)
+                .post(Entity.entity(getOfferObject("smile", expiry), OfferEndPoint.APPLICATION_SMILE));
+        assertEquals(Response.Status.CREATED.getStatusCode(), created.getStatus());
+        assertEquals(OfferEndPoint.APPLICATION_SMILE, created.getMediaType().toString());
+        Offer offer = created.readEntity(Offer.class);
+
+        Response response = target().path(String.valueOf(offer.getId())).request(OfferEndPoint.APPLICATION_SMILE).get();
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        Offer result = response.readEntity(Offer.class);
+        assertThat(result.getName(), equalTo("smile"));
+        assertThat(result.getPrice().compareTo(BigDecimal.TEN), equalTo(0));
+        assertThat(result.getCurrency(), equalTo(Currency.getInstance(Locale.UK)));
+        assertThat(result.getExpiryDate(), equalTo(expiry));
+    }
+
+    @Test
+    public void listAllOffer_asSmile_shouldBeSmallerThanJson() {
+        for (int i = 0; i < 10; i++)
+            target().request(OfferEndPoint.APPLICATION_SMILE)
+                    .post(Entity.entity(getOfferObject("smile " + i, LocalDateTime.now().plusHours(1)), OfferEndPoint.APPLICATION_SMILE));
+
+        Response smile = target().path("list").request(OfferEndPoint.APPLICATION_SMILE).get();
+        assertEquals(OfferEndPoint.APPLICATION_SMILE, smile.getMediaType().toString());
+        smile.bufferEntity();
+        List<Offer> offers = smile.readEntity(new GenericType<List<Offer>>() {
+        });
+        assertTrue(offers.size() >= 10);
+
+        byte[] smileBytes = smile.readEntity(byte[].class);
+        byte[] jsonBytes = target().path("list").request(MediaType.APPLICATION_JSON).get().readEntity(byte[].class);
+        assertTrue(smileBytes.length < jsonBytes.length);
+    }
+
+    @Test
+    public void exportOffers_asSmile_shouldStreamOffers() {
+        target().request(OfferEndPoint.APPLICATION_SMILE)
+                .post(Entity.entity(getOfferObject("smile export", LocalDateTime.now().plusHours(1)), OfferEndPoint.APPLICATION_SMILE));
+
+        Response response = target().path("export").request(OfferEndPoint.APPLICATION_SMILE).get();
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        List<Offer> offers = response.readEntity(new GenericType<List<Offer>>() {
+        });
+        assertTrue(offers.stream().anyMatch(offer -> offer.getName().equals("smile export")));
+    }
+
+    @Test
+    public void getOfferById_asSmileAndNotFound_shouldReturnErrorAsSmile() {
+        Response response = target().path("999999").request(OfferEndPoint.APPLICATION_SMILE).get();
+        assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
+        assertEquals(404, response.readEntity(ErrorMessage.class).getCode());
+    }
+
+    @Test
+    public void getOfferById_asSmileAndJson_shouldVaryOnAcceptWithAnEntityTagPerMediaType() {
+        Offer offer = target().request(MediaType.APPLICATION_JSON)
+                .post(Entity.entity(getOfferObject("cached", LocalDateTime.now().plusHours(1)), MediaType.APPLICATION_JSON))
+                .readEntity(Offer.class);
+        WebTarget byId = target().path(String.valueOf(offer.getId()));
+
+        Response json = byId.request(MediaType.APPLICATION_JSON).get();
+        Response smile = byId.request(OfferEndPoint.APPLICATION_SMILE).get();
+        Response both = byId.request().header(HttpHeaders.ACCEPT, OfferEndPoint.APPLICATION_SMILE + ", " + MediaType.APPLICATION_JSON).get();
+
+        assertTrue(json.getHeaders().get(HttpHeaders.VARY).stream().anyMatch(vary -> vary.toString().contains(HttpHeaders.ACCEPT)));
+        assertTrue(!json.getEntityTag().equals(smile.getEntityTag()));
+        assertEquals(MediaType.APPLICATION_JSON, both.getMediaType().toString());
+        assertEquals(json.getEntityTag(), both.getEntityTag());
+        Response revalidated = byId.request(OfferEndPoint.APPLICATION_SMILE).header(HttpHeaders.IF_NONE_MATCH, json.getEntityTag()).get();
+        assertEquals(Response.Status.OK.getStatusCode(), revalidated.getStatus());
+        assertEquals(OfferEndPoint.APPLICATION_SMILE, revalidated.getMediaType().toString());
+        assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), byId.request(OfferEndPoint.APPLICATION_SMILE)
+                .header(HttpHeaders.IF_NONE_MATCH, smile.getEntityTag()).get().getStatus());
+    }
+
+    @Test
+    public void listAllOffer_withoutAccept_shouldReturnJson() {
+        Response response = target().path("list").request().get();
+        assertEquals(MediaType.APPLICATION_JSON, response.getMediaType().toString());
+        response = target().path("export").request().header(HttpHeaders.ACCEPT, "*/*").get();
+        assertEquals(MediaType.APPLICATION_JSON, response.getMediaType().toString());
+    }
+
+    private WebTarget target() {
+        return client.target("http://localhost:" + port + "/api/offer/");
+    }
+
+    private Offer getOfferObject(String name, LocalDateTime expiry) {
+        Offer offer = new Offer();
+        offer.setExpiryDate(expiry);
+        offer.setCurrency(Currency.getInstance(Locale.UK));
+        offer.setDescription(name + " offer");
+        offer.setName(name);
+        offer.setPrice(BigDecimal.TEN);
+        return offer;
+    }
+}
@@ -0,0 +1,129 @@
+package com.worldpay.offermanager.integration;
+
+import com.worldpay.offermanager.OfferManagerApplication;
+import com.worldpay.offermanager.model.BulkCancelRequest;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferView;
+import com.worldpay.offermanager.model.Status;
+import com.worldpay.offermanager.repository.OfferRepository;
+import com.worldpay.offermanager.service.OfferStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MediaType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the offer endpoints with reads served by the off-heap offer store, on a database of its own as the
+ * other integration tests expect the ids they create. The store must answer as the database does.
+ * The parallel threshold is low so the description searches are scanned and written in parallel chunks.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringBootTest(classes = OfferManagerApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.generate-unique-name=true", "offer.store.enabled=true",
+                "offer.store.segment-size=16", "offer.parallel.threshold=8", "offer.parallel.chunk-size=4",
+                "offer.parallel.threads=2"})
+public class StoreIntegrationTest {
+
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    private OfferStore offerStore;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    private Client client;
+
+    @Before
+    public void setup() {
+        client = ClientBuilder.newClient();
+    }
+
+    @After
+    public void cleanup() {
+        client.close();
+    }
+
+    @Test
+    public void offers_whenAddedAndCancelled_thenStoreMatchesDatabase() {
+        assertTrue(offerStore.isReady());
+        Offer created = target().request(MediaType.APPLICATION_JSON)
+                .post(Entity.entity(getOfferObject("stored", new BigDecimal("12.345")), MediaType.APPLICATION_JSON))
+                .readEntity(Offer.class);
+        List<Offer> offers = new ArrayList<>();
+        for (int i = 0; i < 40; i++)
+            offers.add(getOfferObject("bulk stored " + i, BigDecimal.valueOf(i)));
+        target().path("bulk").request(MediaType.APPLICATION_JSON).post(Entity.entity(offers, MediaType.APPLICATION_JSON));
+
+        target().path("cancel/" + created.getId()).request(MediaType.APPLICATION_JSON).put(Entity.json(""));
+        BulkCancelRequest cancel = new BulkCancelRequest();
+        cancel.setDescription("bulk stored 1%");
+        target().path("cancel").request(MediaType.APPLICATION_JSON).post(Entity.entity(cancel, MediaType.APPLICATION_JSON));
+
+        Offer cancelled = target().path(String.valueOf(created.getId())).request(MediaType.APPLICATION_JSON).get(Offer.class);
+        assertEquals(Status.CANCELLED, cancelled.getStatus());
+        assertEquals(new BigDecimal("12.35"), cancelled.getPrice());
+        assertNotNull(offerStore.get(created.getId()));
+
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(strings(offerRepository.findOffersPage(0, EnumSet.allOf(Status.class), EARLIEST,
+                LATEST, now, PageRequest.of(0, 100))),
+                strings(offerStore.page(0, EnumSet.allOf(Status.class), EARLIEST, LATEST, now, 100)));
+        assertEquals(strings(offerRepository.findOffersByDescription("%STORED 1%", now)),
+                strings(offerStore.search("%STORED 1%", now)));
+        assertEquals(offerRepository.findById(created.getId()).get().getVersion(), offerStore.get(created.getId()).getVersion());
+
+        List<Offer> active = target().path("list").queryParam("status", "active").queryParam("limit", 100)
+                .request(MediaType.APPLICATION_JSON).get(new GenericType<List<Offer>>() {});
+        assertEquals(29, active.size());
+        List<Offer> found = target().path("list").queryParam("description", "%stored 2_%")
+                .request(MediaType.APPLICATION_JSON).get(new GenericType<List<Offer>>() {});
+        assertEquals(11, found.size());
+    }
+
+    private static List<String> strings(List<OfferView> offers) {
+        return offers.stream().map(OfferView::toString).collect(Collectors.toList());
+    }
+
+    private WebTarget target() {
+        return client.target("http://localhost:" + port + "/api/offer/");
+    }
+
+    private Offer getOfferObject(String name, BigDecimal price) {
+        Offer offer = new Offer();
+        offer.setExpiryDate(LocalDateTime.now().plusHours(1));
+        offer.setCurrency(Currency.getInstance(Locale.UK));
+        offer.setDescription(name + " offer");
+        offer.setName(name);
+        offer.setPrice(price);
+        return offer;
+    }
+}
@@ -0,0 +1,75 @@
+package com.worldpay.offermanager.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.worldpay.offermanager.controller.SmileProvider;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class OfferViewSerializerTest {
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+    @Test
+    public void serialize_thenWrittenAsOffer() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            BigDecimal price = BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), 2);
+            LocalDateTime expiry = LocalDateTime.of(random.nextInt(10000), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1000) * 1_000_000);
+            assertWrittenAsOffer(json, price, i % 2 == 0 ? expiry : expiry.withSecond(0).withNano(0));
+        }
+    }
+
+    @Test
+    public void serialize_whenEdgeValues_thenWrittenAsOffer() throws Exception {
+        for (long price : new long[]{0, 1, -1, 10, 100, -100, Long.MAX_VALUE, Long.MIN_VALUE})
+            assertWrittenAsOffer(json, BigDecimal.valueOf(price, 2), LocalDateTime.of(2030, 1, 1, 12, 0));
+        for (LocalDateTime expiry : new LocalDateTime[]{LocalDateTime.of(2030, 1, 1, 12, 0, 0, 120_000_000),
+                LocalDateTime.of(2000, 2, 29, 23, 59, 59, 5_000_000), LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_000_000),
+                LocalDateTime.of(0, 1, 1, 0, 0), LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_000_000),
+                LocalDateTime.of(10000, 1, 1, 0, 0), LocalDateTime.of(-1, 12, 31, 0, 0)})
+            assertWrittenAsOffer(json, new BigDecimal("10.00"), expiry);
+    }
+
+    @Test
+    public void serialize_whenDatesAsTimestamps_thenWrittenAsOffer() throws Exception {
+        assertWrittenAsOffer(Jackson2ObjectMapperBuilder.json().build(), new BigDecimal("12.50"),
+                LocalDateTime.of(2030, 1, 1, 12, 0, 0, 120_000_000));
+    }
+
+    @Test
+    public void serialize_asSmile_thenReadAsOffer() throws Exception {
+        ObjectMapper smile = new SmileProvider(Collections.emptyList()).getMapper();
+        OfferView view = view(new BigDecimal("-12.05"), LocalDateTime.of(2030, 1, 1, 12, 0, 0, 120_000_000));
+        Offer offer = smile.readValue(smile.writeValueAsBytes(view), Offer.class);
+        assertEquals(view.getPrice(), offer.getPrice());
+        assertEquals(view.getExpiryDate(), offer.getExpiryDate());
+        assertEquals(view.getCurrency(), offer.getCurrency());
+    }
+
+    private static void assertWrittenAsOffer(ObjectMapper mapper, BigDecimal price, LocalDateTime expiry) throws Exception {
+        Offer offer = new Offer();
+        offer.setId(7l);
+        offer.setPrice(price);
+        offer.setCurrency(Currency.getInstance("GBP"));
+        offer.setExpiryDate(expiry);
+        offer.setName("Offer");
+        offer.setDescription("Offer \"7\"");
+        offer.setStatus(Status.EXPIRED);
+        assertEquals(mapper.writeValueAsString(offer), mapper.writeValueAsString(view(price, expiry)));
+    }
+
+    private static OfferView view(BigDecimal price, LocalDateTime expiry) {
+        return new OfferView(7l, price, Currency.getInstance("GBP"), expiry, "Offer", "Offer \"7\"", Status.EXPIRED, 3l);
+    }
+}
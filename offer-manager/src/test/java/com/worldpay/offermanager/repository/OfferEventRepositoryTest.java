@@ -0,0 +1,87 @@
+package com.worldpay.offermanager.repository;
+
+import com.worldpay.offermanager.model.OfferEvent;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class OfferEventRepositoryTest {
+
+    @Autowired
+    private OfferEventRepository offerEventRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    public void givenNoPublishedEvents_thenNoLastOffset() {
+        // given
+        entityManager.persist(new OfferEvent(1, OfferEvent.Type.CREATED, LocalDateTime.now()));
+        entityManager.flush();
+
+        // then
+        assertNull(offerEventRepository.findLastOffset());
+        assertEquals(0, offerEventRepository.findEventsAfter(0, PageRequest.of(0, 10)).size());
+    }
+
+    @Test
+    public void givenEvents_whenPublished_thenReadInOffsetOrderAfterAnOffset() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        OfferEvent created = new OfferEvent(1, OfferEvent.Type.CREATED, now);
+        OfferEvent cancelled = new OfferEvent(1, OfferEvent.Type.CANCELLED, now);
+        OfferEvent expired = new OfferEvent(2, OfferEvent.Type.EXPIRED, now);
+
+        // when
+        entityManager.persist(created);
+        entityManager.persist(cancelled);
+        entityManager.persist(expired);
+        entityManager.flush();
+        List<OfferEvent> unpublished = offerEventRepository.findUnpublishedEvents(PageRequest.of(0, 2));
+        unpublished.get(0).setOffset(1l);
+        unpublished.get(1).setOffset(2l);
+        entityManager.flush();
+
+        // then
+        assertEquals(Arrays.asList(created.getId(), cancelled.getId()), ids(unpublished));
+        assertEquals(Long.valueOf(2), offerEventRepository.findLastOffset());
+        assertEquals(Collections.singletonList(expired.getId()), ids(offerEventRepository.findUnpublishedEvents(PageRequest.of(0, 2))));
+        assertEquals(Collections.singletonList(cancelled.getId()), ids(offerEventRepository.findEventsAfter(1, PageRequest.of(0, 10))));
+        assertEquals(Collections.singletonList(created.getId()), ids(offerEventRepository.findEventsAfter(0, PageRequest.of(0, 1))));
+    }
+
+    @Test
+    public void givenPublishedEvent_whenPublishedAgain_thenOffsetKept() {
+        // given
+        OfferEvent created = entityManager.persist(new OfferEvent(1, OfferEvent.Type.CREATED, LocalDateTime.now()));
+        entityManager.flush();
+
+        // when
+        int first = offerEventRepository.publishEvent(created.getId(), 1);
+        int second = offerEventRepository.publishEvent(created.getId(), 2);
+
+        // then
+        assertEquals(1, first);
+        assertEquals(0, second);
+        assertEquals(Long.valueOf(1), offerEventRepository.findLastOffset());
+    }
+
+    private static List<Long> ids(List<OfferEvent> events) {
+        return events.stream().map(OfferEvent::getId).collect(Collectors.toList());
+    }
+}
@@ -1,20 +1,28 @@
 package com.worldpay.offermanager.repository;
 
 import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferView;
 import com.worldpay.offermanager.model.Status;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import javax.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Currency;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 
@@ -42,7 +50,7 @@ public class OfferRepositoryTest {
         entityManager.flush();
 
         // then
-        assertEquals(1, offerRepository.findOffersByDescription("offer one").size());
+        assertEquals(1, offerRepository.findOffersByDescription("offer one", LocalDateTime.now()).size());
     }
 
     @Test
@@ -59,20 +67,64 @@ public class OfferRepositoryTest {
         entityManager.flush();
 
         // then
-        assertEquals(0, offerRepository.findOffersByDescription("offer one2").size());
+        assertEquals(0, offerRepository.findOffersByDescription("offer one2", LocalDateTime.now()).size());
     }
 
 
+    @Test
+    public void givenOffersByDescription_whenPrefixOfOtherCase_thenReturnOffersThatMatch() {
+        // given
+        Offer offerOne = getOfferObject("one", "Offer One", LocalDateTime.now().plusHours(1));
+        Offer offerTwo = getOfferObject("two", "offer two", LocalDateTime.now());
+        Offer offerThree = getOfferObject("three", "three offer", LocalDateTime.now().minusHours(1));
+
+        // when
+        entityManager.persist(offerOne);
+        entityManager.persist(offerTwo);
+        entityManager.persist(offerThree);
+        entityManager.flush();
+
+        // then
+        assertEquals(2, offerRepository.findOffersByDescription("OFFER%", LocalDateTime.now()).size());
+        assertEquals(2, offerRepository.findOffersByIdsAndDescription(
+                Arrays.asList(offerOne.getId(), offerThree.getId()), "%offer%", LocalDateTime.now()).size());
+    }
+
+    @Test
+    public void givenOffersByDescription_whenPastExpiryAndActive_thenViewIsExpired() {
+        // given
+        Offer offerOne = getOfferObject("one", "offer one", LocalDateTime.now().plusHours(1));
+        Offer offerTwo = getOfferObject("two", "offer two", LocalDateTime.now().minusHours(1));
+        Offer offerThree = getOfferObject("three", "offer three", LocalDateTime.now().minusHours(1));
+        offerThree.setStatus(Status.CANCELLED);
+
+        // when
+        entityManager.persist(offerOne);
+        entityManager.persist(offerTwo);
+        entityManager.persist(offerThree);
+        entityManager.flush();
+        entityManager.clear();
+        List<OfferView> offers = offerRepository.findOffersByDescription("offer%", LocalDateTime.now());
+
+        // then
+        assertEquals(3, offers.size());
+        Map<Long, Status> statuses = offers.stream().collect(Collectors.toMap(OfferView::getId, OfferView::getStatus));
+        assertEquals(Status.ACTIVE, statuses.get(offerOne.getId()));
+        assertEquals(Status.EXPIRED, statuses.get(offerTwo.getId()));
+        assertEquals(Status.CANCELLED, statuses.get(offerThree.getId()));
+        assertEquals(Status.ACTIVE, offerRepository.findById(offerTwo.getId()).get().getStatus());
+    }
+
     @Test
     public void givenNoOffers_thenReturnNoOffer() {
         // then
-        assertEquals(0, offerRepository.findOffersByDescription("offer one").size());
+        assertEquals(0, offerRepository.findOffersByDescription("offer one", LocalDateTime.now()).size());
     }
 
     @Test
     public void givenNull_thenReturnNoOffer() {
         // then
-        assertEquals(0, offerRepository.findOffersByDescription(null).size());
+        assertEquals(0, offerRepository.findOffersByDescription(null, LocalDateTime.now()).size());
     }
 
     @Test
@@ -127,6 +179,176 @@ public class OfferRepositoryTest {
 
     }
 
+    @Test
+    public void givenOffers_whenPaging_thenReturnOffersAfterIdInOrder() {
+        // given
+        Offer offerOne = getOfferObject("one", "offer one", LocalDateTime.now().plusHours(1));
+        Offer offerTwo = getOfferObject("two", "offer two", LocalDateTime.now().plusHours(1));
+        Offer offerThree = getOfferObject("three", "offer three", LocalDateTime.now().plusHours(1));
+
+        // when
+        entityManager.persist(offerOne);
+        entityManager.persist(offerTwo);
+        entityManager.persist(offerThree);
+        entityManager.flush();
+        List<OfferView> page = offerRepository.findOffersPage(offerOne.getId(), EnumSet.allOf(Status.class),
+                LocalDateTime.now().minusYears(1), LocalDateTime.now().plusYears(1), LocalDateTime.now(), PageRequest.of(0, 1));
+
+        // then
+        assertEquals(1, page.size());
+        assertEquals(offerTwo.getId(), page.get(0).getId());
+    }
+
+    @Test
+    public void givenOffers_whenPagingWithFilters_thenReturnMatchingOffers() {
+        // given
+        Offer offerOne = getOfferObject("one", "offer one", LocalDateTime.now().plusHours(1));
+        Offer offerTwo = getOfferObject("two", "offer two", LocalDateTime.now().plusHours(3));
+        Offer offerThree = getOfferObject("three", "offer three", LocalDateTime.now().plusHours(1));
+        offerThree.setStatus(Status.CANCELLED);
+
+        // when
+        entityManager.persist(offerOne);
+        entityManager.persist(offerTwo);
+        entityManager.persist(offerThree);
+        entityManager.flush();
+        List<OfferView> page = offerRepository.findOffersPage(0L, EnumSet.of(Status.ACTIVE),
+                LocalDateTime.now(), LocalDateTime.now().plusHours(2), LocalDateTime.now(), PageRequest.of(0, 10));
+
+        // then
+        assertEquals(1, page.size());
+        assertEquals(offerOne.getId(), page.get(0).getId());
+    }
+
+    @Test
+    public void givenExpiredOffers_whenFindingExpiredIds_thenReturnOffersExpiredInWindowByExpiry() {
+        // given
+        Offer offerOne = getOfferObject("one", "offer one", LocalDateTime.now().minusMinutes(1));
+        Offer offerTwo = getOfferObject("two", "offer two", LocalDateTime.now().minusMinutes(2));
+        Offer offerThree = getOfferObject("three", "offer three", LocalDateTime.now().minusHours(2));
+        Offer offerFour = getOfferObject("four", "offer four", LocalDateTime.now().plusHours(1));
+
+        // when
+        entityManager.persist(offerOne);
+        entityManager.persist(offerTwo);
+        entityManager.persist(offerThree);
+        entityManager.persist(offerFour);
+        entityManager.flush();
+        List<Long> ids = offerRepository.findExpiredOfferIds(LocalDateTime.now().minusHours(1), LocalDateTime.now(),
+                PageRequest.of(0, 10));
+
+        // then
+        assertEquals(Arrays.asList(offerTwo.getId(), offerOne.getId()), ids);
+    }
+
+    @Test
+    public void givenActiveOffers_whenFindingActiveIdsByDescription_thenReturnUnexpiredMatches() {
+        // given
+        Offer offerOne = getOfferObject("one", "offer one", LocalDateTime.now().plusHours(1));
+        Offer offerTwo = getOfferObject("two", "offer two", LocalDateTime.now().plusHours(1));
+        Offer offerThree = getOfferObject("three", "another one", LocalDateTime.now().minusHours(1));
+        Offer offerFour = getOfferObject("four", "last one", LocalDateTime.now().plusHours(1));
+        offerFour.setStatus(Status.CANCELLED);
+
+        // when
+        entityManager.persist(offerOne);
+        entityManager.persist(offerTwo);
+        entityManager.persist(offerThree);
+        entityManager.persist(offerFour);
+        entityManager.flush();
+        List<Long> ids = offerRepository.findActiveOfferIds("%ONE", LocalDateTime.now(),
+                LocalDateTime.now().plusDays(1), PageRequest.of(0, 10));
+
+        // then
+        assertEquals(Collections.singletonList(offerOne.getId()), ids);
+    }
+
+    @Test
+    public void givenActiveOffers_whenCancellingOffers_thenOnlyActiveUnexpiredOffersCancelled() {
+        // given
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Offer offerOne = getOfferObject("one", "offer one", now.plusHours(1));
+        Offer offerTwo = getOfferObject("two", "offer two", now.minusHours(1));
+        Offer offerThree = getOfferObject("three", "offer three", now.plusHours(1));
+        offerThree.setStatus(Status.CANCELLED);
+
+        // when
+        entityManager.persist(offerOne);
+        entityManager.persist(offerTwo);
+        entityManager.persist(offerThree);
+        entityManager.flush();
+        List<Long> ids = Arrays.asList(offerOne.getId(), offerTwo.getId(), offerThree.getId());
+        List<Long> cancellable = offerRepository.lockCancellableOfferIds(ids, now);
+        int cancelled = offerRepository.cancelOffers(ids, now);
+        List<Object[]> statuses = offerRepository.findStatuses(ids);
+
+        // then
+        assertEquals(Collections.singletonList(offerOne.getId()), cancellable);
+        assertEquals(1, cancelled);
+        assertEquals(3, statuses.size());
+        for (Object[] row : statuses) {
+            if (offerOne.getId().equals(row[0])) {
+                assertEquals(Status.CANCELLED, row[1]);
+                assertEquals(now, row[2]);
+            } else if (offerTwo.getId().equals(row[0])) {
+                assertEquals(Status.ACTIVE, row[1]);
+            }
+        }
+        Object[] version = offerRepository.findVersions(Collections.singletonList(offerOne.getId())).get(0);
+        assertEquals(Status.CANCELLED, version[1]);
+        assertEquals(offerOne.getVersion() + 1, version[3]);
+    }
+
+    @Test
+    public void givenActiveOffer_whenCancellingTwice_thenOnlyFirstCancelAppliesAndVersionIsIncremented() {
+        // given
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Offer offerOne = getOfferObject("one", "offer one", now.plusHours(1));
+        Offer offerTwo = getOfferObject("two", "offer two", now.minusHours(1));
+
+        // when
+        entityManager.persist(offerOne);
+        entityManager.persist(offerTwo);
+        entityManager.flush();
+        long version = offerOne.getVersion();
+        int first = offerRepository.cancelOffer(offerOne.getId(), now);
+        int second = offerRepository.cancelOffer(offerOne.getId(), now.plusSeconds(1));
+        int expired = offerRepository.cancelOffer(offerTwo.getId(), now);
+
+        // then
+        assertEquals(1, first);
+        assertEquals(0, second);
+        assertEquals(0, expired);
+        Offer cancelled = offerRepository.findById(offerOne.getId()).get();
+        assertEquals(Status.CANCELLED, cancelled.getStatus());
+        assertEquals(now, cancelled.getExpiryDate());
+        assertEquals(version + 1, cancelled.getVersion());
+    }
+
+    @Test
+    public void givenOffers_whenLockingAndExpiringActiveOffers_thenOnlyActiveOffersExpired() {
+        // given
+        LocalDateTime now = LocalDateTime.now();
+        Offer offerOne = getOfferObject("one", "offer one", now.minusHours(1));
+        Offer offerTwo = getOfferObject("two", "offer two", now.minusHours(1));
+        offerTwo.setStatus(Status.CANCELLED);
+        Offer offerThree = getOfferObject("three", "offer three", now.minusHours(1));
+
+        // when
+        entityManager.persist(offerOne);
+        entityManager.persist(offerTwo);
+        entityManager.persist(offerThree);
+        entityManager.flush();
+        List<Long> active = offerRepository.lockActiveOfferIds(
+                Arrays.asList(offerThree.getId(), offerTwo.getId(), offerOne.getId()));
+        int expired = offerRepository.expireOffers(active);
+
+        // then
+        assertEquals(Arrays.asList(offerOne.getId(), offerThree.getId()), active);
+        assertEquals(2, expired);
+        assertEquals(0, offerRepository.lockActiveOfferIds(active).size());
+    }
+
 
     private Offer getOfferObject(String name, String description, LocalDateTime expiry) {
         Offer offer = new Offer();
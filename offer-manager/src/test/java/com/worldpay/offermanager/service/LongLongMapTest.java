@@ -0,0 +1,75 @@
+package com.worldpay.offermanager.service;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongLongMapTest {
+
+    private final LongLongMap map = new LongLongMap(4, -1);
+
+    @Test
+    public void put_thenGetValueAndPreviousValueReturned() {
+        assertEquals(-1, map.put(42l, 7));
+        assertEquals(7, map.put(42l, 8));
+        assertEquals(8, map.get(42l));
+        assertEquals(-1, map.get(43l));
+        assertTrue(map.containsKey(42l));
+        assertFalse(map.containsKey(43l));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void put_whenKeyIsZero_thenHeldApart() {
+        assertFalse(map.containsKey(0l));
+        map.put(0l, 5);
+        assertEquals(5, map.get(0l));
+        assertEquals(1, map.size());
+        assertEquals(5, map.remove(0l));
+        assertEquals(-1, map.get(0l));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void remove_whenValueDiffers_thenKept() {
+        map.put(1l, 10);
+        assertFalse(map.remove(1l, 11));
+        assertFalse(map.remove(2l, -1));
+        assertTrue(map.remove(1l, 10));
+        assertFalse(map.containsKey(1l));
+    }
+
+    @Test
+    public void clear_thenEmpty() {
+        map.put(0l, 1);
+        map.put(1l, 2);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(0l));
+        assertFalse(map.containsKey(1l));
+    }
+
+    @Test
+    public void operations_whenRandom_thenSameAsHashMap() {
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            // a small key range so keys collide, get removed and come back
+            long key = random.nextInt(5000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, -1l).longValue(), map.remove(key));
+                expected.remove(key);
+            } else {
+                assertEquals(expected.getOrDefault(key, -1l).longValue(), map.put(key, i));
+                expected.put(key, (long) i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = -100; key < 4900; key++)
+            assertEquals(expected.getOrDefault(key, -1l).longValue(), map.get(key));
+    }
+}
@@ -0,0 +1,59 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.model.Offer;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class OfferCacheTest {
+
+    private OfferCache offerCache = new OfferCache(new OfferProperties());
+
+    @Test
+    public void get_whenCached_thenLoaderNotCalledAgain() {
+        AtomicInteger loads = new AtomicInteger();
+        Offer offer = new Offer();
+
+        assertSame(offer, offerCache.get(1l, id -> { loads.incrementAndGet(); return offer; }));
+        assertSame(offer, offerCache.get(1l, id -> { loads.incrementAndGet(); return offer; }));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, offerCache.stats().hitCount());
+        assertEquals(1, offerCache.stats().missCount());
+    }
+
+    @Test
+    public void get_whenLoaderFindsNothing_thenNothingCached() {
+        assertNull(offerCache.get(1l, id -> null));
+        assertEquals(0, offerCache.size());
+    }
+
+    @Test
+    public void invalidate_thenOfferLoadedAgain() {
+        Offer offer = new Offer();
+        offerCache.get(1l, id -> offer);
+        offerCache.get(2l, id -> offer);
+
+        offerCache.invalidate(1l);
+        offerCache.invalidateAll(Collections.singletonList(2l));
+
+        assertEquals(0, offerCache.size());
+    }
+
+    @Test
+    public void get_whenDisabled_thenNothingCached() {
+        OfferProperties offerProperties = new OfferProperties();
+        offerProperties.getCache().setEnabled(false);
+        OfferCache disabledCache = new OfferCache(offerProperties);
+        AtomicInteger loads = new AtomicInteger();
+
+        disabledCache.get(1l, id -> { loads.incrementAndGet(); return new Offer(); });
+        disabledCache.get(1l, id -> { loads.incrementAndGet(); return new Offer(); });
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,45 @@
+package com.worldpay.offermanager.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OfferDictionaryTest {
+
+    private final OfferDictionary dictionary = new OfferDictionary();
+
+    @Test
+    public void encode_whenTextAlreadyStored_thenReturnSameCode() {
+        int code = dictionary.encode("summer offer");
+        assertEquals(code, dictionary.encode("summer offer"));
+        assertNotEquals(code, dictionary.encode("winter offer"));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    public void decode_thenReturnEncodedText() {
+        String text = "café €10 🎁 offer";
+        assertEquals(text, dictionary.decode(dictionary.encode(text)));
+        assertEquals("", dictionary.decode(dictionary.encode("")));
+    }
+
+    @Test
+    public void chars_thenDecodeIntoBuffer() {
+        int code = dictionary.encode("été");
+        char[] chars = new char[dictionary.length(code)];
+        assertEquals(5, chars.length);
+        assertEquals(3, dictionary.chars(code, chars));
+        assertEquals("été", new String(chars, 0, 3));
+    }
+
+    @Test
+    public void encode_whenManyTexts_thenEveryTextFoundAfterGrowing() {
+        for (int i = 0; i < 10000; i++)
+            assertEquals(i, dictionary.encode("offer " + i));
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, dictionary.encode("offer " + i));
+            assertEquals("offer " + i, dictionary.decode(i));
+        }
+        assertEquals(10000, dictionary.size());
+    }
+}
@@ -0,0 +1,173 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.MetricsConfig;
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.exception.ValidationException;
+import com.worldpay.offermanager.model.OfferEvent;
+import com.worldpay.offermanager.model.OfferEventPage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OfferEventFeedTest {
+
+    @Mock
+    private OfferEventLog offerEventLog;
+
+    private final OfferProperties offerProperties = new OfferProperties();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OfferEventFeed offerEventFeed;
+
+    @Before
+    public void setUp() {
+        offerProperties.getEvents().setPublishBatchSize(2);
+        offerProperties.getEvents().setMaxPageSize(3);
+        offerProperties.getEvents().setMaxWait(Duration.ofSeconds(10));
+        offerEventFeed = new OfferEventFeed(offerEventLog, offerProperties, meterRegistry);
+    }
+
+    @After
+    public void tearDown() {
+        offerEventFeed.stop();
+    }
+
+    @Test
+    public void publish_whenMoreThanOneBatch_thenEveryBatchPublished() {
+        given(offerEventLog.publish(0, 2)).willReturn(events(1, 2));
+        given(offerEventLog.publish(2, 2)).willReturn(events(3, 3));
+
+        offerEventFeed.publish();
+        assertEquals(3, offerEventFeed.getLastOffset());
+        assertEquals(3, meterRegistry.get(MetricsConfig.EVENT_OFFSET).gauge().value(), 0);
+    }
+
+    @Test
+    public void publish_whenOffsetTakenByAnotherInstance_thenLastOffsetReadAgain() {
+        given(offerEventLog.publish(0, 2)).willThrow(new DataIntegrityViolationException("duplicate offset"));
+        given(offerEventLog.lastOffset()).willReturn(5l);
+        CompletableFuture<OfferEventPage> events = offerEventFeed.awaitEvents(0, 10);
+
+        try {
+            offerEventFeed.publish();
+            fail("A publish failure should be thrown");
+        } catch (DataIntegrityViolationException e) {
+            assertEquals(5, offerEventFeed.getLastOffset());
+        }
+
+        given(offerEventLog.publish(5, 2)).willReturn(events(6, 6));
+        given(offerEventLog.read(0, 3)).willReturn(events(1, 3));
+        offerEventFeed.publish();
+        assertEquals(6, offerEventFeed.getLastOffset());
+        assertEquals(3, events.join().getLastOffset());
+    }
+
+    @Test
+    public void awaitEvents_whenPublished_thenCompletedWithPublishedEvents() {
+        given(offerEventLog.publish(0, 2)).willReturn(events(1, 2));
+        given(offerEventLog.publish(2, 2)).willReturn(events(3, 4), Collections.emptyList());
+
+        CompletableFuture<OfferEventPage> events = offerEventFeed.awaitEvents(0, 10);
+        assertFalse(events.isDone());
+        assertEquals(1, meterRegistry.get(MetricsConfig.EVENT_WAITERS).gauge().value(), 0);
+
+        offerEventFeed.publish();
+        OfferEventPage page = events.join();
+        assertEquals(3, page.getEvents().size());
+        assertEquals(3, page.getLastOffset());
+        assertEquals(0, meterRegistry.get(MetricsConfig.EVENT_WAITERS).gauge().value(), 0);
+        verify(offerEventLog, never()).read(anyLong(), anyInt());
+    }
+
+    @Test
+    public void awaitEvents_whenEventsAlreadyPublished_thenReadRightAway() {
+        given(offerEventLog.publish(0, 2)).willReturn(events(1, 1));
+        offerEventFeed.publish();
+        given(offerEventLog.read(0, 2)).willReturn(events(1, 1));
+
+        OfferEventPage page = offerEventFeed.awaitEvents(0, 2).join();
+        assertEquals(1, page.getLastOffset());
+    }
+
+    @Test
+    public void awaitEvents_whenCancelled_thenDroppedOnNextPublish() {
+        given(offerEventLog.publish(0, 2)).willReturn(Collections.emptyList());
+
+        offerEventFeed.awaitEvents(0, null).cancel(false);
+        offerEventFeed.publish();
+        assertEquals(0, meterRegistry.get(MetricsConfig.EVENT_WAITERS).gauge().value(), 0);
+    }
+
+    @Test
+    public void read_whenNoEvents_thenLastOffsetIsTheOffsetAskedFor() {
+        given(offerEventLog.read(5, 3)).willReturn(Collections.emptyList());
+
+        OfferEventPage page = offerEventFeed.read(5, 100);
+        assertTrue(page.getEvents().isEmpty());
+        assertEquals(5, page.getLastOffset());
+    }
+
+    @Test(expected = ValidationException.class)
+    public void read_whenNegativeOffset_thenExceptionThrown() {
+        offerEventFeed.read(-1, null);
+    }
+
+    @Test(expected = ValidationException.class)
+    public void read_whenLimitNotPositive_thenExceptionThrown() {
+        offerEventFeed.read(0, 0);
+    }
+
+    @Test
+    public void waitTime_thenCappedByMaxWait() {
+        assertEquals(Duration.ZERO, offerEventFeed.waitTime(0));
+        assertEquals(Duration.ofSeconds(5), offerEventFeed.waitTime(5));
+        assertEquals(Duration.ofSeconds(10), offerEventFeed.waitTime(60));
+    }
+
+    @Test
+    public void appended_thenPublisherWokenUp() {
+        offerProperties.getEvents().setPublishInterval(Duration.ofMinutes(1));
+        offerEventFeed = new OfferEventFeed(offerEventLog, offerProperties, meterRegistry);
+        given(offerEventLog.publish(0, 2)).willReturn(events(1, 1));
+
+        offerEventFeed.start();
+        offerEventFeed.appended(null);
+        verify(offerEventLog, timeout(2000)).publish(0, 2);
+    }
+
+    private static List<OfferEvent> events(long from, long to) {
+        List<OfferEvent> events = new ArrayList<>();
+        for (long offset = from; offset <= to; offset++) {
+            OfferEvent event = new OfferEvent(offset, OfferEvent.Type.CREATED, LocalDateTime.now());
+            event.setOffset(offset);
+            events.add(event);
+        }
+        return events;
+    }
+}
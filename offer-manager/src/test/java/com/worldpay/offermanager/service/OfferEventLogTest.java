@@ -0,0 +1,106 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.model.OfferEvent;
+import com.worldpay.offermanager.repository.OfferEventRepository;
+import com.worldpay.offermanager.repository.OfferRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the publishers of two instances against the same offer_event table, each publish in a transaction of its own
+ * as the feed runs it.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OfferEventLogTest {
+
+    @Autowired
+    private OfferEventRepository offerEventRepository;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @After
+    public void tearDown() {
+        offerEventRepository.deleteAll();
+    }
+
+    @Test
+    public void publish_whenTwoPublishersReadTheSameEvents_thenOffsetsOfTheFirstCommitKept() {
+        LocalDateTime now = LocalDateTime.now();
+        offerEventRepository.saveAll(Arrays.asList(new OfferEvent(1, OfferEvent.Type.CREATED, now),
+                new OfferEvent(2, OfferEvent.Type.CREATED, now)));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        OfferEventLog other = offerEventLog(offerEventRepository);
+        // the other publisher commits its offsets after this one has read the events, before it gives them offsets
+        OfferEventRepository racingRepository = mock(OfferEventRepository.class, delegatesTo(offerEventRepository));
+        doAnswer(invocation -> {
+            List<OfferEvent> events = offerEventRepository.findUnpublishedEvents(invocation.<Pageable>getArgument(0));
+            transaction.execute(status -> other.publish(0, 10));
+            return events;
+        }).when(racingRepository).findUnpublishedEvents(any());
+        OfferEventLog publisher = offerEventLog(racingRepository);
+
+        try {
+            transaction.execute(status -> publisher.publish(5, 10));
+            fail("Events published by another publisher should not be published again");
+        } catch (OptimisticLockingFailureException e) {
+            List<OfferEvent> published = offerEventRepository.findEventsAfter(0, PageRequest.of(0, 10));
+            assertEquals(Arrays.asList(1l, 2l), published.stream().map(OfferEvent::getOffset).collect(Collectors.toList()));
+            assertEquals(Arrays.asList(1l, 2l), published.stream().map(OfferEvent::getOfferId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void publish_thenUnpublishedEventsGivenTheNextOffsets() {
+        LocalDateTime now = LocalDateTime.now();
+        offerEventRepository.saveAll(Arrays.asList(new OfferEvent(1, OfferEvent.Type.CREATED, now),
+                new OfferEvent(1, OfferEvent.Type.CANCELLED, now), new OfferEvent(2, OfferEvent.Type.CREATED, now)));
+        OfferEventLog publisher = offerEventLog(offerEventRepository);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        List<OfferEvent> events = transaction.execute(status -> publisher.publish(3, 2));
+        assertEquals(Arrays.asList(4l, 5l), events.stream().map(OfferEvent::getOffset).collect(Collectors.toList()));
+        assertEquals(Long.valueOf(5), offerEventRepository.findLastOffset());
+        assertEquals(1, offerEventRepository.findUnpublishedEvents(PageRequest.of(0, 10)).size());
+    }
+
+    private OfferEventLog offerEventLog(OfferEventRepository offerEventRepository) {
+        return new OfferEventLog(offerEventRepository, offerRepository, eventPublisher, new OfferProperties());
+    }
+}
@@ -0,0 +1,110 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.repository.OfferRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OfferExpirySchedulerTest {
+
+    @Mock
+    private OfferRepository offerRepository;
+
+    @Spy
+    private OfferProperties offerProperties = new OfferProperties();
+
+    @Mock
+    private OfferCache offerCache;
+
+    @Mock
+    private OfferStore offerStore;
+
+    @Mock
+    private OfferEventLog offerEventLog;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private OfferExpiryScheduler offerExpiryScheduler;
+
+    @After
+    public void tearDown() {
+        offerExpiryScheduler.stop();
+    }
+
+    @Test
+    public void load_thenActiveOffersExpireAtTheirExpiryDate() {
+        given(offerRepository.streamActiveExpiryDates()).willReturn(Stream.<Object[]>of(
+                new Object[]{1l, LocalDateTime.now().plusNanos(100_000_000)},
+                new Object[]{2l, LocalDateTime.now().plusHours(1)}));
+
+        offerExpiryScheduler.load();
+        assertEquals(2, offerExpiryScheduler.size());
+
+        verify(offerEventLog, timeout(2000)).expire(eq(Collections.singletonList(1l)), any(LocalDateTime.class));
+        assertEquals(1, offerExpiryScheduler.size());
+    }
+
+    @Test
+    public void schedule_whenOfferAlreadyExpired_thenExpiredStraightAway() {
+        offerExpiryScheduler.start();
+        offerExpiryScheduler.schedule(1l, LocalDateTime.now().minusSeconds(1));
+
+        verify(offerEventLog, timeout(2000)).expire(eq(Collections.singletonList(1l)), any(LocalDateTime.class));
+    }
+
+    @Test
+    public void cancel_thenOfferNotExpired() {
+        offerExpiryScheduler.start();
+        offerExpiryScheduler.schedule(1l, LocalDateTime.now().plusNanos(100_000_000));
+        offerExpiryScheduler.cancel(1l);
+
+        verify(offerEventLog, after(500).never()).expire(anyCollection(), any(LocalDateTime.class));
+        assertEquals(0, offerExpiryScheduler.size());
+    }
+
+    @Test
+    public void cancel_whenManyOffersCancelled_thenTheirTasksDroppedFromTheQueue() {
+        LocalDateTime expiryDate = LocalDateTime.now().plusDays(90);
+        for (long id = 1; id <= 5000; id++)
+            offerExpiryScheduler.schedule(id, expiryDate);
+        for (long id = 1; id <= 4000; id++)
+            offerExpiryScheduler.cancel(id);
+
+        assertEquals(1000, offerExpiryScheduler.size());
+        assertTrue(offerExpiryScheduler.queued() < 2000);
+    }
+
+    @Test
+    public void schedule_whenDisabled_thenNothingScheduled() {
+        offerProperties.getExpiry().setSchedulerEnabled(false);
+        OfferExpiryScheduler disabled = new OfferExpiryScheduler(offerRepository, offerProperties, offerCache,
+                offerStore, offerEventLog, meterRegistry);
+        disabled.schedule(1l, LocalDateTime.now().plusHours(1));
+
+        assertEquals(0, disabled.size());
+    }
+}
@@ -0,0 +1,109 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.MetricsConfig;
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.repository.OfferRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OfferExpirySweeperTest {
+
+    @Mock
+    private OfferRepository offerRepository;
+
+    @Spy
+    private OfferProperties offerProperties = new OfferProperties();
+
+    @Mock
+    private OfferCache offerCache;
+
+    @Mock
+    private OfferStore offerStore;
+
+    @Mock
+    private OfferEventLog offerEventLog;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private OfferExpirySweeper offerExpirySweeper;
+
+    @Before
+    public void setUp() {
+        offerProperties.getExpiry().setBatchSize(2);
+    }
+
+    @Test
+    public void refreshOfferStatus_whenMoreThanOneBatch_thenEveryBatchIsExpired() {
+        given(offerRepository.findExpiredOfferIds(any(LocalDateTime.class), any(LocalDateTime.class), eq(PageRequest.of(0, 2))))
+                .willReturn(Arrays.asList(1l, 2l), Collections.singletonList(3l));
+        given(offerEventLog.expire(eq(Arrays.asList(1l, 2l)), any(LocalDateTime.class))).willReturn(2);
+        given(offerEventLog.expire(eq(Collections.singletonList(3l)), any(LocalDateTime.class))).willReturn(1);
+
+        assertEquals(3, offerExpirySweeper.refreshOfferStatus());
+        verify(offerEventLog, times(2)).expire(anyCollection(), any(LocalDateTime.class));
+        verify(offerCache, times(1)).invalidateAll(Arrays.asList(1l, 2l));
+        verify(offerCache, times(1)).invalidateAll(Collections.singletonList(3l));
+    }
+
+    @Test
+    public void refreshOfferStatus_thenExpiredOffersAndBatchesAreMeasured() {
+        given(offerRepository.findExpiredOfferIds(any(LocalDateTime.class), any(LocalDateTime.class), eq(PageRequest.of(0, 2))))
+                .willReturn(Arrays.asList(1l, 2l), Collections.singletonList(3l));
+        given(offerEventLog.expire(anyCollection(), any(LocalDateTime.class))).willReturn(2, 1);
+
+        offerExpirySweeper.refreshOfferStatus();
+        assertEquals(3, meterRegistry.counter(MetricsConfig.EXPIRED_OFFERS, "source", "sweeper").count(), 0);
+        assertEquals(2, meterRegistry.timer(MetricsConfig.EXPIRY_BATCH_TIMER, "source", "sweeper").count());
+    }
+
+    @Test
+    public void refreshOfferStatus_whenNothingExpired_thenNothingUpdated() {
+        given(offerRepository.findExpiredOfferIds(any(LocalDateTime.class), any(LocalDateTime.class), any(PageRequest.class)))
+                .willReturn(Collections.emptyList());
+
+        assertEquals(0, offerExpirySweeper.refreshOfferStatus());
+        verify(offerEventLog, never()).expire(anyCollection(), any(LocalDateTime.class));
+    }
+
+    @Test
+    public void refreshOfferStatus_thenNextRunStartsFromWatermark() {
+        given(offerRepository.findExpiredOfferIds(any(LocalDateTime.class), any(LocalDateTime.class), any(PageRequest.class)))
+                .willReturn(Collections.emptyList());
+        LocalDateTime before = LocalDateTime.now();
+
+        offerExpirySweeper.refreshOfferStatus();
+        LocalDateTime watermark = offerExpirySweeper.getWatermark();
+        assertTrue(!watermark.isBefore(before.minus(offerProperties.getExpiry().getWatermarkLag())));
+
+        offerExpirySweeper.refreshOfferStatus();
+        verify(offerRepository, times(1)).findExpiredOfferIds(eq(OfferExpirySweeper.INITIAL_WATERMARK),
+                any(LocalDateTime.class), any(PageRequest.class));
+        verify(offerRepository, times(1)).findExpiredOfferIds(eq(watermark), any(LocalDateTime.class),
+                any(PageRequest.class));
+    }
+}
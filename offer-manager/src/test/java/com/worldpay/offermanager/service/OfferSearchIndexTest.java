@@ -0,0 +1,74 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.repository.OfferRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OfferSearchIndexTest {
+
+    @Mock
+    private OfferRepository offerRepository;
+
+    private final OfferProperties offerProperties = new OfferProperties();
+
+    private OfferSearchIndex offerSearchIndex;
+
+    @Before
+    public void setUp() {
+        offerProperties.getSearch().setIndexEnabled(true);
+        offerSearchIndex = new OfferSearchIndex(offerRepository, offerProperties);
+        given(offerRepository.streamDescriptions()).willReturn(Stream.of(
+                new Object[]{1l, "Two hour offer"},
+                new Object[]{2l, "One day OFFER"}));
+        offerSearchIndex.load();
+    }
+
+    @Test
+    public void candidates_whenSubstringMatches_thenReturnMatchingIds() {
+        assertArrayEquals(new long[]{1l}, offerSearchIndex.candidates("%hour%", 10));
+    }
+
+    @Test
+    public void candidates_isCaseInsensitive() {
+        assertArrayEquals(new long[]{1l, 2l}, offerSearchIndex.candidates("%Offer", 10));
+    }
+
+    @Test
+    public void candidates_whenAddedAfterLoad_thenReturnAddedId() {
+        offerSearchIndex.add(3l, "three hour offer");
+        assertArrayEquals(new long[]{1l, 3l}, offerSearchIndex.candidates("%hour%", 10));
+    }
+
+    @Test
+    public void candidates_whenNoMatch_thenReturnNoId() {
+        assertArrayEquals(new long[0], offerSearchIndex.candidates("%week%", 10));
+    }
+
+    @Test
+    public void candidates_whenPatternHasNoTrigram_thenReturnNull() {
+        assertNull(offerSearchIndex.candidates("%of%", 10));
+    }
+
+    @Test
+    public void candidates_whenMoreThanMaxCandidates_thenReturnNull() {
+        assertNull(offerSearchIndex.candidates("%Offer", 1));
+        assertArrayEquals(new long[]{2l}, offerSearchIndex.candidates("%day offer", 1));
+    }
+
+    @Test
+    public void isPrefixPattern() {
+        assertTrue(OfferSearchIndex.isPrefixPattern("offer%"));
+        assertFalse(OfferSearchIndex.isPrefixPattern("%offer"));
+        assertFalse(OfferSearchIndex.isPrefixPattern("_offer"));
+    }
+}
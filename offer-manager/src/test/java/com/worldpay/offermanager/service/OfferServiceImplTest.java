@@ -1,24 +1,43 @@
 package com.worldpay.offermanager.service;
 
+import com.worldpay.offermanager.config.OfferProperties;
 import com.worldpay.offermanager.exception.OfferNotFoundException;
 import com.worldpay.offermanager.exception.ValidationException;
+import com.worldpay.offermanager.model.BulkCancelRequest;
+import com.worldpay.offermanager.model.BulkCancelResult;
+import com.worldpay.offermanager.model.BulkOfferResult;
 import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferPage;
+import com.worldpay.offermanager.model.OfferQuery;
+import com.worldpay.offermanager.model.OfferView;
 import com.worldpay.offermanager.model.Status;
 import com.worldpay.offermanager.repository.OfferRepository;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.EntityManager;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -28,6 +47,27 @@ public class OfferServiceImplTest {
     @Mock
     private OfferRepository offerRepository;
 
+    @Spy
+    private OfferProperties offerProperties = new OfferProperties();
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private OfferCache offerCache = new OfferCache(new OfferProperties());
+
+    @Mock
+    private OfferSearchIndex offerSearchIndex;
+
+    @Mock
+    private OfferExpiryScheduler offerExpiryScheduler;
+
+    @Mock
+    private OfferStore offerStore;
+
+    @Mock
+    private OfferEventLog offerEventLog;
+
     @InjectMocks
     private OfferServiceImpl offerService;
 
@@ -54,6 +94,28 @@ public class OfferServiceImplTest {
         verify(offerRepository, times(1)).findById(1l);
     }
 
+    @Test
+    public void getOfferById_whenCached_thenRepositoryNotQueriedAgain() {
+        Offer givenOffer = getOfferObject("One","Offer one",LocalDateTime.now().plusHours(1));
+        given(offerRepository.findById(1l)).willReturn(Optional.of(givenOffer));
+
+        offerService.getOfferById(1l);
+        Offer offer = offerService.getOfferById(1l);
+        assertSame(givenOffer, offer);
+        verify(offerRepository, times(1)).findById(1l);
+    }
+
+    @Test
+    public void getOfferById_whenCachedOfferExpires_thenReturnExpiredOffer() {
+        Offer givenOffer = getOfferObject("One","Offer one",LocalDateTime.now().plusHours(1));
+        given(offerRepository.findById(1l)).willReturn(Optional.of(givenOffer));
+
+        offerService.getOfferById(1l);
+        givenOffer.setExpiryDate(LocalDateTime.now().minusSeconds(1));
+        assertEquals(Status.EXPIRED, offerService.getOfferById(1l).getStatus());
+        assertEquals(Status.ACTIVE, givenOffer.getStatus());
+    }
+
     @Test(expected = OfferNotFoundException.class)
     public void getOfferById_whenOfferDoesNotExist_thenExceptionIsThrown() {
         given(offerRepository.findById(2l)).willReturn(Optional.<Offer>empty());
@@ -70,9 +132,83 @@ public class OfferServiceImplTest {
         Offer returnedOffer = offerService.addOffer(givenOffer);
         assertNotNull(returnedOffer);
         verify(offerRepository, times(1)).save(any(Offer.class));
+        verify(offerExpiryScheduler, times(1)).schedule(givenOffer.getId(), givenOffer.getExpiryDate());
+        verify(offerEventLog, times(1)).created(eq(Collections.singletonList(givenOffer)), any(LocalDateTime.class));
+    }
+
+    @Test
+    public void addOffer_whenInTransaction_thenIndexedAndScheduledOnCommit() {
+        Offer givenOffer = getOfferObject("One","Offer one",LocalDateTime.now().plusHours(1));
+        given(offerRepository.save(givenOffer)).willReturn(givenOffer);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            offerService.addOffer(givenOffer);
+            verify(offerSearchIndex, never()).add(givenOffer.getId(), "Offer one");
+            verify(offerExpiryScheduler, never()).schedule(givenOffer.getId(), givenOffer.getExpiryDate());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(offerCache, times(1)).invalidate(givenOffer.getId());
+        verify(offerSearchIndex, times(1)).add(givenOffer.getId(), "Offer one");
+        verify(offerExpiryScheduler, times(1)).schedule(givenOffer.getId(), givenOffer.getExpiryDate());
+    }
+
+    @Test
+    public void addOffer_whenRolledBack_thenNeitherIndexedNorScheduled() {
+        Offer givenOffer = getOfferObject("One","Offer one",LocalDateTime.now().plusHours(1));
+        given(offerRepository.save(givenOffer)).willReturn(givenOffer);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            offerService.addOffer(givenOffer);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(offerSearchIndex, never()).add(any(), any());
+        verify(offerExpiryScheduler, never()).schedule(any(), any());
     }
 
 
+    @Test
+    public void addOffers_thenValidOffersSavedInBatchesAndInvalidOffersRejected()
+    {
+        offerProperties.getBulk().setBatchSize(2);
+        List<Offer> givenOffers = Arrays.asList(
+                getOfferObject("One","Offer one",LocalDateTime.now().plusHours(1)),
+                getOfferObject(null,"Offer two",LocalDateTime.now().plusHours(1)),
+                getOfferObject("Three","Offer three",LocalDateTime.now().plusHours(1)),
+                null,
+                getOfferObject("Five","Offer five",LocalDateTime.now().plusHours(1)));
+
+        List<BulkOfferResult> results = offerService.addOffers(givenOffers);
+
+        assertEquals(5, results.size());
+        assertEquals(BulkOfferResult.Outcome.CREATED, results.get(0).getOutcome());
+        assertEquals(BulkOfferResult.Outcome.REJECTED, results.get(1).getOutcome());
+        assertEquals("Offer name can not be empty", results.get(1).getMessage());
+        assertEquals(BulkOfferResult.Outcome.CREATED, results.get(2).getOutcome());
+        assertEquals(BulkOfferResult.Outcome.REJECTED, results.get(3).getOutcome());
+        assertEquals(4, results.get(4).getIndex());
+        assertEquals(BulkOfferResult.Outcome.CREATED, results.get(4).getOutcome());
+        verify(offerRepository, times(1)).saveAll(Arrays.asList(givenOffers.get(0), givenOffers.get(2)));
+        verify(offerEventLog, times(1)).created(eq(Arrays.asList(givenOffers.get(0), givenOffers.get(2))), any(LocalDateTime.class));
+        verify(offerEventLog, times(1)).created(eq(Collections.singletonList(givenOffers.get(4))), any(LocalDateTime.class));
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test(expected = ValidationException.class)
+    public void addOffers_whenTooManyOffers_thenExceptionThrown()
+    {
+        offerProperties.getBulk().setMaxSize(1);
+        offerService.addOffers(Arrays.asList(new Offer(), new Offer()));
+    }
+
     @Test(expected = ValidationException.class)
     public void addInValidNameOffer_thenExceptionThrown()
     {
@@ -118,13 +254,57 @@ public class OfferServiceImplTest {
 
     @Test
     public void cancelOffer_thenChangeExpiryDate() {
-        LocalDateTime futureExpiryDate =LocalDateTime.now().plusHours(1);
-        Offer givenOffer = getOfferObject("One","Offer one", futureExpiryDate);
+        LocalDateTime before = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Offer cancelledOffer = getOfferObject("One","Offer one", before);
+        cancelledOffer.setStatus(Status.CANCELLED);
+        given(offerRepository.cancelOffer(eq(1l), any(LocalDateTime.class))).willReturn(1);
+        given(offerRepository.findById(1l)).willReturn(Optional.of(cancelledOffer));
+
+        assertEquals(cancelledOffer, offerService.cancelOffer(1l));
+        verify(offerRepository, times(1)).cancelOffer(eq(1l), argThat(now -> !now.isBefore(before)));
+        verify(offerRepository, never()).save(any(Offer.class));
+        verify(offerCache, times(1)).invalidate(1l);
+        verify(offerExpiryScheduler, times(1)).cancel(1l);
+        verify(offerStore, times(1)).put(cancelledOffer);
+        verify(offerEventLog, times(1)).cancelled(eq(Collections.singletonList(1l)), argThat(now -> !now.isBefore(before)));
+    }
+
+    @Test
+    public void cancelOffer_whenInTransaction_thenCacheAndScheduleUpdatedOnCommit() {
+        Offer cancelledOffer = getOfferObject("One","Offer one", LocalDateTime.now());
+        cancelledOffer.setStatus(Status.CANCELLED);
+        given(offerRepository.cancelOffer(eq(1l), any(LocalDateTime.class))).willReturn(1);
+        given(offerRepository.findById(1l)).willReturn(Optional.of(cancelledOffer));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            offerService.cancelOffer(1l);
+            verify(offerCache, never()).invalidate(1l);
+            verify(offerExpiryScheduler, never()).cancel(1l);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(offerCache, times(1)).invalidate(1l);
+        verify(offerExpiryScheduler, times(1)).cancel(1l);
+    }
+
+    @Test
+    public void cancelOffer_whenNotCancelled_thenNothingInvalidated() {
+        Offer givenOffer = getOfferObject("One","Offer one",LocalDateTime.now().plusHours(1));
+        givenOffer.setStatus(Status.CANCELLED);
         given(offerRepository.findById(1l)).willReturn(Optional.of(givenOffer));
-        offerService.cancelOffer(1l);
 
-        verify(offerRepository, times(1)).save(any(Offer.class));
-        assertNotEquals(futureExpiryDate, givenOffer.getExpiryDate());
+        try {
+            offerService.cancelOffer(1l);
+            fail("Cancelling a cancelled offer should throw");
+        } catch (ValidationException e) {
+            assertEquals("Offer could not be cancelled because it has already been cancelled", e.getMessage());
+        }
+        verify(offerCache, never()).invalidate(1l);
+        verify(offerExpiryScheduler, never()).cancel(1l);
+        verify(offerEventLog, never()).cancelled(anyCollection(), any(LocalDateTime.class));
     }
 
 
@@ -150,57 +330,312 @@ public class OfferServiceImplTest {
         offerService.cancelOffer(1l);
     }
 
+    @Test
+    public void cancelOffers_thenReturnOutcomePerIdInRequestOrder() {
+        BulkCancelRequest request = new BulkCancelRequest();
+        request.setIds(Arrays.asList(4l, 1l, 2l, 1l, 3l));
+        AtomicReference<LocalDateTime> cancelTime = new AtomicReference<>();
+        given(offerRepository.lockCancellableOfferIds(anyCollection(), any(LocalDateTime.class))).willAnswer(invocation -> {
+            cancelTime.set(invocation.getArgument(1));
+            return Collections.singletonList(1l);
+        });
+        given(offerRepository.findStatuses(anyCollection())).willAnswer(invocation -> Arrays.asList(
+                new Object[]{1l, Status.CANCELLED, cancelTime.get()},
+                new Object[]{2l, Status.CANCELLED, LocalDateTime.now().minusDays(1)},
+                new Object[]{3l, Status.EXPIRED, LocalDateTime.now().minusDays(1)}));
+
+        List<BulkCancelResult> results = offerService.cancelOffers(request);
+
+        assertEquals(4, results.size());
+        assertEquals(Long.valueOf(4l), results.get(0).getId());
+        assertEquals(BulkCancelResult.Outcome.NOT_FOUND, results.get(0).getOutcome());
+        assertEquals(BulkCancelResult.Outcome.CANCELLED, results.get(1).getOutcome());
+        assertEquals(BulkCancelResult.Outcome.ALREADY_CANCELLED, results.get(2).getOutcome());
+        assertEquals(BulkCancelResult.Outcome.EXPIRED, results.get(3).getOutcome());
+        verify(offerRepository, times(1)).lockCancellableOfferIds(eq(Arrays.asList(4l, 1l, 2l, 3l)), any(LocalDateTime.class));
+        verify(offerRepository, times(1)).cancelOffers(Collections.singletonList(1l), cancelTime.get());
+        verify(offerCache, times(1)).invalidate(1l);
+        verify(offerExpiryScheduler, times(1)).cancel(1l);
+        verify(offerExpiryScheduler, times(0)).cancel(2l);
+        verify(offerStore, times(1)).changed(Collections.singletonList(1l));
+        verify(offerEventLog, times(1)).cancelled(Collections.singletonList(1l), cancelTime.get());
+    }
+
+    @Test
+    public void cancelOffers_whenFilterGiven_thenActiveMatchingOffersCancelled() {
+        BulkCancelRequest request = new BulkCancelRequest();
+        request.setDescription("%one");
+        int maxSize = offerProperties.getBulk().getMaxSize();
+        given(offerRepository.findActiveOfferIds(eq("%one"), any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(PageRequest.of(0, maxSize)))).willReturn(Arrays.asList(1l, 2l));
+        given(offerRepository.lockCancellableOfferIds(eq(Arrays.asList(1l, 2l)), any(LocalDateTime.class)))
+                .willReturn(Arrays.asList(1l, 2l));
+
+        List<BulkCancelResult> results = offerService.cancelOffers(request);
+
+        assertEquals(2, results.size());
+        verify(offerRepository, times(1)).cancelOffers(eq(Arrays.asList(1l, 2l)), any(LocalDateTime.class));
+        verify(offerRepository, never()).findStatuses(anyCollection());
+    }
+
+    @Test
+    public void cancelOffers_whenCancelledByAnotherRequestAtTheSameTime_thenAlreadyCancelled() {
+        BulkCancelRequest request = new BulkCancelRequest();
+        request.setIds(Collections.singletonList(1l));
+        AtomicReference<LocalDateTime> cancelTime = new AtomicReference<>();
+        given(offerRepository.lockCancellableOfferIds(anyCollection(), any(LocalDateTime.class))).willAnswer(invocation -> {
+            cancelTime.set(invocation.getArgument(1));
+            return Collections.emptyList();
+        });
+        given(offerRepository.findStatuses(anyCollection())).willAnswer(invocation -> Collections.singletonList(
+                new Object[]{1l, Status.CANCELLED, cancelTime.get()}));
+
+        List<BulkCancelResult> results = offerService.cancelOffers(request);
+
+        assertEquals(BulkCancelResult.Outcome.ALREADY_CANCELLED, results.get(0).getOutcome());
+        verify(offerRepository, never()).cancelOffers(anyCollection(), any(LocalDateTime.class));
+        verify(offerEventLog, times(1)).cancelled(Collections.emptyList(), cancelTime.get());
+    }
+
+    @Test(expected = ValidationException.class)
+    public void cancelOffers_whenNeitherIdsNorFilterGiven_thenThrowException() {
+        offerService.cancelOffers(new BulkCancelRequest());
+    }
+
+    @Test(expected = ValidationException.class)
+    public void cancelOffers_whenFilterDateNotValid_thenThrowException() {
+        BulkCancelRequest request = new BulkCancelRequest();
+        request.setExpiresBefore("tomorrow");
+        offerService.cancelOffers(request);
+    }
+
+    @Test(expected = ValidationException.class)
+    public void cancelOffers_whenTooManyIds_thenThrowException() {
+        offerProperties.getBulk().setMaxSize(1);
+        BulkCancelRequest request = new BulkCancelRequest();
+        request.setIds(Arrays.asList(1l, 2l));
+        offerService.cancelOffers(request);
+    }
+
 
     @Test
     public void getOffers() {
-        ArrayList<Offer> offers = new ArrayList<>();
+        ArrayList<OfferView> offers = new ArrayList<>();
         Offer givenOffer1 = getOfferObject("One","Offer one",LocalDateTime.now().plusHours(1));
         Offer givenOffer2 = getOfferObject("Two","Offer two",LocalDateTime.now().plusHours(1));
-        offers.add(givenOffer1);
-        offers.add(givenOffer2);
-        given(offerRepository.findAll()).willReturn(offers);
-        List<Offer> result = offerService.getOffers();
-
-        verify(offerRepository, times(1)).findAll();
-        assertEquals(2, result.size());
+        offers.add(view(givenOffer1));
+        offers.add(view(givenOffer2));
+        given(offerRepository.findOffersPage(eq(0L), anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 101)))).willReturn(offers);
+        OfferPage result = offerService.getOffers(new OfferQuery());
+
+        assertEquals(2, result.getOffers().size());
+        assertNull(result.getNextCursor());
     }
 
     @Test
     public void getOffers_whenNonExist() {
-        ArrayList<Offer> offers = new ArrayList<>();
-        given(offerRepository.findAll()).willReturn(offers);
-        List<Offer> result = offerService.getOffers();
+        given(offerRepository.findOffersPage(anyLong(), anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(LocalDateTime.class), any(PageRequest.class))).willReturn(new ArrayList<>());
+        OfferPage result = offerService.getOffers(new OfferQuery());
 
-        verify(offerRepository, times(1)).findAll();
-        assertEquals(0, result.size());
+        assertEquals(0, result.getOffers().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    public void getOffers_whenMoreThanOnePage_thenReturnCursorOfNextPage() {
+        ArrayList<OfferView> offers = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Offer offer = getOfferObject("Offer" + id, "Offer", LocalDateTime.now().plusHours(1));
+            offer.setId(id);
+            offers.add(view(offer));
+        }
+        given(offerRepository.findOffersPage(eq(0L), anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(LocalDateTime.class), eq(PageRequest.of(0, 3)))).willReturn(offers);
+        OfferQuery query = new OfferQuery();
+        query.setLimit(2);
+
+        OfferPage result = offerService.getOffers(query);
+        assertEquals(2, result.getOffers().size());
+        assertNotNull(result.getNextCursor());
+
+        query.setCursor(result.getNextCursor());
+        offerService.getOffers(query);
+        verify(offerRepository, times(1)).findOffersPage(eq(2L), anyCollection(), any(LocalDateTime.class),
+                any(LocalDateTime.class), any(LocalDateTime.class), eq(PageRequest.of(0, 3)));
+    }
+
+    @Test
+    public void getOffers_whenLimitAboveMaximum_thenPageSizeIsCapped() {
+        given(offerRepository.findOffersPage(anyLong(), anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(LocalDateTime.class), any(PageRequest.class))).willReturn(new ArrayList<>());
+        OfferQuery query = new OfferQuery();
+        query.setLimit(100000);
+
+        offerService.getOffers(query);
+        verify(offerRepository, times(1)).findOffersPage(eq(0L), anyCollection(), any(LocalDateTime.class),
+                any(LocalDateTime.class), any(LocalDateTime.class), eq(PageRequest.of(0, 501)));
     }
 
+    @Test
+    public void getOffers_whenActiveStatus_thenOnlyActiveUnexpiredOffersQueried() {
+        given(offerRepository.findOffersPage(anyLong(), anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(LocalDateTime.class), any(PageRequest.class))).willReturn(new ArrayList<>());
+        OfferQuery query = new OfferQuery();
+        query.setStatus("active");
+        LocalDateTime before = LocalDateTime.now();
+
+        offerService.getOffers(query);
+        verify(offerRepository, times(1)).findOffersPage(eq(0L), eq(EnumSet.of(Status.ACTIVE)),
+                argThat(expiresAfter -> !expiresAfter.isBefore(before)),
+                any(LocalDateTime.class), any(LocalDateTime.class), any(PageRequest.class));
+    }
+
+    @Test(expected = ValidationException.class)
+    public void getOffers_whenStatusNotValid_thenThrowException() {
+        OfferQuery query = new OfferQuery();
+        query.setStatus("pending");
+        offerService.getOffers(query);
+    }
+
+    @Test(expected = ValidationException.class)
+    public void getOffers_whenCursorNotValid_thenThrowException() {
+        OfferQuery query = new OfferQuery();
+        query.setCursor("not a cursor");
+        offerService.getOffers(query);
+    }
+
+    @Test(expected = ValidationException.class)
+    public void getOffers_whenDateNotValid_thenThrowException() {
+        OfferQuery query = new OfferQuery();
+        query.setExpiresBefore("tomorrow");
+        offerService.getOffers(query);
+    }
+
+
+    @Test
+    public void exportOffers_thenEveryOfferIsDetachedAndConsumed() {
+        Offer givenOffer1 = getOfferObject("One","Offer one",LocalDateTime.now().plusHours(1));
+        Offer givenOffer2 = getOfferObject("Two","Offer two",LocalDateTime.now().minusHours(1));
+        givenOffer1.setId(1l);
+        givenOffer2.setId(2l);
+        given(offerRepository.streamOffers(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .willReturn(Stream.of(givenOffer1, givenOffer2));
+        List<Offer> exported = new ArrayList<>();
+
+        offerService.exportOffers(new OfferQuery(), exported::add);
+
+        assertEquals(2, exported.size());
+        assertEquals(Status.EXPIRED, exported.get(1).getStatus());
+        verify(entityManager, times(1)).detach(givenOffer1);
+        verify(entityManager, times(1)).detach(givenOffer2);
+    }
 
     @Test
     public void findOffersByDescription() {
-        ArrayList<Offer> offers = new ArrayList<>();
+        ArrayList<OfferView> offers = new ArrayList<>();
         Offer givenOffer1 = getOfferObject("One","Offer one",LocalDateTime.now().plusHours(1));
         Offer givenOffer2 = getOfferObject("Two","Offer one",LocalDateTime.now().plusHours(1));
-        offers.add(givenOffer1);
-        offers.add(givenOffer2);
-        given(offerRepository.findOffersByDescription(eq("Offer one"))).willReturn(offers);
-        List<Offer> result = offerService.getOfferByDescription("Offer one");
-        verify(offerRepository, times(1)).findOffersByDescription(eq("Offer one"));
+        offers.add(view(givenOffer1));
+        offers.add(view(givenOffer2));
+        given(offerRepository.findOffersByDescription(eq("Offer one"), any(LocalDateTime.class))).willReturn(offers);
+        List<OfferView> result = offerService.getOfferByDescription("Offer one");
+        verify(offerRepository, times(1)).findOffersByDescription(eq("Offer one"), any(LocalDateTime.class));
         assertEquals(2, result.size());
     }
 
 
+    @Test
+    public void findOffersByDescription_whenSubstringSearch_thenOnlyCandidatesQueried() {
+        Offer givenOffer1 = getOfferObject("One","Offer one",LocalDateTime.now().plusHours(1));
+        given(offerSearchIndex.candidates("%one", 5000)).willReturn(new long[]{1l, 2l});
+        given(offerRepository.findOffersByIdsAndDescription(eq(Arrays.asList(1l, 2l)), eq("%one"), any(LocalDateTime.class)))
+                .willReturn(Collections.singletonList(view(givenOffer1)));
+
+        List<OfferView> result = offerService.getOfferByDescription("%one");
+        assertEquals(1, result.size());
+        verify(offerRepository, times(0)).findOffersByDescription(any(), any());
+    }
+
+    @Test
+    public void findOffersByDescription_whenNoCandidate_thenDatabaseNotQueried() {
+        given(offerSearchIndex.candidates("%one", 5000)).willReturn(new long[0]);
+
+        List<OfferView> result = offerService.getOfferByDescription("%one");
+        assertEquals(0, result.size());
+        verify(offerRepository, times(0)).findOffersByDescription(any(), any());
+    }
+
+    @Test
+    public void findOffersByDescription_whenIndexCanNotNarrowSearch_thenDescriptionsScanned() {
+        given(offerSearchIndex.candidates("%on", 5000)).willReturn(null);
+        given(offerRepository.findOffersByDescription(eq("%on"), any(LocalDateTime.class))).willReturn(new ArrayList<>());
+
+        offerService.getOfferByDescription("%on");
+        verify(offerRepository, times(1)).findOffersByDescription(eq("%on"), any(LocalDateTime.class));
+    }
+
     @Test
     public void findOffers_whenNoMatch() {
-        ArrayList<Offer> offers = new ArrayList<>();
+        ArrayList<OfferView> offers = new ArrayList<>();
 
-        given(offerRepository.findOffersByDescription(eq("Offer one"))).willReturn(offers);
-        List<Offer> result = offerService.getOfferByDescription("Offer one");
-        verify(offerRepository, times(1)).findOffersByDescription(eq("Offer one"));
+        given(offerRepository.findOffersByDescription(eq("Offer one"), any(LocalDateTime.class))).willReturn(offers);
+        List<OfferView> result = offerService.getOfferByDescription("Offer one");
+        verify(offerRepository, times(1)).findOffersByDescription(eq("Offer one"), any(LocalDateTime.class));
         assertEquals(0, result.size());
     }
 
 
+    @Test
+    public void getOfferById_whenStored_thenDatabaseNotQueried() {
+        Offer storedOffer = getOfferObject("One","Offer one",LocalDateTime.now().minusMinutes(1));
+        given(offerStore.get(1l)).willReturn(storedOffer);
+
+        assertEquals(Status.EXPIRED, offerService.getOfferById(1l).getStatus());
+        verify(offerRepository, never()).findById(any());
+    }
+
+    @Test
+    public void getOffers_whenStoreReady_thenPageReadFromStore() {
+        Offer givenOffer = getOfferObject("One","Offer one",LocalDateTime.now().plusHours(1));
+        given(offerStore.isReady()).willReturn(true);
+        given(offerStore.page(eq(0L), eq(EnumSet.allOf(Status.class)), any(LocalDateTime.class),
+                any(LocalDateTime.class), any(LocalDateTime.class), eq(101)))
+                .willReturn(new ArrayList<>(Collections.singletonList(view(givenOffer))));
+
+        assertEquals(1, offerService.getOffers(new OfferQuery()).getOffers().size());
+        verify(offerRepository, never()).findOffersPage(anyLong(), anyCollection(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void findOffersByDescription_whenStoreReady_thenStoreSearched() {
+        Offer givenOffer = getOfferObject("One","Offer one",LocalDateTime.now().plusHours(1));
+        given(offerStore.isReady()).willReturn(true);
+        given(offerSearchIndex.candidates("%on", 5000)).willReturn(null);
+        given(offerStore.search(eq("%on"), any(LocalDateTime.class))).willReturn(Collections.singletonList(view(givenOffer)));
+
+        assertEquals(1, offerService.getOfferByDescription("%on").size());
+        verify(offerRepository, never()).findOffersByDescription(any(), any());
+    }
+
+    @Test
+    public void findOffersByDescription_whenStoreReadyAndCandidatesFound_thenOnlyCandidatesRead() {
+        long[] candidates = {1l, 2l};
+        given(offerStore.isReady()).willReturn(true);
+        given(offerSearchIndex.candidates("%one", 5000)).willReturn(candidates);
+        given(offerStore.search(eq("%one"), eq(candidates), any(LocalDateTime.class))).willReturn(new ArrayList<>());
+
+        offerService.getOfferByDescription("%one");
+        verify(offerStore, never()).search(any(), any(LocalDateTime.class));
+        verify(offerRepository, never()).findOffersByIdsAndDescription(anyCollection(), any(), any());
+    }
+
+    private OfferView view(Offer offer) {
+        return new OfferView(offer.getId(), offer.getPrice(), offer.getCurrency(), offer.getExpiryDate(), offer.getName(),
+                offer.getDescription(), offer.getStatus(), offer.getVersion());
+    }
+
     private Offer getOfferObject(String name, String description, LocalDateTime expiry) {
         Offer offer = new Offer();
         offer.setExpiryDate(expiry);
@@ -0,0 +1,301 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferView;
+import com.worldpay.offermanager.model.Status;
+import com.worldpay.offermanager.repository.OfferRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OfferStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0, 0, 123000000);
+
+    @Mock
+    private OfferRepository offerRepository;
+
+    @Spy
+    private OfferProperties offerProperties = new OfferProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private ParallelChunks parallelChunks;
+
+    @InjectMocks
+    private OfferStore offerStore;
+
+    @Before
+    public void setUp() {
+        offerProperties.getStore().setEnabled(true);
+        // a few rows per segment so the tests cross segments
+        offerProperties.getStore().setSegmentSize(2);
+    }
+
+    @Test
+    public void get_whenLoaded_thenReturnCopyOfStoredOffer() {
+        load(view(1l, "One", "Offer one", NOW.plusHours(1), Status.ACTIVE));
+
+        Offer offer = offerStore.get(1l);
+        assertEquals(Long.valueOf(1l), offer.getId());
+        assertEquals(new BigDecimal("10.50"), offer.getPrice());
+        assertEquals(Currency.getInstance("GBP"), offer.getCurrency());
+        assertEquals(NOW.plusHours(1), offer.getExpiryDate());
+        assertEquals("One", offer.getName());
+        assertEquals("Offer one", offer.getDescription());
+        assertEquals(Status.ACTIVE, offer.getStatus());
+        assertEquals(3l, offer.getVersion());
+        assertNotSame(offer, offerStore.get(1l));
+    }
+
+    @Test
+    public void get_whenNotStored_thenReturnNull() {
+        load(view(1l, "One", "Offer one", NOW.plusHours(1), Status.ACTIVE));
+        assertNull(offerStore.get(2l));
+    }
+
+    @Test
+    public void get_whenNotLoaded_thenReturnNull() {
+        offerStore.put(offer(1l, "One", "Offer one", NOW.plusHours(1)));
+        assertFalse(offerStore.isReady());
+        assertNull(offerStore.get(1l));
+    }
+
+    @Test
+    public void put_whenIdsOutOfOrder_thenRowsKeptInIdOrder() {
+        load(view(2l, "Two", "Offer two", NOW.plusHours(1), Status.ACTIVE),
+                view(6l, "Six", "Offer six", NOW.plusHours(1), Status.ACTIVE));
+        offerStore.put(offer(4l, "Four", "Offer four", NOW.plusHours(1)));
+        offerStore.put(offer(1l, "One", "Offer one", NOW.plusHours(1)));
+        offerStore.put(offer(9l, "Nine", "Offer nine", NOW.plusHours(1)));
+
+        assertEquals(Arrays.asList(1l, 2l, 4l, 6l, 9l), ids(page(0l, EnumSet.allOf(Status.class), 10)));
+        assertEquals("Four", offerStore.get(4l).getName());
+        assertEquals(5, offerStore.size());
+    }
+
+    @Test
+    public void put_whenStored_thenReplaced() {
+        load(view(1l, "One", "Offer one", NOW.plusHours(1), Status.ACTIVE));
+        Offer offer = offer(1l, "Renamed", "Offer one", NOW.plusHours(2));
+        offer.setStatus(Status.CANCELLED);
+        offerStore.put(offer);
+
+        assertEquals("Renamed", offerStore.get(1l).getName());
+        assertEquals(Status.CANCELLED, offerStore.get(1l).getStatus());
+        assertEquals(1, offerStore.size());
+    }
+
+    @Test
+    public void page_thenFilterOnStatusExpiryAndCursor() {
+        load(view(1l, "One", "Offer one", NOW.plusHours(1), Status.ACTIVE),
+                view(2l, "Two", "Offer two", NOW.plusHours(2), Status.CANCELLED),
+                view(3l, "Three", "Offer three", NOW.plusHours(3), Status.ACTIVE),
+                view(4l, "Four", "Offer four", NOW.plusHours(4), Status.ACTIVE));
+
+        assertEquals(Arrays.asList(1l, 3l, 4l), ids(page(0l, EnumSet.of(Status.ACTIVE), 10)));
+        assertEquals(Arrays.asList(3l, 4l), ids(page(2l, EnumSet.of(Status.ACTIVE), 10)));
+        assertEquals(Arrays.asList(1l, 3l), ids(page(0l, EnumSet.of(Status.ACTIVE), 2)));
+        assertEquals(Collections.singletonList(3l), ids(offerStore.page(0l, EnumSet.allOf(Status.class),
+                NOW.plusHours(2), NOW.plusHours(3), NOW, 10)));
+    }
+
+    @Test
+    public void page_whenActiveOfferPastExpiry_thenListedAsExpired() {
+        load(view(1l, "One", "Offer one", NOW, Status.ACTIVE));
+        assertEquals(Status.EXPIRED, page(0l, EnumSet.allOf(Status.class), 10).get(0).getStatus());
+    }
+
+    @Test
+    public void search_thenMatchLikePatternCaseInsensitive() {
+        load(view(1l, "One", "Two hour OFFER", NOW.plusHours(1), Status.ACTIVE),
+                view(2l, "Two", "One day offer", NOW.plusHours(1), Status.CANCELLED),
+                view(3l, "Three", "Offer 100%", NOW.plusHours(1), Status.ACTIVE));
+
+        assertEquals(Arrays.asList(1l, 2l), ids(offerStore.search("%Offer", NOW)));
+        assertEquals(Collections.singletonList(1l), ids(offerStore.search("two%", NOW)));
+        assertEquals(Collections.singletonList(2l), ids(offerStore.search("%_ day%", NOW)));
+        assertEquals(Collections.singletonList(3l), ids(offerStore.search("%100\\%", NOW)));
+        assertEquals(Collections.emptyList(), ids(offerStore.search("offer", NOW)));
+    }
+
+    @Test
+    public void search_whenCandidatesGiven_thenOnlyMatchingCandidatesReturned() {
+        load(view(1l, "One", "Two hour offer", NOW.plusHours(1), Status.ACTIVE),
+                view(2l, "Two", "One hour offer", NOW.plusHours(1), Status.ACTIVE),
+                view(3l, "Three", "Three hour offer", NOW.plusHours(1), Status.ACTIVE));
+
+        assertEquals(Arrays.asList(2l, 3l), ids(offerStore.search("%hour%", new long[]{2l, 3l, 4l}, NOW)));
+        assertEquals(Collections.singletonList(3l), ids(offerStore.search("three%", new long[]{2l, 3l}, NOW)));
+    }
+
+    @Test
+    public void search_whenParallel_thenSameAsSequential() {
+        OfferView[] offers = new OfferView[50];
+        for (int i = 0; i < offers.length; i++)
+            offers[i] = view(i + 1l, "Offer " + i, "Offer " + i % 7, NOW.plusMinutes(i - 10),
+                    i % 5 == 0 ? Status.CANCELLED : Status.ACTIVE);
+        load(offers);
+        List<String> search = strings(offerStore.search("%3", NOW));
+
+        offerProperties.getParallel().setThreshold(4);
+        offerProperties.getParallel().setChunkSize(3);
+        offerProperties.getParallel().setThreads(2);
+        ParallelChunks parallel = new ParallelChunks(offerProperties, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(offerStore, "parallelChunks", parallel);
+        try {
+            assertEquals(search, strings(offerStore.search("%3", NOW)));
+            assertEquals(7, search.size());
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    public void changed_thenStatusExpiryAndVersionCopiedFromDatabase() {
+        load(view(1l, "One", "Offer one", NOW.plusHours(1), Status.ACTIVE));
+        given(offerRepository.findVersions(Collections.singletonList(1l)))
+                .willReturn(Collections.singletonList(new Object[]{1l, Status.CANCELLED, NOW, 5l}));
+        offerStore.changed(Collections.singletonList(1l));
+
+        Offer offer = offerStore.get(1l);
+        assertEquals(Status.CANCELLED, offer.getStatus());
+        assertEquals(NOW, offer.getExpiryDate());
+        assertEquals(5l, offer.getVersion());
+    }
+
+    @Test
+    public void changed_whenOlderVersionStoredLast_thenLatestVersionKept() {
+        load(view(1l, "One", "Offer one", NOW.plusHours(1), Status.ACTIVE));
+        // an expiry and a cancel read in this order, their copies stored the other way round
+        given(offerRepository.findVersions(Collections.singletonList(1l))).willReturn(
+                Collections.singletonList(new Object[]{1l, Status.EXPIRED, NOW.plusHours(1), 4l}),
+                Collections.singletonList(new Object[]{1l, Status.CANCELLED, NOW, 5l}));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            offerStore.changed(Collections.singletonList(1l));
+            offerStore.changed(Collections.singletonList(1l));
+            List<TransactionSynchronization> commits = TransactionSynchronizationManager.getSynchronizations();
+            commits.get(1).afterCommit();
+            commits.get(0).afterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Offer offer = offerStore.get(1l);
+        assertEquals(Status.CANCELLED, offer.getStatus());
+        assertEquals(5l, offer.getVersion());
+    }
+
+    @Test
+    public void load_whenOfferChangedBeforeLoaded_thenReadAgain() {
+        Offer cancelled = offer(2l, "Two", "Offer two", NOW);
+        cancelled.setStatus(Status.CANCELLED);
+        given(offerRepository.findAllById(Collections.singletonList(2l))).willReturn(Collections.singletonList(cancelled));
+        given(offerRepository.findVersions(Collections.singletonList(2l)))
+                .willReturn(Collections.singletonList(new Object[]{2l, Status.CANCELLED, NOW, 4l}));
+        given(offerRepository.streamOfferViews()).willReturn(Stream.of(
+                view(1l, "One", "Offer one", NOW.plusHours(1), Status.ACTIVE),
+                view(2l, "Two", "Offer two", NOW.plusHours(1), Status.ACTIVE))
+                .peek(view -> {
+                    if (view.getId() == 1l)
+                        offerStore.changed(Collections.singletonList(2l));
+                }));
+
+        offerStore.load();
+        assertTrue(offerStore.isReady());
+        assertEquals(Status.CANCELLED, offerStore.get(2l).getStatus());
+    }
+
+    @Test
+    public void load_whenDisabled_thenNotReady() {
+        offerProperties.getStore().setEnabled(false);
+        offerStore.load();
+        assertFalse(offerStore.isReady());
+    }
+
+    @Test
+    public void like() {
+        assertTrue(like("offer", "offer"));
+        assertTrue(like("offer", "%"));
+        assertTrue(like("offer", "o%r"));
+        assertTrue(like("offer", "_ff_r"));
+        assertTrue(like("an offer of offers", "%offer%s"));
+        assertTrue(like("50%", "50\\%"));
+        assertFalse(like("500", "50\\%"));
+        assertFalse(like("offer", "offe"));
+        assertFalse(like("offer", "_offer"));
+        assertTrue(like("", "%"));
+        assertFalse(like("", "_"));
+    }
+
+    @Test
+    public void micros_roundTrip() {
+        assertEquals(NOW, OfferStore.fromMicros(OfferStore.toMicros(NOW)));
+        LocalDateTime beforeEpoch = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999999000);
+        assertEquals(beforeEpoch, OfferStore.fromMicros(OfferStore.toMicros(beforeEpoch)));
+        assertEquals(NOW.plusNanos(1000), OfferStore.fromMicros(OfferStore.toMicros(NOW.plusNanos(500))));
+        assertEquals(NOW, OfferStore.fromMicros(OfferStore.toMicros(NOW.plusNanos(499))));
+    }
+
+    private void load(OfferView... offers) {
+        given(offerRepository.streamOfferViews()).willReturn(Stream.of(offers));
+        offerStore.load();
+    }
+
+    private List<OfferView> page(long afterId, Collection<Status> statuses, int limit) {
+        return offerStore.page(afterId, statuses, OfferFilter.EARLIEST_EXPIRY, OfferFilter.LATEST_EXPIRY, NOW, limit);
+    }
+
+    private static List<String> strings(List<OfferView> offers) {
+        return offers.stream().map(OfferView::toString).collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(List<OfferView> offers) {
+        return offers.stream().map(OfferView::getId).collect(Collectors.toList());
+    }
+
+    private static boolean like(String text, String pattern) {
+        return OfferStore.like(text.toCharArray(), text.length(), pattern);
+    }
+
+    private static OfferView view(Long id, String name, String description, LocalDateTime expiry, Status status) {
+        return new OfferView(id, new BigDecimal("10.50"), Currency.getInstance("GBP"), expiry, name, description,
+                status, 3l);
+    }
+
+    private static Offer offer(Long id, String name, String description, LocalDateTime expiry) {
+        Offer offer = new Offer();
+        offer.setId(id);
+        offer.setName(name);
+        offer.setDescription(description);
+        offer.setExpiryDate(expiry);
+        offer.setCurrency(Currency.getInstance("USD"));
+        offer.setPrice(BigDecimal.ONE);
+        offer.setStatus(Status.ACTIVE);
+        return offer;
+    }
+}
@@ -0,0 +1,82 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+public class ParallelChunksTest {
+
+    private ParallelChunks parallelChunks;
+
+    @After
+    public void tearDown() {
+        if (parallelChunks != null)
+            parallelChunks.shutdown();
+    }
+
+    @Test
+    public void map_thenChunksReturnedInOrder() {
+        parallelChunks = parallelChunks(true, 3);
+        assertEquals(Arrays.asList("0-3", "3-6", "6-9", "9-10"), parallelChunks.map(0, 10, (from, to) -> from + "-" + to));
+        assertEquals(Collections.singletonList("2-4"), parallelChunks.map(2, 4, (from, to) -> from + "-" + to));
+    }
+
+    @Test
+    public void map_whenEnabled_thenRunOnPoolThreads() {
+        parallelChunks = parallelChunks(true, 1);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        parallelChunks.map(0, 100, (from, to) -> threads.add(Thread.currentThread().getName()));
+        assertFalse(threads.contains(Thread.currentThread().getName()));
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("offer-parallel-")));
+    }
+
+    @Test
+    public void map_whenDisabled_thenRunOnCallingThread() {
+        parallelChunks = parallelChunks(false, 1);
+        assertFalse(parallelChunks.isParallel(Integer.MAX_VALUE));
+        assertEquals(Collections.singletonList(Thread.currentThread().getName()),
+                parallelChunks.map(0, 100, (from, to) -> Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void map_whenSingleThread_thenRunOnCallingThread() {
+        OfferProperties offerProperties = new OfferProperties();
+        offerProperties.getParallel().setThreshold(10);
+        offerProperties.getParallel().setThreads(1);
+        parallelChunks = new ParallelChunks(offerProperties, new SimpleMeterRegistry());
+        assertFalse(parallelChunks.isParallel(Integer.MAX_VALUE));
+        assertEquals(Collections.singletonList(Thread.currentThread().getName()),
+                parallelChunks.map(0, 100, (from, to) -> Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void isParallel_fromThreshold() {
+        parallelChunks = parallelChunks(true, 1);
+        assertFalse(parallelChunks.isParallel(9));
+        assertTrue(parallelChunks.isParallel(10));
+    }
+
+    @Test
+    public void concat_thenOneListInOrder() {
+        List<List<Integer>> chunks = Arrays.asList(Arrays.asList(1, 2), Collections.emptyList(), Collections.singletonList(3));
+        assertEquals(Arrays.asList(1, 2, 3), ParallelChunks.concat(chunks));
+    }
+
+    private static ParallelChunks parallelChunks(boolean enabled, int chunkSize) {
+        OfferProperties offerProperties = new OfferProperties();
+        offerProperties.getParallel().setEnabled(enabled);
+        offerProperties.getParallel().setThreshold(10);
+        offerProperties.getParallel().setChunkSize(chunkSize);
+        offerProperties.getParallel().setThreads(2);
+        return new ParallelChunks(offerProperties, new SimpleMeterRegistry());
+    }
+}
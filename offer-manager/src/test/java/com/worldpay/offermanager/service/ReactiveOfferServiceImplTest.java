@@ -0,0 +1,137 @@
+package com.worldpay.offermanager.service;
+
+import com.worldpay.offermanager.config.OfferProperties;
+import com.worldpay.offermanager.exception.OfferNotFoundException;
+import com.worldpay.offermanager.model.BulkCancelRequest;
+import com.worldpay.offermanager.model.BulkCancelResult;
+import com.worldpay.offermanager.model.Offer;
+import com.worldpay.offermanager.model.OfferPage;
+import com.worldpay.offermanager.model.OfferQuery;
+import com.worldpay.offermanager.model.OfferView;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReactiveOfferServiceImplTest {
+
+    @Mock
+    private OfferService offerService;
+
+    private ReactiveOfferServiceImpl reactiveOfferService;
+
+    @Before
+    public void setUp() {
+        reactiveOfferService = new ReactiveOfferServiceImpl(offerService, new OfferProperties());
+    }
+
+    @After
+    public void tearDown() {
+        reactiveOfferService.shutdown();
+    }
+
+    @Test
+    public void getOfferById_whenSubscribed_thenEmitOffer() {
+        Offer offer = offer(1l);
+        given(offerService.getOfferById(1l)).willReturn(offer);
+
+        StepVerifier.create(reactiveOfferService.getOfferById(1l))
+                .expectNext(offer)
+                .verifyComplete();
+    }
+
+    @Test
+    public void getOfferById_whenNotSubscribed_thenNothingIsRead() {
+        reactiveOfferService.getOfferById(1l);
+        verifyZeroInteractions(offerService);
+    }
+
+    @Test
+    public void getOfferById_whenNotFound_thenSignalError() {
+        given(offerService.getOfferById(1l)).willThrow(new OfferNotFoundException("Offer with id 1 not found"));
+
+        StepVerifier.create(reactiveOfferService.getOfferById(1l))
+                .expectError(OfferNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    public void cancelOffers_thenEmitOutcomePerOffer() {
+        BulkCancelRequest request = new BulkCancelRequest();
+        given(offerService.cancelOffers(request)).willReturn(Arrays.asList(
+                new BulkCancelResult(1l, BulkCancelResult.Outcome.CANCELLED),
+                new BulkCancelResult(2l, BulkCancelResult.Outcome.NOT_FOUND)));
+
+        StepVerifier.create(reactiveOfferService.cancelOffers(request).map(BulkCancelResult::getOutcome))
+                .expectNext(BulkCancelResult.Outcome.CANCELLED, BulkCancelResult.Outcome.NOT_FOUND)
+                .verifyComplete();
+    }
+
+    @Test
+    public void streamOffers_thenReadPagesByCursorWithFilters() {
+        given(offerService.getOffers(any())).willReturn(
+                new OfferPage(Arrays.asList(view(1l), view(2l)), "next"),
+                new OfferPage(Collections.singletonList(view(3l)), null));
+        OfferQuery query = new OfferQuery();
+        query.setStatus("ACTIVE");
+        query.setLimit(1);
+
+        StepVerifier.create(reactiveOfferService.streamOffers(query).map(OfferView::getId))
+                .expectNext(1l, 2l, 3l)
+                .verifyComplete();
+
+        ArgumentCaptor<OfferQuery> pages = ArgumentCaptor.forClass(OfferQuery.class);
+        verify(offerService, times(2)).getOffers(pages.capture());
+        List<OfferQuery> queries = pages.getAllValues();
+        assertThat(queries.get(0).getCursor(), nullValue());
+        assertThat(queries.get(1).getCursor(), equalTo("next"));
+        assertThat(queries.get(1).getStatus(), equalTo("ACTIVE"));
+        assertThat(queries.get(1).getLimit(), equalTo(500));
+    }
+
+    @Test
+    public void streamOffers_whenFirstPageNotConsumed_thenReadAtMostOnePageAhead() {
+        given(offerService.getOffers(any())).willReturn(
+                new OfferPage(Arrays.asList(view(1l), view(2l)), "second"),
+                new OfferPage(Arrays.asList(view(3l), view(4l)), "third"),
+                new OfferPage(Collections.singletonList(view(5l)), null));
+
+        StepVerifier.create(reactiveOfferService.streamOffers(new OfferQuery()).map(OfferView::getId), 1)
+                .expectNext(1l)
+                .thenAwait(Duration.ofMillis(200))
+                .thenCancel()
+                .verify();
+
+        verify(offerService, atMost(2)).getOffers(any());
+    }
+
+    private static OfferView view(long id) {
+        return new OfferView(id, 0, "GBP", 0, null, null, null, 0);
+    }
+
+    private static Offer offer(long id) {
+        Offer offer = new Offer();
+        offer.setId(id);
+        return offer;
+    }
+}